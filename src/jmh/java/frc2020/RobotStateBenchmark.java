@@ -0,0 +1,75 @@
+package frc2020;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import lib.geometry.Pose2d;
+import lib.geometry.Rotation2d;
+
+/**
+ * Three readers getting the robot's latest pose from {@link RobotState} while one writer keeps adding observations as
+ * fast as it can: the locked history lookup next to the lock free snapshot
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Group)
+public class RobotStateBenchmark {
+    private RobotState mState;
+    // Only touched by the group's one writer thread
+    private double mTimestamp;
+
+    @Setup
+    public void setup() {
+        mState = RobotState.getInstance();
+        mState.reset(0.0, Pose2d.identity());
+        mTimestamp = 0.0;
+    }
+
+    private void write() {
+        mTimestamp += 0.01;
+        mState.addFieldToVehicleObservation(mTimestamp, new Pose2d(mTimestamp, 0.0, Rotation2d.identity()));
+    }
+
+    @Benchmark
+    @Group("locked")
+    @GroupThreads(3)
+    public double lockedGetFieldToVehicle() {
+        return mState.getFieldToVehicle(Double.MAX_VALUE).getTranslation().x();
+    }
+
+    @Benchmark
+    @Group("locked")
+    @GroupThreads(1)
+    public void lockedAddObservation() {
+        write();
+    }
+
+    @Benchmark
+    @Group("lockFree")
+    @GroupThreads(3)
+    public double lockFreeGetLatestSnapshot() {
+        return mState.getLatestSnapshot().field_to_vehicle.getTranslation().x();
+    }
+
+    @Benchmark
+    @Group("lockFree")
+    @GroupThreads(1)
+    public void lockFreeAddObservation() {
+        write();
+    }
+}
@@ -0,0 +1,67 @@
+package lib.geometry;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of the pose math used every loop by odometry and path following
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GeometryBenchmark {
+    // Not final, so the JIT can't fold them into constants
+    private Pose2d mPoseA = new Pose2d(1.5, -2.0, Rotation2d.fromDegrees(30));
+    private Pose2d mPoseB = new Pose2d(4.0, 3.0, Rotation2d.fromDegrees(-120));
+    private Twist2d mTwist = new Twist2d(0.05, 0.01, 0.02);
+    private double mRadians = 1.234;
+    private double mX = 0.6;
+    private double mY = -0.8;
+
+    @Benchmark
+    public Pose2d poseExp() {
+        return Pose2d.exp(mTwist);
+    }
+
+    @Benchmark
+    public Twist2d poseLog() {
+        return Pose2d.log(mPoseA);
+    }
+
+    @Benchmark
+    public Pose2d poseTransformBy() {
+        return mPoseA.transformBy(mPoseB);
+    }
+
+    @Benchmark
+    public Pose2d poseInterpolate() {
+        return mPoseA.interpolate(mPoseB, 0.37);
+    }
+
+    @Benchmark
+    public Rotation2d rotationFromRadians() {
+        return new Rotation2d(mRadians, true);
+    }
+
+    @Benchmark
+    public Rotation2d rotationFromDegrees() {
+        return Rotation2d.fromDegrees(mRadians);
+    }
+
+    @Benchmark
+    public Rotation2d rotationFromVector() {
+        return new Rotation2d(mX, mY, true);
+    }
+}
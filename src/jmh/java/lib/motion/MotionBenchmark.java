@@ -0,0 +1,81 @@
+package lib.motion;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of generating and following 1D motion profiles
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MotionBenchmark {
+    private static final double kDt = 0.01;
+
+    private MotionProfileConstraints mConstraints = new MotionProfileConstraints(120.0, 240.0);
+    private MotionProfileGoal mGoal = new MotionProfileGoal(100.0, 0.0);
+    private MotionState mStart = new MotionState(0.0, 0.0, 10.0, 0.0);
+
+    private SetpointGenerator mSetpointGenerator;
+    private MotionState mSetpointState;
+
+    private ProfileFollower mFollower;
+    private MotionState mFollowerState;
+
+    @Setup
+    public void setup() {
+        mSetpointGenerator = new SetpointGenerator();
+        mSetpointState = mStart;
+
+        mFollower = new ProfileFollower(0.1, 0.0, 0.01, 1.0 / 120.0, 0.0, 0.0);
+        mFollower.setGoalAndConstraints(mGoal, mConstraints);
+        mFollowerState = mStart;
+    }
+
+    @Benchmark
+    public MotionProfile generateProfile() {
+        return MotionProfileGenerator.generateProfile(mConstraints, mGoal, mStart);
+    }
+
+    /**
+     * Steps through the profile one loop period at a time, so this is mostly the cached profile lookup
+     */
+    @Benchmark
+    public SetpointGenerator.Setpoint getSetpoint() {
+        SetpointGenerator.Setpoint setpoint = mSetpointGenerator.getSetpoint(mConstraints, mGoal, mSetpointState,
+                mSetpointState.t() + kDt);
+        mSetpointState = setpoint.final_setpoint ? mStart : setpoint.motion_state;
+        if (setpoint.final_setpoint) {
+            mSetpointGenerator.reset();
+        }
+        return setpoint;
+    }
+
+    /**
+     * Follows the profile perfectly, feeding each setpoint back as the measured state
+     */
+    @Benchmark
+    public double profileFollowerUpdate() {
+        double output = mFollower.update(mFollowerState, mFollowerState.t() + kDt);
+        mFollowerState = mFollower.getSetpoint();
+        if (mFollower.isFinishedProfile()) {
+            mFollower.resetProfile();
+            mFollower.setGoalAndConstraints(mGoal, mConstraints);
+            mFollowerState = mStart;
+        }
+        return output;
+    }
+}
@@ -0,0 +1,65 @@
+package lib.util;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import lib.geometry.Pose2d;
+import lib.geometry.Rotation2d;
+
+/**
+ * Interpolated pose history lookups, the old RobotState storage, next to the primitive buffer that replaced it
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class InterpolatingTreeMapBenchmark {
+    private static final int kSize = 100;
+    private static final double kDt = 0.01;
+
+    private InterpolatingTreeMap<InterpolatingDouble, Pose2d> mTreeMap;
+    private InterpolatingPoseBuffer mBuffer;
+    private double mQueryTime = 0.0;
+
+    @Setup
+    public void setup() {
+        mTreeMap = new InterpolatingTreeMap<>(kSize);
+        mBuffer = new InterpolatingPoseBuffer(kSize);
+        for (int i = 0; i < kSize; i++) {
+            Pose2d pose = new Pose2d(i * 0.02, i * -0.01, Rotation2d.fromDegrees(i));
+            mTreeMap.put(new InterpolatingDouble(i * kDt), pose);
+            mBuffer.add(i * kDt, pose);
+        }
+    }
+
+    private double nextQueryTime() {
+        // Walk through the history between samples, like latency compensated vision lookups
+        mQueryTime += kDt * 0.37;
+        if (mQueryTime > kSize * kDt) {
+            mQueryTime -= kSize * kDt;
+        }
+        return mQueryTime;
+    }
+
+    @Benchmark
+    public Pose2d treeMapGetInterpolated() {
+        return mTreeMap.getInterpolated(new InterpolatingDouble(nextQueryTime()));
+    }
+
+    @Benchmark
+    public Pose2d poseBufferGetInterpolated() {
+        return mBuffer.getInterpolated(nextQueryTime());
+    }
+}
@@ -7,10 +7,9 @@
 
 package frc2020;
 
-import edu.wpi.first.wpilibj.geometry.Translation2d;
-import edu.wpi.first.wpilibj.kinematics.SwerveDriveKinematics;
 import edu.wpi.first.wpilibj.util.Units;
 import frc2020.subsystems.SwerveModule.SwerveModuleConstants;
+import lib.SwerveKinematics;
 
 public final class Constants {
 
@@ -18,6 +17,18 @@ public final class Constants {
     public static final WhichRobot kWhichRobot = WhichRobot.PAT;
 
     public static final boolean kRapidFire = true;
+    /** Read independent subsystem inputs in parallel (see {@link lib.SubsystemManager#enableParallelReads}) */
+    public static final boolean kParallelSubsystemReads = false;
+    /** Threads used for parallel reads, including the loop thread */
+    public static final int kSubsystemReadThreads = 4;
+    /** Log every subsystem's PeriodicIO while enabled (see {@link lib.logging.TelemetryLogger}) */
+    public static final boolean kTelemetryLogging = false;
+    public static final String kTelemetryLogDirectory = "/home/lvuser/logs";
+    /** Binary copies of the deployed PathWeaver trajectories (see {@link frc2020.paths.TrajectoryRegistry}) */
+    public static final String kTrajectoryCacheDirectory = "/home/lvuser/trajectory_cache";
+    public static final int kTrajectoryLoadThreads = 2;
+    /** Longest a path action waits for its trajectory to finish loading, seconds */
+    public static final double kTrajectoryLoadTimeout = 2.0;
     /** Degrees */
     public static final int kInitialHeading = 0;
 
@@ -71,17 +82,11 @@ public final class Constants {
 
     public static final double kDriveLength = Units.inchesToMeters(16);
     public static final double kDriveWidth = Units.inchesToMeters(16);
-    public static final SwerveDriveKinematics kSwerveKinematics;
-    static {
-        Translation2d frontRightLocation = new Translation2d(kDriveLength, -kDriveWidth);
-        Translation2d frontLeftLocation = new Translation2d(kDriveLength, kDriveWidth);
-        Translation2d backLeftLocation = new Translation2d(-kDriveLength, kDriveWidth);
-        Translation2d backRightLocation = new Translation2d(-kDriveLength, -kDriveWidth);
-    
-        kSwerveKinematics = new SwerveDriveKinematics(
-            frontRightLocation, frontLeftLocation, backLeftLocation, backRightLocation
-        );
-    }
+    // Front right, front left, back left, back right
+    public static final SwerveKinematics kSwerveKinematics = new SwerveKinematics(
+        new double[] { kDriveLength, kDriveLength, -kDriveLength, -kDriveLength },
+        new double[] { -kDriveWidth, kDriveWidth, kDriveWidth, -kDriveWidth }
+    );
 
     public static final SwerveModuleConstants kFrontRightModuleConstants = new SwerveModuleConstants();
     static {
@@ -4,8 +4,8 @@ import java.util.regex.Pattern;
 
 import edu.wpi.first.hal.simulation.AddressableLEDDataJNI;
 import edu.wpi.first.wpilibj.AddressableLEDBuffer;
-import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj.util.Color;
+import lib.util.Stopwatch;
 
 public class PatternGenerator {
     private final int mStripLength;
@@ -17,7 +17,7 @@ public class PatternGenerator {
     private int mDashFullLength = 0;
     private double mCycleTime = 0;
 
-    private Timer mTimer = new Timer();
+    private Stopwatch mTimer = new Stopwatch();
     private int mOffset = 0;
 
     private enum PatternMode {
@@ -9,10 +9,10 @@ import lib.util.*;
 import lib.loops.*;
 import lib.subsystems.*;
 import lib.SubsystemManager;
+import lib.drivers.CanBusBudget;
 import edu.wpi.first.cameraserver.CameraServer;
 import edu.wpi.first.wpilibj.Compressor;
 import edu.wpi.first.wpilibj.DigitalInput;
-import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj.util.Units;
 import frc2020.subsystems.Drive;
@@ -27,6 +27,7 @@ import frc2020.subsystems.Hood;
 import frc2020.subsystems.Shooter;
 import frc2020.subsystems.Superstructure;
 import frc2020.subsystems.SwerveModule;
+import frc2020.auto.ActionExecutor;
 import frc2020.auto.AutoModeExecutor;
 import frc2020.auto.modes.AutoModeBase;
 import frc2020.hmi.HMI;
@@ -101,13 +102,35 @@ public class Robot extends TimedRobot {
                 mLED,
                 mPixy
             );
+
+            if (Constants.kParallelSubsystemReads) {
+                // Drive reads the module states, so it stays on the loop thread and runs after these
+                mSubsystemManager.enableParallelReads(
+                    Constants.kSubsystemReadThreads,
+                    mDrive.getSwerveModules()[0],
+                    mDrive.getSwerveModules()[1],
+                    mDrive.getSwerveModules()[2],
+                    mDrive.getSwerveModules()[3],
+                    mIntake,
+                    mHood,
+                    mShooter,
+                    mInventory,
+                    mLimelight,
+                    mPixy
+                );
+            }
             
+            // Every talon has been created by now
+            System.out.println(CanBusBudget.getInstance().getReport());
+
+            mSubsystemManager.registerPostReadLoop(ActionExecutor.getInstance());
             mSubsystemManager.registerEnabledLoops(mEnabledLooper);
             mSubsystemManager.registerDisabledLoops(mDisabledLooper);
 
             mAutoModeSelector.updateModeCreator();
 
-            mTrajectoryRegistry.load("Slalom", "Barrel", "Bounce1", "RedA", "RedB");
+            // Loads in the background; path actions wait for their path only if it is not ready yet
+            mTrajectoryRegistry.preloadAll();
 
             if(!SmartDashboard.containsKey("Disable Shooter")) {
                 SmartDashboard.putBoolean("Disable Shooter", false);
@@ -123,7 +146,14 @@ public class Robot extends TimedRobot {
     @Override
     public void disabledInit() {
         try {
+            CrashTracker.logDisabledInit();
             mEnabledLooper.stop();
+            mSubsystemManager.getProfiler().printReport(5);
+            mTrajectoryRegistry.printWaitReport();
+            if (mAutoModeExecutor != null) {
+                mAutoModeExecutor.printTimingReport();
+            }
+            mSubsystemManager.stopLogging();
 
             mCompressor.stop();
             mDrive.setBraked(true);
@@ -162,6 +192,7 @@ public class Robot extends TimedRobot {
     @Override
     public void teleopInit() {
         try {
+            CrashTracker.logTeleopInit();
             if (mAutoModeExecutor != null) {
                 mAutoModeExecutor.stop();
             }
@@ -185,6 +216,10 @@ public class Robot extends TimedRobot {
 
         mCoastDrive = false;
 
+        mSubsystemManager.getProfiler().reset();
+        if (Constants.kTelemetryLogging) {
+            mSubsystemManager.startLogging(Constants.kTelemetryLogDirectory);
+        }
         mEnabledLooper.start();
     }
 
@@ -206,6 +241,7 @@ public class Robot extends TimedRobot {
         try {
             //Output to dashboard
             mSubsystemManager.outputToSmartDashboard();
+            mEnabledLooper.outputToSmartDashboard();
             mAutoModeSelector.outputToSmartDashboard();
         } catch (Throwable t) {
             CrashTracker.logThrowableCrash(t);
@@ -245,6 +281,8 @@ public class Robot extends TimedRobot {
                 System.out.println("Set auto mode to: " + autoMode.get().getClass().toString());
                 mAutoModeExecutor.setAutoMode(autoMode.get());
             }
+            SmartDashboard.putBoolean("Auto Warmed Up", mAutoModeExecutor.isWarmedUp());
+            SmartDashboard.putBoolean("Auto Warm Up Failed", mAutoModeExecutor.isWarmUpFailed());
         } catch (Throwable t) {
             CrashTracker.logThrowableCrash(t);
             throw t;
@@ -278,9 +316,9 @@ public class Robot extends TimedRobot {
     private boolean aimManual = false;
     private boolean enableFlywheel = false;
 
-    double lastTimestamp = Timer.getFPGATimestamp();
+    double lastTimestamp = Clock.now();
     public void manualControl() {
-        double timestamp = Timer.getFPGATimestamp();
+        double timestamp = Clock.now();
         double dt = timestamp - lastTimestamp;
         lastTimestamp = timestamp;
 
@@ -396,7 +434,7 @@ public class Robot extends TimedRobot {
         }
     }
 
-    Timer testTimer = new Timer();
+    Stopwatch testTimer = new Stopwatch();
     LatchedBoolean testLatch1 = new LatchedBoolean();
     LatchedBoolean testLatch2 = new LatchedBoolean();
     boolean indexing = false;
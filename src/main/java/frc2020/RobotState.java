@@ -1,16 +1,18 @@
 package frc2020;
 
 import lib.Kinematics;
+import lib.geometry.MutablePose2d;
 import lib.geometry.Pose2d;
 import lib.geometry.Rotation2d;
 import lib.geometry.Translation2d;
 import lib.geometry.Twist2d;
+import lib.util.Clock;
 import lib.util.InterpolatingDouble;
-import lib.util.InterpolatingTreeMap;
+import lib.util.DashboardPublisher;
+import lib.util.DashboardPublisher.NumberEntry;
+import lib.util.InterpolatingPoseBuffer;
 import lib.util.MovingAverageTwist2d;
 
-import edu.wpi.first.wpilibj.Timer;
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj.util.Units;
 
 import static frc2020.Constants.*;
@@ -31,13 +33,39 @@ public class RobotState {
 
     private static final int kObservationBufferSize = 100;
 
-    // FPGATimestamp -> Pose2d or Rotation2d
-    private InterpolatingTreeMap<InterpolatingDouble, Pose2d> field_to_vehicle_;
+    /**
+     * Immutable copy of the latest robot state. A new one is published every time the state changes, so readers on
+     * other threads can grab a consistent pose and velocity without locking.
+     */
+    public static class Snapshot {
+        public final long version;
+        public final double timestamp;
+        public final Pose2d field_to_vehicle;
+        public final Twist2d predicted_velocity;
+        public final Twist2d measured_velocity;
+
+        private Snapshot(long version, double timestamp, Pose2d field_to_vehicle, Twist2d predicted_velocity,
+                Twist2d measured_velocity) {
+            this.version = version;
+            this.timestamp = timestamp;
+            this.field_to_vehicle = field_to_vehicle;
+            this.predicted_velocity = predicted_velocity;
+            this.measured_velocity = measured_velocity;
+        }
+    }
+
+    // FPGATimestamp -> Pose2d
+    private final InterpolatingPoseBuffer field_to_vehicle_ = new InterpolatingPoseBuffer(kObservationBufferSize);
+    private double latest_timestamp_;
+    private Pose2d latest_field_to_vehicle_;
     private Twist2d vehicle_velocity_predicted_;
     private Twist2d vehicle_velocity_measured_;
     private MovingAverageTwist2d vehicle_velocity_measured_filtered_;
     private double distance_driven_;
 
+    // Only written while holding the lock, read without it
+    private volatile Snapshot snapshot_;
+
     //private GoalTracker vision_target_low_ = new GoalTracker();
     //private GoalTracker vision_target_high_ = new GoalTracker();
 
@@ -52,16 +80,31 @@ public class RobotState {
      * Resets the field to robot transform (robot's position on the field)
      */
     public synchronized void reset(double start_time, Pose2d initial_field_to_vehicle) {
-        field_to_vehicle_ = new InterpolatingTreeMap<>(kObservationBufferSize);
-        field_to_vehicle_.put(new InterpolatingDouble(start_time), initial_field_to_vehicle);
+        field_to_vehicle_.clear();
+        latest_field_to_vehicle_ = null;
         vehicle_velocity_predicted_ = Twist2d.identity();
         vehicle_velocity_measured_ = Twist2d.identity();
         vehicle_velocity_measured_filtered_ = new MovingAverageTwist2d(25);
         distance_driven_ = 0.0;
+        addFieldToVehicleObservation(start_time, initial_field_to_vehicle);
     }
 
     public synchronized void reset() {
-        reset(Timer.getFPGATimestamp(), new Pose2d(0, 0, Rotation2d.fromDegrees(kInitialHeading)));
+        reset(Clock.now(), new Pose2d(0, 0, Rotation2d.fromDegrees(kInitialHeading)));
+    }
+
+    private void publishSnapshot() {
+        Snapshot previous = snapshot_;
+        snapshot_ = new Snapshot(previous == null ? 0 : previous.version + 1, latest_timestamp_,
+                latest_field_to_vehicle_, vehicle_velocity_predicted_, vehicle_velocity_measured_);
+    }
+
+    /**
+     * Returns the latest published state without locking. Use this from threads that only need the current pose or
+     * velocity (auto actions, teleop, dashboard).
+     */
+    public Snapshot getLatestSnapshot() {
+        return snapshot_;
     }
 
     /**
@@ -69,20 +112,59 @@ public class RobotState {
      * to fill in the gaps.
      */
     public synchronized Pose2d getFieldToVehicle(double timestamp) {
-        return field_to_vehicle_.getInterpolated(new InterpolatingDouble(timestamp));
+        return field_to_vehicle_.getInterpolated(timestamp);
     }
 
-    public synchronized Map.Entry<InterpolatingDouble, Pose2d> getLatestFieldToVehicle() {
-        return field_to_vehicle_.lastEntry();
+    /**
+     * Allocation free version of {@link #getFieldToVehicle(double)}
+     *
+     * @return dest, set to the robot position at the timestamp
+     */
+    public synchronized MutablePose2d getFieldToVehicle(double timestamp, MutablePose2d dest) {
+        return field_to_vehicle_.getInterpolated(timestamp, dest);
+    }
+
+    public Map.Entry<InterpolatingDouble, Pose2d> getLatestFieldToVehicle() {
+        Snapshot snapshot = snapshot_;
+        return new AbstractMap.SimpleImmutableEntry<>(new InterpolatingDouble(snapshot.timestamp), snapshot.field_to_vehicle);
+    }
+
+    public Pose2d getPredictedFieldToVehicle(double lookahead_time) {
+        Snapshot snapshot = snapshot_;
+        return snapshot.field_to_vehicle
+                .transformBy(Pose2d.exp(snapshot.predicted_velocity.scaled(lookahead_time)));
+    }
+
+    /**
+     * Allocation free version of {@link #getLatestFieldToVehicle()}
+     *
+     * @return dest, set to the latest robot position
+     */
+    public MutablePose2d getLatestFieldToVehicle(MutablePose2d dest) {
+        return dest.set(snapshot_.field_to_vehicle);
     }
 
-    public synchronized Pose2d getPredictedFieldToVehicle(double lookahead_time) {
-        return getLatestFieldToVehicle().getValue()
-                .transformBy(Pose2d.exp(vehicle_velocity_predicted_.scaled(lookahead_time)));
+    /**
+     * Allocation free version of {@link #getPredictedFieldToVehicle(double)}
+     *
+     * @return dest, set to the predicted robot position
+     */
+    public MutablePose2d getPredictedFieldToVehicle(double lookahead_time, MutablePose2d dest) {
+        Snapshot snapshot = snapshot_;
+        return dest.set(snapshot.field_to_vehicle).transformByExp(
+                snapshot.predicted_velocity.dx * lookahead_time,
+                snapshot.predicted_velocity.dy * lookahead_time,
+                snapshot.predicted_velocity.dtheta * lookahead_time);
     }
 
     public synchronized void addFieldToVehicleObservation(double timestamp, Pose2d observation) {
-        field_to_vehicle_.put(new InterpolatingDouble(timestamp), observation);
+        field_to_vehicle_.add(timestamp, observation);
+        // Only a newer observation changes the latest state
+        if (latest_field_to_vehicle_ == null || timestamp >= latest_timestamp_) {
+            latest_timestamp_ = timestamp;
+            latest_field_to_vehicle_ = observation;
+            publishSnapshot();
+        }
     }
 
     /* TODO
@@ -109,12 +191,12 @@ public class RobotState {
         distance_driven_ = 0.0;
     }
 
-    public synchronized Twist2d getPredictedVelocity() {
-        return vehicle_velocity_predicted_;
+    public Twist2d getPredictedVelocity() {
+        return snapshot_.predicted_velocity;
     }
 
-    public synchronized Twist2d getMeasuredVelocity() {
-        return vehicle_velocity_measured_;
+    public Twist2d getMeasuredVelocity() {
+        return snapshot_.measured_velocity;
     }
 
     public synchronized Twist2d getSmoothedVelocity() {
@@ -218,7 +300,7 @@ public class RobotState {
             return Optional.empty();
         }
 
-        double timestamp = Timer.getFPGATimestamp();
+        double timestamp = Clock.now();
 
         // Find the best track.
         TrackReportComparator comparator = new TrackReportComparator(
@@ -248,11 +330,17 @@ public class RobotState {
     }
     */
 
-    public synchronized void outputToSmartDashboard() {
-        var pose = getLatestFieldToVehicle().getValue();
-        SmartDashboard.putNumber("x", Units.metersToInches(pose.getTranslation().x()));
-        SmartDashboard.putNumber("y", Units.metersToInches(pose.getTranslation().y()));
-        SmartDashboard.putNumber("theta", pose.getRotation().getDegrees());
+    // Rate limited by the caller (RobotStateEstimator)
+    private final DashboardPublisher dashboard_ = new DashboardPublisher(0);
+    private final NumberEntry x_entry_ = dashboard_.number("x", 0.1);
+    private final NumberEntry y_entry_ = dashboard_.number("y", 0.1);
+    private final NumberEntry theta_entry_ = dashboard_.number("theta", 0.1);
+
+    public void outputToSmartDashboard() {
+        var pose = getLatestSnapshot().field_to_vehicle;
+        x_entry_.set(Units.metersToInches(pose.getTranslation().x()));
+        y_entry_.set(Units.metersToInches(pose.getTranslation().y()));
+        theta_entry_.set(pose.getRotation().getDegrees());
 
         //SmartDashboard.putString("Robot Velocity", getMeasuredVelocity().toString());
     }
@@ -0,0 +1,91 @@
+package frc2020.auto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import frc2020.auto.modes.AutoModeBase;
+import lib.loops.Loop;
+import lib.util.Clock;
+
+/**
+ * Steps the routines of the running auto modes inside the enabled loop, right after the subsystems' inputs are read
+ * (register it with {@link lib.SubsystemManager#registerPostReadLoop}), after the odometry update. Actions see this
+ * cycle's sensor data and pose, and whatever they command is acted on by the subsystems in the same cycle.
+ * <p>
+ * Every routine is an {@link ActionGraph} stepped on the loop thread, so there is no thread per mode, several modes
+ * can run at once, and a stopped mode's actions end immediately. A mode that is interrupted is not stepped until it
+ * is resumed.
+ */
+public class ActionExecutor implements Loop {
+    private static ActionExecutor mInstance;
+
+    private final List<AutoModeBase> mModes = new ArrayList<>();
+
+    public synchronized static ActionExecutor getInstance() {
+        if (mInstance == null) {
+            mInstance = new ActionExecutor();
+        }
+
+        return mInstance;
+    }
+
+    private ActionExecutor() {}
+
+    /**
+     * Starts the mode's routine on the next loop cycle
+     */
+    public synchronized void start(AutoModeBase mode) {
+        if (!mModes.contains(mode)) {
+            mode.getGraph();
+            mModes.add(mode);
+        }
+    }
+
+    /**
+     * Ends the mode's running actions now
+     */
+    public synchronized void stop(AutoModeBase mode) {
+        if (mModes.remove(mode)) {
+            mode.getGraph().stop(Clock.now());
+        }
+    }
+
+    /**
+     * @return true from when the mode is started until its routine finishes or it is stopped
+     */
+    public synchronized boolean isRunning(AutoModeBase mode) {
+        return mModes.contains(mode);
+    }
+
+    @Override
+    public void onStart(double timestamp) {}
+
+    @Override
+    public synchronized void onLoop(double timestamp) {
+        for (int i = 0; i < mModes.size(); i++) {
+            AutoModeBase mode = mModes.get(i);
+            if (mode.getIsInterrupted()) {
+                continue;
+            }
+
+            ActionGraph graph = mode.getGraph();
+            if (!graph.isStarted()) {
+                graph.start(timestamp);
+            }
+            if (graph.step(timestamp)) {
+                mModes.remove(i--);
+                mode.done();
+            }
+        }
+    }
+
+    /**
+     * Modes only run while enabled
+     */
+    @Override
+    public synchronized void onStop(double timestamp) {
+        for (AutoModeBase mode : new ArrayList<>(mModes)) {
+            mode.stop();
+        }
+    }
+}
@@ -0,0 +1,430 @@
+package frc2020.auto;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+import frc2020.auto.actions.Action;
+import frc2020.auto.actions.ParallelAction;
+import frc2020.auto.actions.RaceAction;
+import frc2020.auto.actions.SelectAction;
+import frc2020.auto.actions.SeriesAction;
+
+/**
+ * An auto routine compiled into a tree of nodes for {@link ActionExecutor} to step. {@link SeriesAction},
+ * {@link ParallelAction}, {@link RaceAction} and {@link SelectAction} are taken apart and run by their nodes; every other
+ * action is a leaf. A leaf is checked with isFinished and then updated every step, and when one finishes its series
+ * moves on to the next action in the same step.
+ * <p>
+ * Stopping the graph ends every running leaf at once with done(). Each node keeps when it ran and how long its steps
+ * took. A graph runs once.
+ */
+public class ActionGraph {
+    public static abstract class Node {
+        private final String mName;
+        private final List<Node> mChildren;
+
+        private double mStartTime = Double.NaN;
+        private double mEndTime = Double.NaN;
+        private boolean mPreempted = false;
+        private int mSteps = 0;
+        private long mNanos = 0;
+        private long mMaxStepNanos = 0;
+
+        private Node(String name, List<Node> children) {
+            mName = name;
+            mChildren = Collections.unmodifiableList(children);
+        }
+
+        final void start(double now) {
+            mStartTime = now;
+            long start = System.nanoTime();
+            onStart(now);
+            mNanos += System.nanoTime() - start;
+        }
+
+        /**
+         * @return true once the node has finished
+         */
+        final boolean step(double now) {
+            long start = System.nanoTime();
+            boolean finished = onStep(now);
+            long nanos = System.nanoTime() - start;
+            mNanos += nanos;
+            mMaxStepNanos = Math.max(mMaxStepNanos, nanos);
+            mSteps++;
+            if (finished) {
+                mEndTime = now;
+            }
+            return finished;
+        }
+
+        final void preempt(double now) {
+            if (isRunning()) {
+                long start = System.nanoTime();
+                onPreempt(now);
+                mNanos += System.nanoTime() - start;
+                mPreempted = true;
+                mEndTime = now;
+            }
+        }
+
+        abstract void onStart(double now);
+
+        abstract boolean onStep(double now);
+
+        abstract void onPreempt(double now);
+
+        public String getName() {
+            return mName;
+        }
+
+        public List<Node> getChildren() {
+            return mChildren;
+        }
+
+        public boolean isRunning() {
+            return !Double.isNaN(mStartTime) && Double.isNaN(mEndTime);
+        }
+
+        /**
+         * @return robot time the node started, or NaN if it has not
+         */
+        public double getStartTime() {
+            return mStartTime;
+        }
+
+        /**
+         * @return robot time the node finished or was stopped, or NaN if it has not
+         */
+        public double getEndTime() {
+            return mEndTime;
+        }
+
+        /**
+         * @return true if the node was stopped before it finished
+         */
+        public boolean wasPreempted() {
+            return mPreempted;
+        }
+
+        public int getSteps() {
+            return mSteps;
+        }
+
+        /**
+         * @return seconds spent in the node's code, including its children
+         */
+        public double getCpuTime() {
+            return mNanos * 1e-9;
+        }
+
+        /**
+         * @return seconds taken by the node's longest step, including its children
+         */
+        public double getMaxStepTime() {
+            return mMaxStepNanos * 1e-9;
+        }
+
+        /**
+         * @return seconds of robot time the node ran, 0 if it never started
+         */
+        public double getDuration() {
+            if (Double.isNaN(mStartTime)) {
+                return 0;
+            }
+            return Double.isNaN(mEndTime) ? Double.NaN : mEndTime - mStartTime;
+        }
+    }
+
+    private static class LeafNode extends Node {
+        private final Action mAction;
+
+        LeafNode(Action action) {
+            super(nameOf(action), new ArrayList<>());
+            mAction = action;
+        }
+
+        @Override
+        void onStart(double now) {
+            mAction.start();
+        }
+
+        @Override
+        boolean onStep(double now) {
+            if (mAction.isFinished()) {
+                mAction.done();
+                return true;
+            }
+            mAction.update();
+            return false;
+        }
+
+        @Override
+        void onPreempt(double now) {
+            mAction.done();
+        }
+    }
+
+    private static class SeriesNode extends Node {
+        private int mIndex;
+
+        SeriesNode(List<Node> children) {
+            super("Series", children);
+        }
+
+        @Override
+        void onStart(double now) {
+            mIndex = 0;
+            if (!getChildren().isEmpty()) {
+                getChildren().get(0).start(now);
+            }
+        }
+
+        @Override
+        boolean onStep(double now) {
+            List<Node> children = getChildren();
+            while (mIndex < children.size()) {
+                if (!children.get(mIndex).step(now)) {
+                    return false;
+                }
+                mIndex++;
+                if (mIndex < children.size()) {
+                    children.get(mIndex).start(now);
+                }
+            }
+            return true;
+        }
+
+        @Override
+        void onPreempt(double now) {
+            if (mIndex < getChildren().size()) {
+                getChildren().get(mIndex).preempt(now);
+            }
+        }
+    }
+
+    /**
+     * Runs every child at once. Finishes when all of them have, or, as a race, when the first one does.
+     */
+    private static class ParallelNode extends Node {
+        private final boolean mRace;
+
+        ParallelNode(List<Node> children, boolean race) {
+            super(race ? "Race" : "Parallel", children);
+            mRace = race;
+        }
+
+        @Override
+        void onStart(double now) {
+            for (Node child : getChildren()) {
+                child.start(now);
+            }
+        }
+
+        @Override
+        boolean onStep(double now) {
+            boolean allFinished = true;
+            boolean anyFinished = false;
+            for (Node child : getChildren()) {
+                if (child.isRunning()) {
+                    if (child.step(now)) {
+                        anyFinished = true;
+                    } else {
+                        allFinished = false;
+                    }
+                }
+            }
+
+            if (mRace && anyFinished) {
+                onPreempt(now);
+                return true;
+            }
+            return allFinished;
+        }
+
+        @Override
+        void onPreempt(double now) {
+            for (Node child : getChildren()) {
+                child.preempt(now);
+            }
+        }
+    }
+
+    private static class SelectNode extends Node {
+        private final Supplier<Boolean> mCondition;
+        private Node mSelected;
+
+        SelectNode(Supplier<Boolean> condition, Node trueNode, Node falseNode) {
+            super("Select", List.of(trueNode, falseNode));
+            mCondition = condition;
+        }
+
+        @Override
+        void onStart(double now) {
+            mSelected = getChildren().get(mCondition.get() ? 0 : 1);
+            mSelected.start(now);
+        }
+
+        @Override
+        boolean onStep(double now) {
+            return mSelected.step(now);
+        }
+
+        @Override
+        void onPreempt(double now) {
+            mSelected.preempt(now);
+        }
+    }
+
+    private final Action mRoutine;
+    private final Node mRoot;
+    private boolean mStarted = false;
+
+    public ActionGraph(Action routine) {
+        mRoutine = routine;
+        mRoot = compile(routine);
+    }
+
+    private static Node compile(Action action) {
+        if (action instanceof SeriesAction) {
+            return new SeriesNode(compileAll(((SeriesAction) action).getActions()));
+        } else if (action instanceof ParallelAction) {
+            return new ParallelNode(compileAll(((ParallelAction) action).getActions()), false);
+        } else if (action instanceof RaceAction) {
+            return new ParallelNode(compileAll(((RaceAction) action).getActions()), true);
+        } else if (action instanceof SelectAction) {
+            SelectAction select = (SelectAction) action;
+            return new SelectNode(select.getCondition(), compile(select.getTrueAction()),
+                    compile(select.getFalseAction()));
+        }
+        return new LeafNode(action);
+    }
+
+    private static List<Node> compileAll(List<Action> actions) {
+        List<Node> nodes = new ArrayList<>(actions.size());
+        for (Action action : actions) {
+            nodes.add(compile(action));
+        }
+        return nodes;
+    }
+
+    private static String nameOf(Action action) {
+        String name = action.getClass().getSimpleName();
+        return name.isEmpty() ? action.getClass().getName() : name;
+    }
+
+    public Node getRoot() {
+        return mRoot;
+    }
+
+    public boolean isStarted() {
+        return mStarted;
+    }
+
+    /**
+     * Warms up every action in the routine, see {@link Action#warmUp}. Blocks until the paths it needs are loaded.
+     */
+    public void warmUp() {
+        mRoutine.warmUp();
+    }
+
+    void start(double now) {
+        mStarted = true;
+        mRoot.start(now);
+    }
+
+    /**
+     * @return true once the routine has finished
+     */
+    boolean step(double now) {
+        return mRoot.step(now);
+    }
+
+    /**
+     * Ends every running action now
+     */
+    void stop(double now) {
+        mRoot.preempt(now);
+    }
+
+    /**
+     * @return the leaves whose time added up to the routine's: every child of a series, and the child of a parallel
+     *         action that ended last (the winner, for a race)
+     */
+    public List<Node> getCriticalPath() {
+        List<Node> path = new ArrayList<>();
+        addCriticalPath(mRoot, path);
+        return path;
+    }
+
+    private static void addCriticalPath(Node node, List<Node> path) {
+        if (Double.isNaN(node.getStartTime())) {
+            return;
+        }
+
+        if (node instanceof LeafNode) {
+            path.add(node);
+        } else if (node instanceof SeriesNode) {
+            for (Node child : node.getChildren()) {
+                addCriticalPath(child, path);
+            }
+        } else {
+            // The child that held the node up. On a tie, one that finished rather than one that was stopped.
+            Node critical = null;
+            for (Node child : node.getChildren()) {
+                if (Double.isNaN(child.getStartTime())) {
+                    continue;
+                }
+                if (critical == null || endOf(child) > endOf(critical)
+                        || (endOf(child) == endOf(critical) && critical.wasPreempted() && !child.wasPreempted())) {
+                    critical = child;
+                }
+            }
+            if (critical != null) {
+                addCriticalPath(critical, path);
+            }
+        }
+    }
+
+    private static double endOf(Node node) {
+        return Double.isNaN(node.getEndTime()) ? Double.POSITIVE_INFINITY : node.getEndTime();
+    }
+
+    /**
+     * @return a timeline of every node (times from the start of the routine, * for a node that was stopped) and the
+     *         critical path
+     */
+    public String getTimingReport() {
+        if (Double.isNaN(mRoot.getStartTime())) {
+            return "Routine did not start";
+        }
+
+        StringBuilder builder = new StringBuilder(String.format("Routine ran %.3f s%n", mRoot.getDuration()));
+        builder.append(String.format("%8s %8s %6s %8s %8s%n", "start", "end", "steps", "cpu ms", "max ms"));
+        appendTimeline(builder, mRoot, mRoot.getStartTime(), 0);
+
+        builder.append(String.format("Critical path:%n"));
+        for (Node node : getCriticalPath()) {
+            builder.append(String.format("%8.3f s %5.1f%%  %s%s%n", node.getDuration(),
+                    100 * node.getDuration() / mRoot.getDuration(), node.getName(), node.wasPreempted() ? " *" : ""));
+        }
+        return builder.toString();
+    }
+
+    private static void appendTimeline(StringBuilder builder, Node node, double origin, int depth) {
+        if (Double.isNaN(node.getStartTime())) {
+            builder.append(String.format("%8s %8s %6s %8s %8s", "-", "-", "-", "-", "-"));
+        } else {
+            builder.append(String.format("%8.3f %8s %6d %8.3f %8.3f", node.getStartTime() - origin,
+                    Double.isNaN(node.getEndTime()) ? "-" : String.format("%.3f", node.getEndTime() - origin),
+                    node.getSteps(), 1000 * node.getCpuTime(), 1000 * node.getMaxStepTime()));
+        }
+        builder.append(String.format("  %s%s%s%n", "  ".repeat(depth), node.getName(), node.wasPreempted() ? " *" : ""));
+
+        for (Node child : node.getChildren()) {
+            appendTimeline(builder, child, origin, depth + 1);
+        }
+    }
+}
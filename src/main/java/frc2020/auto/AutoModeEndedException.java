@@ -1,8 +0,0 @@
-package frc2020.auto;
-
-/**
- * Exception thrown when an auto mode ends unexpectedly
- */
-public class AutoModeEndedException extends Exception {
-    private static final long serialVersionUID = 1411131586291540143L;
-}
\ No newline at end of file
@@ -1,16 +1,31 @@
 package frc2020.auto;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import edu.wpi.first.wpilibj.DriverStation;
 import frc2020.auto.modes.AutoModeBase;
-import lib.util.CrashTrackingRunnable;
 
 /**
- * This class selects, runs, and (if necessary) stops a specified autonomous mode.
+ * This class selects, runs, and (if necessary) stops a specified autonomous mode. The mode runs in the enabled loop,
+ * see {@link ActionExecutor}.
  */
 public class AutoModeExecutor {
     private static AutoModeExecutor mInstance = null;
 
-    private AutoModeBase mAutoMode = null;
-    private Thread mThread = null;
+    // One low priority thread warms up the selected mode while disabled
+    private static final ExecutorService kWarmUpExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "AutoWarmUp");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+
+    // Read by the warm-up thread to tell whether its mode is still selected
+    private volatile AutoModeBase mAutoMode = null;
+    // Completes with whether the warm-up succeeded
+    private CompletableFuture<Boolean> mWarmUp = CompletableFuture.completedFuture(false);
 
     public AutoModeExecutor() {}
 
@@ -22,26 +37,58 @@ public class AutoModeExecutor {
         return mInstance;
     }
 
+    /**
+     * Builds the mode's routine now, and warms it up in the background (see {@link ActionGraph#warmUp}), so the first
+     * cycles of auto run as fast as the rest. A warm-up for a mode that is no longer selected is skipped if it has not
+     * started yet.
+     */
     public void setAutoMode(AutoModeBase new_auto_mode) {
+        // Cancelling keeps a queued warm-up from running; one already running finishes, but is no longer reported
+        mWarmUp.cancel(false);
+        mWarmUp = CompletableFuture.completedFuture(false);
         mAutoMode = new_auto_mode;
-        mThread = new Thread(new CrashTrackingRunnable() {
-            @Override
-            public void runCrashTracked() {
-                if (mAutoMode != null) {
-                    mAutoMode.run();
+        if (new_auto_mode != null) {
+            ActionGraph graph = new_auto_mode.getGraph();
+            String name = new_auto_mode.getClass().getSimpleName();
+            mWarmUp = CompletableFuture.supplyAsync(() -> {
+                if (mAutoMode != new_auto_mode) {
+                    return false;
+                }
+                long start = System.nanoTime();
+                try {
+                    graph.warmUp();
+                } catch (RuntimeException e) {
+                    DriverStation.reportError("Could not warm up " + name, e.getStackTrace());
+                    return false;
                 }
-            }
-        });
+                System.out.printf("Warmed up %s in %.0f ms%n", name, (System.nanoTime() - start) * 1e-6);
+                return true;
+            }, kWarmUpExecutor);
+        }
+    }
+
+    /**
+     * @return true once the selected mode has been warmed up successfully
+     */
+    public boolean isWarmedUp() {
+        return mAutoMode != null && mWarmUp.isDone() && !mWarmUp.isCompletedExceptionally() && mWarmUp.join();
+    }
+
+    /**
+     * @return true if warming up the selected mode failed, for example because a path could not be loaded
+     */
+    public boolean isWarmUpFailed() {
+        return mAutoMode != null && mWarmUp.isDone() && (mWarmUp.isCompletedExceptionally() || !mWarmUp.join());
     }
 
     public void start() {
-        if (mThread != null) {
-            mThread.start();
+        if (mAutoMode != null) {
+            mAutoMode.start();
         }
     }
 
     public boolean isStarted() {
-        return mAutoMode != null && mAutoMode.isActive() && mThread != null && mThread.isAlive();
+        return mAutoMode != null && ActionExecutor.getInstance().isRunning(mAutoMode);
     }
 
     public void reset() {
@@ -56,8 +103,16 @@ public class AutoModeExecutor {
         if (mAutoMode != null) {
             mAutoMode.stop();
         }
+    }
 
-        mThread = null;
+    /**
+     * Prints when each of the mode's actions ran and what held the routine up, if the mode ran
+     */
+    public void printTimingReport() {
+        if (mAutoMode != null && mAutoMode.getGraph().isStarted()) {
+            System.out.println(mAutoMode.getClass().getSimpleName() + " timing:");
+            System.out.println(mAutoMode.getGraph().getTimingReport());
+        }
     }
 
     public AutoModeBase getAutoMode() {
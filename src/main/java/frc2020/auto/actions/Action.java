@@ -1,10 +1,11 @@
 package frc2020.auto.actions;
 
 /**
- * Action Interface, an interface that describes an iterative action. It is run by an autonomous action, called by the
- * method runAction in AutoModeBase (or more commonly in autonomous modes that extend AutoModeBase)
+ * Action Interface, an interface that describes an iterative action. Auto modes build their routine out of actions
+ * (see AutoModeBase#routine). Every method is called from the enabled loop, by {@link frc2020.auto.ActionExecutor},
+ * after the subsystems' inputs are read.
  *
- * @see frc2019.auto.modes.AutoModeBase#runAction
+ * @see frc2020.auto.ActionGraph
  */
 public interface Action {
     /**
@@ -13,14 +14,13 @@ public interface Action {
     void start();
 
     /**
-     * Called by runAction in AutoModeBase iteratively until isFinished returns true. Iterative logic lives in this
-     * method
+     * Called every enabled loop cycle until isFinished returns true. Iterative logic lives in this method
      */
     void update();
 
     /**
      * Returns whether or not the code has finished execution. When implementing this interface, this method is used by
-     * the runAction method every cycle to know when to stop running the action
+     * the executor every cycle to know when to stop running the action
      *
      * @return boolean
      */
@@ -30,4 +30,11 @@ public interface Action {
      * Run code once when the action finishes, usually for clean up
      */
     void done();
+
+    /**
+     * Runs the action's update code without commanding anything, so its classes are loaded and compiled before auto
+     * starts. Called while disabled, off the loop thread, so it must not change anything the action or the subsystems
+     * use when the action runs. Throws a RuntimeException if the action cannot run, which marks the warm-up failed.
+     */
+    default void warmUp() {}
 }
\ No newline at end of file
@@ -1,7 +1,7 @@
 package frc2020.auto.actions;
 
-import edu.wpi.first.wpilibj.Timer;
 import frc2020.subsystems.Drive;
+import lib.util.Clock;
 import lib.util.DriveSignal;
 
 public class DriveOpenLoopAction implements Action {
@@ -19,7 +19,7 @@ public class DriveOpenLoopAction implements Action {
     @Override
     public void start() {
         mDrive.setOpenLoop(new DriveSignal(mLeft, mRight));
-        mStartTime = Timer.getFPGATimestamp();
+        mStartTime = Clock.now();
     }
 
     @Override
@@ -27,7 +27,7 @@ public class DriveOpenLoopAction implements Action {
 
     @Override
     public boolean isFinished() {
-        return Timer.getFPGATimestamp() - mStartTime > mDuration;
+        return Clock.now() - mStartTime > mDuration;
     }
 
     @Override
@@ -36,4 +36,9 @@ public class HangingAction implements Action {
     public void done() {
         mAction.done();
     }
+
+    @Override
+    public void warmUp() {
+        mAction.warmUp();
+    }
 }
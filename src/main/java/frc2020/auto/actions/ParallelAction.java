@@ -2,6 +2,7 @@ package frc2020.auto.actions;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -43,4 +44,13 @@ public class ParallelAction implements Action {
     public void done() {
         mActions.forEach(Action::done);
     }
-}
\ No newline at end of file
+
+    @Override
+    public void warmUp() {
+        mActions.forEach(Action::warmUp);
+    }
+
+    public List<Action> getActions() {
+        return Collections.unmodifiableList(mActions);
+    }
+}
@@ -26,7 +26,7 @@ public class SeekAndSuckAction implements Action {
         if(mPixy.isBallSeen()) {
             wheel = mPixy.getBallAngleX() / 60.0;
         } else {
-            var rot = mRobotState.getLatestFieldToVehicle().getValue().getRotation();
+            var rot = mRobotState.getLatestSnapshot().field_to_vehicle.getRotation();
             var rotAngle = rot.getDegrees();
             if(rotAngle < 0) {
                 wheel = -0.8;
@@ -37,5 +37,22 @@ public class SelectAction implements Action {
     public void done() {
         mSelectedAction.done();
     }
-    
+
+    @Override
+    public void warmUp() {
+        mTrueAction.warmUp();
+        mFalseAction.warmUp();
+    }
+
+    public Supplier<Boolean> getCondition() {
+        return mCondition;
+    }
+
+    public Action getTrueAction() {
+        return mTrueAction;
+    }
+
+    public Action getFalseAction() {
+        return mFalseAction;
+    }
 }
@@ -8,10 +8,12 @@ import java.util.List;
  * Executes one action at a time. Useful as a member of {@link ParallelAction}
  */
 public class SeriesAction implements Action {
+    private final List<Action> mActions;
     private Action mCurrentAction;
     private final ArrayList<Action> mRemainingActions;
 
     public SeriesAction(List<Action> actions) {
+        mActions = List.copyOf(actions);
         mRemainingActions = new ArrayList<>(actions);
         mCurrentAction = null;
     }
@@ -48,5 +50,20 @@ public class SeriesAction implements Action {
     }
 
     @Override
-    public void done() {}
+    public void done() {
+        // Stopped before the last action finished
+        if (mCurrentAction != null) {
+            mCurrentAction.done();
+            mCurrentAction = null;
+        }
+    }
+
+    @Override
+    public void warmUp() {
+        mActions.forEach(Action::warmUp);
+    }
+
+    public List<Action> getActions() {
+        return mActions;
+    }
 }
@@ -8,35 +8,42 @@ import java.util.function.Supplier;
 
 import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.Filesystem;
-import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.controller.HolonomicDriveController;
 import edu.wpi.first.wpilibj.controller.PIDController;
 import edu.wpi.first.wpilibj.controller.ProfiledPIDController;
-import edu.wpi.first.wpilibj.kinematics.SwerveModuleState;
+import edu.wpi.first.wpilibj.kinematics.ChassisSpeeds;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj.trajectory.Trajectory;
 import edu.wpi.first.wpilibj.trajectory.TrajectoryUtil;
 import edu.wpi.first.wpilibj.trajectory.TrapezoidProfile;
-import edu.wpi.first.wpilibj2.command.SwerveControllerCommand;
 import frc2020.RobotState;
+import frc2020.paths.CompiledTrajectory;
 import frc2020.paths.TrajectoryRegistry;
 import frc2020.subsystems.Drive;
 import frc2020.subsystems.RobotStateEstimator;
 import lib.geometry.Pose2d;
 import lib.geometry.Rotation2d;
 import lib.geometry.Translation2d;
+import lib.util.Stopwatch;
 
 public class SwervePathAction implements Action {
+    /** Enough calls for the JIT to compile the update code */
+    private static final int kWarmUpUpdates = 10000;
 
     private Drive mDrive = Drive.getInstance();
     private RobotStateEstimator mRobotStateEstimator = RobotStateEstimator.getInstance();
     private RobotState mRobotState = RobotState.getInstance();
 
-    private SwerveControllerCommand mSwerveControllerCommand;
-    private Trajectory mTrajectory;
+    private HolonomicDriveController mController;
+    private final String mTrajectoryName;
+    private final Supplier<Rotation2d> mDesiredRotation;
+    private CompiledTrajectory mTrajectory;
+    // Reused every update; only the pose is replaced
+    private final Trajectory.State mDesiredState = new Trajectory.State();
     private boolean mResetOdometry;
     private SwervePathActionConstants mConstants;
 
-    private Timer mTimer = new Timer();
+    private Stopwatch mTimer = new Stopwatch();
 
     public static class SwervePathActionConstants {
         public double kPathXKp = 0.5;
@@ -75,66 +82,146 @@ public class SwervePathAction implements Action {
     }
 
     public SwervePathAction(String trajectoryName, Supplier<Rotation2d> desiredRotation, boolean resetOdometry, SwervePathActionConstants constants) {
-        mTrajectory = TrajectoryRegistry.getInstance().get(trajectoryName);
+        mTrajectoryName = trajectoryName;
+        mDesiredRotation = desiredRotation;
         mConstants = constants;
-        
+        mResetOdometry = resetOdometry;
+
+        // Make sure the path is loading, but don't wait for it until the action starts
+        TrajectoryRegistry.getInstance().preload(trajectoryName);
+    }
+
+    /**
+     * @return the path being followed, or null until it has loaded
+     */
+    public Trajectory getTrajectory() {
+        return mTrajectory == null ? null : mTrajectory.getTrajectory();
+    }
+
+    private HolonomicDriveController createController() {
         var xPid = new PIDController(mConstants.kPathXKp, mConstants.kPathXKi, mConstants.kPathXKd);
         var yPid = new PIDController(mConstants.kPathYKp, mConstants.kPathYKi, mConstants.kPathYKd);
         var thetaConstraints = new TrapezoidProfile.Constraints(mConstants.kPathThetaMaxVelocity, mConstants.kPathThetaMaxAcceleration);
         var thetaPid = new ProfiledPIDController(
             mConstants.kPathThetaKp, mConstants.kPathThetaKi, mConstants.kPathThetaKd, thetaConstraints
         );
-        
-        mResetOdometry = resetOdometry;
-        mSwerveControllerCommand = new SwerveControllerCommand(
-            mTrajectory,
-            () -> mRobotState.getLatestFieldToVehicle().getValue().toWPI(),
-            kSwerveKinematics,
-            xPid,
-            yPid,
-            thetaPid,
-            () -> desiredRotation.get().toWPI(),
-            mDrive::setModuleStates
-        );
-    }
 
-    public Trajectory getTrajectory() {
-        return mTrajectory;
+        return new HolonomicDriveController(xPid, yPid, thetaPid);
     }
 
     @Override
     public void start() {
+        mTrajectory = null;
+        mController = createController();
+        startPath();
+    }
+
+    /**
+     * Starts following the path once it has loaded. Runs in the enabled loop, so it never waits for the path.
+     *
+     * @return true once the path is being followed
+     */
+    private boolean startPath() {
+        if(mTrajectory != null) {
+            return true;
+        }
+        mTrajectory = TrajectoryRegistry.getInstance().getCompiledIfLoaded(mTrajectoryName);
+        if(mTrajectory == null) {
+            return false;
+        }
+
         if(mResetOdometry) {
             mRobotStateEstimator.resetOdometry(
                 new Pose2d(
-                    Translation2d.fromWPI(mTrajectory.getInitialPose().getTranslation()),
+                    new Translation2d(mTrajectory.getX(0), mTrajectory.getY(0)),
                     Rotation2d.fromDegrees(0)
                 )
             );
         }
 
-        mSwerveControllerCommand.initialize();
-
         mTimer.reset();
         mTimer.start();
+        return true;
     }
 
     @Override
     public void update() {
-        mSwerveControllerCommand.execute();
+        if(!startPath()) {
+            // Hold still until the path has loaded
+            mDrive.setChassisSpeeds(0, 0, 0);
+            return;
+        }
+
+        int index = mTrajectory.indexAt(mTimer.get());
+        var speeds = calculate(mController, mTrajectory, index, mDesiredState,
+                mRobotState.getLatestSnapshot().field_to_vehicle.toWPI());
+        mDrive.setChassisSpeeds(speeds.vxMetersPerSecond, speeds.vyMetersPerSecond, speeds.omegaRadiansPerSecond);
 
         // Set trajectory state in drive to display on dashboard
-        mDrive.setTrajectoryState(mTrajectory.sample(mTimer.get()));
+        mDrive.setTrajectoryState(mTrajectory.getX(index), mTrajectory.getY(index), mTrajectory.getVelocity(index));
+    }
+
+    /**
+     * Same as SwerveControllerCommand.execute, but looks the setpoint up in the compiled table instead of sampling the
+     * trajectory
+     *
+     * @param desiredState filled in with the setpoint
+     * @return the robot relative speeds that follow the path from the given pose
+     */
+    private ChassisSpeeds calculate(HolonomicDriveController controller, CompiledTrajectory trajectory,
+            int index, Trajectory.State desiredState, edu.wpi.first.wpilibj.geometry.Pose2d pose) {
+        desiredState.timeSeconds = index * trajectory.getDt();
+        desiredState.velocityMetersPerSecond = trajectory.getVelocity(index);
+        desiredState.accelerationMetersPerSecondSq = trajectory.getAcceleration(index);
+        desiredState.curvatureRadPerMeter = trajectory.getCurvature(index);
+        desiredState.poseMeters = new edu.wpi.first.wpilibj.geometry.Pose2d(
+            trajectory.getX(index),
+            trajectory.getY(index),
+            new edu.wpi.first.wpilibj.geometry.Rotation2d(trajectory.getHeading(index))
+        );
+
+        return controller.calculate(pose, desiredState, mDesiredRotation.get().toWPI());
+    }
+
+    /**
+     * Waits for the path to load, then follows it on a dry run: the controller is fed the setpoint as the robot's pose
+     * and the module states calculated from its output are thrown away. Uses its own controller, setpoint and module
+     * arrays, so it is safe to run while the action does.
+     *
+     * @throws IllegalStateException if the path could not be loaded
+     */
+    @Override
+    public void warmUp() {
+        // Not getCompiled, which would count this wait as one auto had to make
+        CompiledTrajectory trajectory = TrajectoryRegistry.getInstance().getFuture(mTrajectoryName).join();
+        if (trajectory.getTrajectory().getStates().isEmpty()) {
+            // The registry's stand-in for a path that failed to load
+            throw new IllegalStateException("Path " + mTrajectoryName + " did not load");
+        }
+
+        HolonomicDriveController controller = createController();
+        Trajectory.State desiredState = new Trajectory.State();
+        double[] moduleSpeeds = new double[kSwerveKinematics.getNumModules()];
+        double[] moduleAngles = new double[kSwerveKinematics.getNumModules()];
+        for (int i = 0; i < kWarmUpUpdates; i++) {
+            int index = i % trajectory.size();
+            var speeds = calculate(controller, trajectory, index, desiredState, new edu.wpi.first.wpilibj.geometry.Pose2d(
+                trajectory.getX(index),
+                trajectory.getY(index),
+                new edu.wpi.first.wpilibj.geometry.Rotation2d(trajectory.getHeading(index))
+            ));
+            kSwerveKinematics.toModuleStates(speeds.vxMetersPerSecond, speeds.vyMetersPerSecond,
+                    speeds.omegaRadiansPerSecond, moduleSpeeds, moduleAngles);
+        }
     }
 
     @Override
     public boolean isFinished() {
-        return mSwerveControllerCommand.isFinished();
+        return mTrajectory != null && mTimer.hasElapsed(mTrajectory.getTotalTimeSeconds());
     }
 
     @Override
     public void done() {
-        mSwerveControllerCommand.end(false);
         mTimer.stop();
     }
 }
@@ -1,9 +1,9 @@
 package frc2020.auto.actions;
 
-import edu.wpi.first.wpilibj.Timer;
+import lib.util.Clock;
 
 /**
- * Action to wait for a given amount of time To use this Action, call runAction(new WaitAction(your_time))
+ * Action to wait for a given amount of time. To use this Action, put new WaitAction(your_time) in a routine
  */
 public class WaitAction implements Action {
     private final double mTimeToWait;
@@ -15,7 +15,7 @@ public class WaitAction implements Action {
 
     @Override
     public void start() {
-        mStartTime = Timer.getFPGATimestamp();
+        mStartTime = Clock.now();
     }
 
     @Override
@@ -23,7 +23,7 @@ public class WaitAction implements Action {
 
     @Override
     public boolean isFinished() {
-        return Timer.getFPGATimestamp() - mStartTime >= mTimeToWait;
+        return Clock.now() - mStartTime >= mTimeToWait;
     }
 
     @Override
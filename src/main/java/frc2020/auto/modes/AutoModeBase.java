@@ -1,59 +1,76 @@
 package frc2020.auto.modes;
 
-import frc2020.auto.AutoModeEndedException;
+import frc2020.auto.ActionExecutor;
+import frc2020.auto.ActionGraph;
 import frc2020.auto.actions.Action;
-import frc2020.auto.actions.NoopAction;
-import edu.wpi.first.wpilibj.DriverStation;
+import frc2020.auto.actions.LambdaAction;
+import frc2020.auto.actions.SeriesAction;
+import frc2020.auto.actions.WaitLambdaAction;
 
 /**
  * An abstract class that is the basis of the robot's autonomous routines. This is implemented in auto modes (which are
  * routines that do actions).
+ * <p>
+ * A mode builds its whole routine up front as one action, usually a {@link SeriesAction} of other actions, which is
+ * compiled into an {@link ActionGraph} and stepped by {@link ActionExecutor} in the enabled loop.
  */
 public abstract class AutoModeBase {
-    protected final double mUpdateRate = 1.0 / 50.0;
-    protected boolean mActive = false;
-    protected boolean mIsInterrupted = false;
-
-    protected abstract void routine() throws AutoModeEndedException;
-
-    public void run() {
-        mActive = true;
-
-        try {
-            routine();
-        } catch (AutoModeEndedException e) {
-            DriverStation.reportError("AUTO MODE DONE!!!! ENDED EARLY!!!!", false);
-            return;
+    protected volatile boolean mActive = false;
+    // Read by the enabled loop
+    protected volatile boolean mIsInterrupted = false;
+
+    private ActionGraph mGraph = null;
+
+    /**
+     * @return the action that makes up the routine. Called once per mode.
+     */
+    protected abstract Action routine();
+
+    /**
+     * @return the compiled routine, built the first time it is asked for
+     */
+    public synchronized ActionGraph getGraph() {
+        if (mGraph == null) {
+            mGraph = new ActionGraph(routine());
         }
+        return mGraph;
+    }
 
-        done();
+    /**
+     * Starts the routine on the next enabled loop cycle
+     */
+    public void start() {
+        mActive = true;
+        ActionExecutor.getInstance().start(this);
     }
 
+    /**
+     * Called by the loop once the routine finishes
+     */
     public void done() {
         System.out.println("Auto mode done");
     }
 
+    /**
+     * Ends the routine's running actions now
+     */
     public void stop() {
         mActive = false;
+        ActionExecutor.getInstance().stop(this);
     }
 
     public boolean isActive() {
         return mActive;
     }
 
-    public boolean isActiveWithThrow() throws AutoModeEndedException {
-        if (!isActive()) {
-            throw new AutoModeEndedException();
-        }
-
-        return isActive();
-    }
-
-    public void waitForDriverConfirm() throws AutoModeEndedException {
-        if (!mIsInterrupted) {
-            interrupt();
-        }
-        runAction(new NoopAction());
+    /**
+     * @return an action that interrupts the mode, so the routine waits there until {@link #resume} is called
+     */
+    protected Action waitForDriverConfirm() {
+        return new SeriesAction(
+            new LambdaAction(this::interrupt),
+            new WaitLambdaAction(() -> !mIsInterrupted)
+        );
     }
 
     public void interrupt() {
@@ -66,37 +83,7 @@ public abstract class AutoModeBase {
         mIsInterrupted = false;
     }
 
-    public void runAction(Action action) throws AutoModeEndedException {
-        isActiveWithThrow();
-        long waitTime = (long) (mUpdateRate * 1000.0);
-
-        // Wait for interrupt state to clear
-        while (isActiveWithThrow() && mIsInterrupted) {
-            try {
-                Thread.sleep(waitTime);
-            } catch (InterruptedException e) {
-                e.printStackTrace();
-            }
-        }
-
-        action.start();
-
-        // Run action, stop action on interrupt, non active mode, or done
-        while (isActiveWithThrow() && !action.isFinished() && !mIsInterrupted) {
-            action.update();
-
-            try {
-                Thread.sleep(waitTime);
-            } catch (InterruptedException e) {
-                e.printStackTrace();
-            }
-        }
-
-        action.done();
-
-    }
-
     public boolean getIsInterrupted() {
         return mIsInterrupted;
     }
-}
\ No newline at end of file
+}
@@ -2,7 +2,7 @@ package frc2020.auto.modes;
 
 import edu.wpi.first.wpilibj.geometry.Pose2d;
 import edu.wpi.first.wpilibj.geometry.Rotation2d;
-import frc2020.auto.AutoModeEndedException;
+import frc2020.auto.actions.Action;
 import frc2020.auto.actions.SwervePathAction;
 import frc2020.paths.*;
 import frc2020.subsystems.Drive;
@@ -12,7 +12,7 @@ public class BarrelRacingMode extends AutoModeBase {
     Drive mDrive = Drive.getInstance();
 
     @Override
-    protected void routine() throws AutoModeEndedException {
-        runAction(new SwervePathAction("Barrel", true));
+    protected Action routine() {
+        return new SwervePathAction("Barrel", true);
     }
 }
\ No newline at end of file
@@ -1,17 +1,17 @@
 package frc2020.auto.modes;
 
-import frc2020.auto.AutoModeEndedException;
+import frc2020.auto.actions.Action;
 import frc2020.auto.actions.SwervePathAction;
 import frc2020.auto.actions.SwervePathAction.SwervePathActionConstants;
 import frc2020.paths.*;
 
 public class BounceMode extends AutoModeBase {
     @Override
-    protected void routine() throws AutoModeEndedException {
+    protected Action routine() {
         var constants = new SwervePathActionConstants();
         constants.kPathXKp = 3.0;
         constants.kPathYKp = 3.0;
 
-        runAction(new SwervePathAction("Bounce1", true, constants));
+        return new SwervePathAction("Bounce1", true, constants);
     }
 }
\ No newline at end of file
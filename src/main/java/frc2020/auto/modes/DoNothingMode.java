@@ -1,10 +1,11 @@
 package frc2020.auto.modes;
 
-import frc2020.auto.AutoModeEndedException;
+import frc2020.auto.actions.Action;
+import frc2020.auto.actions.LambdaAction;
 
 public class DoNothingMode extends AutoModeBase {
     @Override
-    protected void routine() throws AutoModeEndedException {
-        System.out.println("doing nothing");
+    protected Action routine() {
+        return new LambdaAction(() -> System.out.println("doing nothing"));
     }
 }
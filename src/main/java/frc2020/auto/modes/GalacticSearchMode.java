@@ -1,10 +1,9 @@
 package frc2020.auto.modes;
 
-import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj.geometry.Rotation2d;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import frc2020.RobotState;
-import frc2020.auto.AutoModeEndedException;
+import frc2020.auto.actions.Action;
 import frc2020.auto.actions.LambdaAction;
 import frc2020.auto.actions.ParallelAction;
 import frc2020.auto.actions.RaceAction;
@@ -21,6 +20,7 @@ import frc2020.subsystems.Drive;
 import frc2020.subsystems.Inventory;
 import frc2020.subsystems.Pixy;
 import frc2020.subsystems.Superstructure;
+import lib.util.Stopwatch;
 
 public class GalacticSearchMode extends AutoModeBase {
     Pixy mPixy = Pixy.getInstance();
@@ -29,10 +29,10 @@ public class GalacticSearchMode extends AutoModeBase {
     Superstructure mSuperstructure = Superstructure.getInstance();
     Inventory mInventory = Inventory.getInstance();
 
-    Timer mTimer = new Timer();
+    Stopwatch mTimer = new Stopwatch();
     
     @Override
-    protected void routine() throws AutoModeEndedException {
+    protected Action routine() {
         // 4.0 m/s
         // 12.0 m/s^2
         var constants = new SwervePathActionConstants();
@@ -47,15 +47,16 @@ public class GalacticSearchMode extends AutoModeBase {
         constantsB.kPathYKd = 0.4;
         constantsB.kPathThetaKp = 2.0;
 
-        mTimer.reset();
-        mTimer.start();
-
-        runAction(
+        return new SeriesAction(
+            new LambdaAction(() -> {
+                mTimer.reset();
+                mTimer.start();
+            }),
             new ParallelAction(
                 new RaceAction(
                     new IntakeToCapacityAction(),
                     new WaitLambdaAction(() -> {
-                        return mRobotState.getLatestFieldToVehicle().getValue().getTranslation().x() >= 4.8;
+                        return mRobotState.getLatestSnapshot().field_to_vehicle.getTranslation().x() >= 4.8;
                     })
                 )
                 //new SwervePathAction("RedA", this::getTargetHeading, true, constants)
@@ -66,8 +67,8 @@ public class GalacticSearchMode extends AutoModeBase {
 
         /*
 
-        runAction(new HoodAngleAction(58, 0.5));
-        runAction(new SelectAction(this::isBallSeen, 
+        new HoodAngleAction(58, 0.5),
+        new SelectAction(this::isBallSeen, 
             // If ball seen, run red paths
             // The following series action only contains one action,
             //  it is just there so that it looks similar to the blue case
@@ -97,7 +98,7 @@ public class GalacticSearchMode extends AutoModeBase {
                     })
                 )
             )
-        ));
+        )
 
         */
     }
@@ -105,7 +106,7 @@ public class GalacticSearchMode extends AutoModeBase {
     private Rotation2d getTargetHeading() {
         var ballCount = mInventory.getBallCount();
         
-        if(mRobotState.getLatestFieldToVehicle().getValue().getTranslation().x() >= 3.0) {
+        if(mRobotState.getLatestSnapshot().field_to_vehicle.getTranslation().x() >= 3.0) {
             return Rotation2d.fromDegrees(90);
         } else {
             return Rotation2d.fromDegrees(0);
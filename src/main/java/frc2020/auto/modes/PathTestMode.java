@@ -1,11 +1,12 @@
 package frc2020.auto.modes;
 
-import frc2020.auto.AutoModeEndedException;
+import frc2020.auto.actions.Action;
+import frc2020.auto.actions.NoopAction;
 import frc2020.paths.*;
 
 public class PathTestMode extends AutoModeBase {
     @Override
-    protected void routine() throws AutoModeEndedException {
-        
+    protected Action routine() {
+        return new NoopAction();
     }
 }
\ No newline at end of file
@@ -1,13 +1,13 @@
 package frc2020.auto.modes;
 
-import frc2020.auto.AutoModeEndedException;
+import frc2020.auto.actions.Action;
 import frc2020.auto.actions.SwervePathAction;
 import frc2020.paths.*;
 
 public class SlalomMode extends AutoModeBase {
 
     @Override
-    protected void routine() throws AutoModeEndedException {
-        runAction(new SwervePathAction("Slalom", true));
+    protected Action routine() {
+        return new SwervePathAction("Slalom", true);
     }
 }
\ No newline at end of file
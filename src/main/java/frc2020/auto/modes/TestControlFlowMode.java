@@ -1,29 +1,36 @@
 package frc2020.auto.modes;
 
-import frc2020.auto.AutoModeEndedException;
+import frc2020.auto.actions.Action;
+import frc2020.auto.actions.LambdaAction;
+import frc2020.auto.actions.SeriesAction;
 import frc2020.auto.actions.WaitAction;
 
 public class TestControlFlowMode extends AutoModeBase {
 
     @Override
-    protected void routine() throws AutoModeEndedException {
-        System.out.println("***** Starting test control flow mode");
+    protected Action routine() {
+        return new SeriesAction(
+            print("***** Starting test control flow mode"),
 
-        System.out.println("***** starting - first wait action");
-        runAction(new WaitAction(10));
-        System.out.println("***** done - first wait action ");
+            print("***** starting - first wait action"),
+            new WaitAction(10),
+            print("***** done - first wait action "),
 
-        waitForDriverConfirm(); // drivers do some manual stuff
+            waitForDriverConfirm(), // drivers do some manual stuff
 
-        System.out.println("***** starting - second wait action");
-        runAction(new WaitAction(10));
-        System.out.println("***** done - second wait action ");
+            print("***** starting - second wait action"),
+            new WaitAction(10),
+            print("***** done - second wait action "),
 
-        waitForDriverConfirm(); // drivers do some manual stuff
+            waitForDriverConfirm(), // drivers do some manual stuff
 
-        System.out.println("***** starting - third wait action");
-        runAction(new WaitAction(10));
-        System.out.println("***** done - third wait action ");
+            print("***** starting - third wait action"),
+            new WaitAction(10),
+            print("***** done - third wait action ")
+        );
     }
 
-}
\ No newline at end of file
+    private static Action print(String message) {
+        return new LambdaAction(() -> System.out.println(message));
+    }
+}
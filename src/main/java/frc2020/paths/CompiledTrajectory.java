@@ -0,0 +1,119 @@
+package frc2020.paths;
+
+import java.util.List;
+
+import edu.wpi.first.wpilibj.trajectory.Trajectory;
+
+/**
+ * A trajectory resampled once at a fixed time step into flat arrays, so looking up the state at a time is an array
+ * index instead of a binary search and interpolation over {@link Trajectory.State} objects. Nothing is allocated
+ * after {@link #compile}.
+ */
+public class CompiledTrajectory {
+    private final Trajectory mTrajectory;
+    private final double mDt;
+    private final double mTotalTime;
+    private final int mCount;
+
+    private final double[] mX;
+    private final double[] mY;
+    private final double[] mHeading;
+    private final double[] mVelocity;
+    private final double[] mAcceleration;
+    private final double[] mCurvature;
+
+    private CompiledTrajectory(Trajectory trajectory, double dt, double totalTime, int count) {
+        mTrajectory = trajectory;
+        mDt = dt;
+        mTotalTime = totalTime;
+        mCount = count;
+        mX = new double[count];
+        mY = new double[count];
+        mHeading = new double[count];
+        mVelocity = new double[count];
+        mAcceleration = new double[count];
+        mCurvature = new double[count];
+    }
+
+    /**
+     * Samples the trajectory every dt seconds, from 0 up to and including its end
+     */
+    public static CompiledTrajectory compile(Trajectory trajectory, double dt) {
+        List<Trajectory.State> states = trajectory.getStates();
+        if (states.isEmpty()) {
+            // A single state at the origin, so an empty path is safe to follow
+            return new CompiledTrajectory(trajectory, dt, 0, 1);
+        }
+
+        double totalTime = trajectory.getTotalTimeSeconds();
+        int count = (int) Math.ceil(totalTime / dt) + 1;
+        CompiledTrajectory compiled = new CompiledTrajectory(trajectory, dt, totalTime, count);
+        for (int i = 0; i < count; i++) {
+            Trajectory.State state = trajectory.sample(Math.min(i * dt, totalTime));
+            compiled.mX[i] = state.poseMeters.getX();
+            compiled.mY[i] = state.poseMeters.getY();
+            compiled.mHeading[i] = state.poseMeters.getRotation().getRadians();
+            compiled.mVelocity[i] = state.velocityMetersPerSecond;
+            compiled.mAcceleration[i] = state.accelerationMetersPerSecondSq;
+            compiled.mCurvature[i] = state.curvatureRadPerMeter;
+        }
+        return compiled;
+    }
+
+    /**
+     * @return the trajectory this was compiled from
+     */
+    public Trajectory getTrajectory() {
+        return mTrajectory;
+    }
+
+    public double getDt() {
+        return mDt;
+    }
+
+    public double getTotalTimeSeconds() {
+        return mTotalTime;
+    }
+
+    public int size() {
+        return mCount;
+    }
+
+    /**
+     * @return index of the sample nearest to the given time, clamped to the ends of the trajectory
+     */
+    public int indexAt(double timeSeconds) {
+        int index = (int) Math.round(timeSeconds / mDt);
+        if (index < 0) {
+            return 0;
+        }
+        return index < mCount ? index : mCount - 1;
+    }
+
+    public double getX(int index) {
+        return mX[index];
+    }
+
+    public double getY(int index) {
+        return mY[index];
+    }
+
+    /**
+     * @return direction of travel, radians
+     */
+    public double getHeading(int index) {
+        return mHeading[index];
+    }
+
+    public double getVelocity(int index) {
+        return mVelocity[index];
+    }
+
+    public double getAcceleration(int index) {
+        return mAcceleration[index];
+    }
+
+    public double getCurvature(int index) {
+        return mCurvature[index];
+    }
+}
@@ -0,0 +1,117 @@
+package frc2020.paths;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.wpi.first.wpilibj.geometry.Pose2d;
+import edu.wpi.first.wpilibj.geometry.Rotation2d;
+import edu.wpi.first.wpilibj.trajectory.Trajectory;
+
+/**
+ * Compact binary copy of a PathWeaver trajectory, so startup can skip parsing JSON. Each state is stored as seven
+ * packed doubles (time, velocity, acceleration, x, y, heading in radians, curvature), and the file is memory-mapped
+ * when read. The header records the CRC and length of the JSON it was made from, so a cache file is ignored as soon
+ * as a new path is deployed.
+ * <p>
+ * Format (big endian):
+ * <pre>
+ * header: int magic, short version, short reserved, long sourceCRC, long sourceLength, int stateCount, int reserved
+ * states: stateCount * 7 doubles
+ * </pre>
+ */
+class TrajectoryCache {
+    static final int kMagic = 0x425A544A; // "BZTJ"
+    static final short kVersion = 1;
+    static final String kExtension = ".traj";
+
+    private static final int kHeaderBytes = 32;
+    private static final int kDoublesPerState = 7;
+
+    private TrajectoryCache() {}
+
+    /**
+     * @return the cached trajectory, or null if there is no cache file or it was made from a different JSON file
+     */
+    static Trajectory read(Path cacheFile, long sourceCRC, long sourceLength) throws IOException {
+        if (!Files.isRegularFile(cacheFile)) {
+            return null;
+        }
+
+        try (FileChannel channel = FileChannel.open(cacheFile, StandardOpenOption.READ)) {
+            if (channel.size() < kHeaderBytes) {
+                return null;
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            if (buffer.getInt(0) != kMagic || buffer.getShort(4) != kVersion
+                    || buffer.getLong(8) != sourceCRC || buffer.getLong(16) != sourceLength) {
+                return null;
+            }
+            int stateCount = buffer.getInt(24);
+            if (channel.size() != kHeaderBytes + (long) stateCount * kDoublesPerState * Double.BYTES) {
+                return null;
+            }
+
+            buffer.position(kHeaderBytes);
+            DoubleBuffer values = buffer.asDoubleBuffer();
+            List<Trajectory.State> states = new ArrayList<>(stateCount);
+            for (int i = 0; i < stateCount; i++) {
+                double time = values.get();
+                double velocity = values.get();
+                double acceleration = values.get();
+                double x = values.get();
+                double y = values.get();
+                double heading = values.get();
+                double curvature = values.get();
+                states.add(new Trajectory.State(time, velocity, acceleration,
+                        new Pose2d(x, y, new Rotation2d(heading)), curvature));
+            }
+            return new Trajectory(states);
+        }
+    }
+
+    static void write(Path cacheFile, Trajectory trajectory, long sourceCRC, long sourceLength) throws IOException {
+        List<Trajectory.State> states = trajectory.getStates();
+        ByteBuffer buffer = ByteBuffer.allocate(kHeaderBytes + states.size() * kDoublesPerState * Double.BYTES);
+
+        buffer.putInt(kMagic);
+        buffer.putShort(kVersion);
+        buffer.putShort((short) 0);
+        buffer.putLong(sourceCRC);
+        buffer.putLong(sourceLength);
+        buffer.putInt(states.size());
+        buffer.putInt(0);
+        for (Trajectory.State state : states) {
+            buffer.putDouble(state.timeSeconds);
+            buffer.putDouble(state.velocityMetersPerSecond);
+            buffer.putDouble(state.accelerationMetersPerSecondSq);
+            buffer.putDouble(state.poseMeters.getX());
+            buffer.putDouble(state.poseMeters.getY());
+            buffer.putDouble(state.poseMeters.getRotation().getRadians());
+            buffer.putDouble(state.curvatureRadPerMeter);
+        }
+        buffer.flip();
+
+        // Write to a temporary file first so a half written cache is never read
+        Files.createDirectories(cacheFile.getParent());
+        Path temp = cacheFile.resolveSibling(cacheFile.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, cacheFile, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+}
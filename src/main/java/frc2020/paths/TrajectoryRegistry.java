@@ -1,20 +1,52 @@
 package frc2020.paths;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.nio.file.Paths;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.zip.CRC32;
 
 import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.Filesystem;
 import edu.wpi.first.wpilibj.trajectory.Trajectory;
 import edu.wpi.first.wpilibj.trajectory.TrajectoryUtil;
+import frc2020.Constants;
 
+/**
+ * Loads PathWeaver trajectories on a small background pool, compiling each one into a lookup table sampled at the
+ * loop period (see {@link CompiledTrajectory}). {@link #preload} and {@link #preloadAll} return right away, and
+ * {@link #get} only blocks (up to {@link Constants#kTrajectoryLoadTimeout}) if a path is still loading when it is
+ * actually needed. Code that runs in a loop uses {@link #getCompiledIfLoaded} instead, which never blocks. A path that
+ * was never preloaded is loaded the first time it is asked for.
+ */
 public class TrajectoryRegistry {
+    private static final String kPathDirectory = "paths/output";
+    private static final String kPathExtension = ".wpilib.json";
 
     private static TrajectoryRegistry mInstance;
 
-    private HashMap<String, Trajectory> mTrajectories = new HashMap<>();
+    private final ConcurrentHashMap<String, CompletableFuture<CompiledTrajectory>> mTrajectories =
+            new ConcurrentHashMap<>();
+    private final ExecutorService mExecutor;
+
+    // When getCompiledIfLoaded first found each path still loading, System.nanoTime
+    private final ConcurrentHashMap<String, Long> mWaitStarts = new ConcurrentHashMap<>();
+
+    // Wait metrics for get and getCompiledIfLoaded, guarded by this
+    private int mWaits = 0;
+    private int mTimeouts = 0;
+    private double mTotalWaitSeconds = 0;
+    private double mMaxWaitSeconds = 0;
 
     public synchronized static TrajectoryRegistry getInstance() {
         if (mInstance == null) {
@@ -25,37 +57,195 @@ public class TrajectoryRegistry {
     }
 
     private TrajectoryRegistry() {
-        
+        mExecutor = Executors.newFixedThreadPool(Constants.kTrajectoryLoadThreads, runnable -> {
+            Thread thread = new Thread(runnable, "TrajectoryLoader");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts loading every path in the deploy directory in the background
+     */
+    public void preloadAll() {
+        Path directory = Filesystem.getDeployDirectory().toPath().resolve(kPathDirectory);
+        try (DirectoryStream<Path> paths = Files.newDirectoryStream(directory, "*" + kPathExtension)) {
+            for (Path path : paths) {
+                String fileName = path.getFileName().toString();
+                preload(fileName.substring(0, fileName.length() - kPathExtension.length()));
+            }
+        } catch (IOException ex) {
+            DriverStation.reportError("Unable to list trajectories in: " + directory, ex.getStackTrace());
+        }
     }
 
+    /**
+     * Starts loading the given paths in the background, if they are not loaded or loading already
+     */
+    public void preload(String... names) {
+        for (String name : names) {
+            getFuture(name);
+        }
+    }
+
+    /**
+     * Loads the given paths and waits for them to finish
+     */
     public void load(String... names) {
-        for(String name : names) {
-            load(name);
+        preload(names);
+        for (String name : names) {
+            get(name);
         }
     }
 
     /**
-     * Loads a path json file generated from PathWeaver intp the registry.
+     * @return a future for the path, which starts loading it if nothing has yet
+     */
+    public CompletableFuture<CompiledTrajectory> getFuture(String name) {
+        return mTrajectories.computeIfAbsent(name, key -> CompletableFuture.supplyAsync(
+                () -> CompiledTrajectory.compile(loadTrajectory(key), lib.Constants.kLooperDt), mExecutor));
+    }
+
+    public boolean isLoaded(String name) {
+        CompletableFuture<CompiledTrajectory> future = mTrajectories.get(name);
+        return future != null && future.isDone() && !future.isCompletedExceptionally();
+    }
+
+    /**
+     * Returns the path, waiting for it to finish loading if needed. If it can not be loaded in time an error is
+     * reported and an empty trajectory is returned. Blocks, so it must not be called from a loop.
      * @param name The name of the path in PathWeaver
      */
-    public void load(String name) {
-        String trajectoryJSON = "paths/output/" + name + ".wpilib.json";
-        Trajectory trajectory = new Trajectory();
+    public Trajectory get(String name) {
+        return getCompiled(name).getTrajectory();
+    }
+
+    /**
+     * Same as {@link #get}, but returns the lookup table compiled from the path. Blocks, so it must not be called from
+     * a loop; use {@link #getCompiledIfLoaded} there.
+     */
+    public CompiledTrajectory getCompiled(String name) {
+        CompletableFuture<CompiledTrajectory> future = getFuture(name);
+        if (future.isDone() && !future.isCompletedExceptionally()) {
+            return future.join();
+        }
+
+        long start = System.nanoTime();
         try {
-            Path trajectoryPath = Filesystem.getDeployDirectory().toPath().resolve(trajectoryJSON);
-            trajectory = TrajectoryUtil.fromPathweaverJson(trajectoryPath);
+            return future.get((long) (Constants.kTrajectoryLoadTimeout * 1e9), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException ex) {
+            synchronized (this) {
+                mTimeouts++;
+            }
+            DriverStation.reportError("Timed out waiting for trajectory: " + name, false);
+        } catch (ExecutionException ex) {
+            // Forget the failure so the next get tries again
+            mTrajectories.remove(name, future);
+            DriverStation.reportError("Unable to load trajectory: " + name, ex.getCause().getStackTrace());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            recordWait((System.nanoTime() - start) * 1e-9);
+        }
+        return CompiledTrajectory.compile(new Trajectory(), lib.Constants.kLooperDt);
+    }
 
-            mTrajectories.put(name, trajectory);
+    /**
+     * Never blocks, so it is safe to call every cycle of a loop until the path is ready. The time between the first
+     * call that found the path loading and the one that returns it counts as a wait, and once that passes
+     * {@link Constants#kTrajectoryLoadTimeout} an error is reported and an empty trajectory is returned, the same as
+     * {@link #getCompiled}.
+     *
+     * @return the compiled path, or null while it is still loading
+     */
+    public CompiledTrajectory getCompiledIfLoaded(String name) {
+        CompletableFuture<CompiledTrajectory> future = getFuture(name);
+        long now = System.nanoTime();
+        if (!future.isDone()) {
+            long start = mWaitStarts.computeIfAbsent(name, key -> now);
+            if ((now - start) * 1e-9 < Constants.kTrajectoryLoadTimeout) {
+                return null;
+            }
+            synchronized (this) {
+                mTimeouts++;
+            }
+            DriverStation.reportError("Timed out waiting for trajectory: " + name, false);
+            finishWait(name, now);
+            return CompiledTrajectory.compile(new Trajectory(), lib.Constants.kLooperDt);
+        }
+
+        finishWait(name, now);
+        try {
+            return future.getNow(null);
+        } catch (CompletionException ex) {
+            // Forget the failure so the next get tries again
+            mTrajectories.remove(name, future);
+            DriverStation.reportError("Unable to load trajectory: " + name, ex.getCause().getStackTrace());
+            return CompiledTrajectory.compile(new Trajectory(), lib.Constants.kLooperDt);
+        }
+    }
+
+    private void finishWait(String name, long now) {
+        Long start = mWaitStarts.remove(name);
+        if (start != null) {
+            recordWait((now - start) * 1e-9);
+        }
+    }
+
+    private synchronized void recordWait(double seconds) {
+        mWaits++;
+        mTotalWaitSeconds += seconds;
+        mMaxWaitSeconds = Math.max(mMaxWaitSeconds, seconds);
+    }
+
+    /**
+     * Prints how often and how long get had to wait for a path that was not loaded yet
+     */
+    public synchronized void printWaitReport() {
+        System.out.println(String.format("Trajectory waits: %d, timeouts: %d, total %.1f ms, max %.1f ms",
+                mWaits, mTimeouts, mTotalWaitSeconds * 1000, mMaxWaitSeconds * 1000));
+    }
+
+    /**
+     * Loads a path json file generated from PathWeaver.
+     * The first load of a path also writes a binary copy of it (see {@link TrajectoryCache}), which later loads map
+     * directly instead of parsing the json, until a different json file is deployed.
+     */
+    private Trajectory loadTrajectory(String name) {
+        Path trajectoryPath = Filesystem.getDeployDirectory().toPath()
+                .resolve(kPathDirectory).resolve(name + kPathExtension);
+        try {
+            byte[] json = Files.readAllBytes(trajectoryPath);
+            CRC32 crc = new CRC32();
+            crc.update(json);
+
+            Path cachePath = Paths.get(Constants.kTrajectoryCacheDirectory, name + TrajectoryCache.kExtension);
+            Trajectory trajectory = readCache(cachePath, crc.getValue(), json.length);
+            if (trajectory == null) {
+                trajectory = TrajectoryUtil.deserializeTrajectory(new String(json, StandardCharsets.UTF_8));
+                writeCache(cachePath, trajectory, crc.getValue(), json.length);
+            }
+            return trajectory;
         } catch (IOException ex) {
-            DriverStation.reportError("Unable to open trajectory: " + trajectoryJSON, ex.getStackTrace());
+            throw new IllegalStateException("Unable to open trajectory: " + trajectoryPath, ex);
         }
     }
 
-    public Trajectory get(String name) {
-        if(mTrajectories.containsKey(name)) {
-            return mTrajectories.get(name);
-        } else {
-            return new Trajectory();
+    private Trajectory readCache(Path cachePath, long crc, long length) {
+        try {
+            return TrajectoryCache.read(cachePath, crc, length);
+        } catch (IOException ex) {
+            DriverStation.reportWarning("Unable to read trajectory cache: " + cachePath, false);
+            return null;
+        }
+    }
+
+    private void writeCache(Path cachePath, Trajectory trajectory, long crc, long length) {
+        try {
+            TrajectoryCache.write(cachePath, trajectory, crc, length);
+        } catch (IOException ex) {
+            DriverStation.reportWarning("Unable to write trajectory cache: " + cachePath, false);
         }
     }
 }
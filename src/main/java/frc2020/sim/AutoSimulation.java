@@ -0,0 +1,135 @@
+package frc2020.sim;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.wpilibj.geometry.Pose2d;
+import frc2020.auto.ActionExecutor;
+import frc2020.auto.AutoModeExecutor;
+import frc2020.auto.modes.AutoModeBase;
+import frc2020.subsystems.Drive;
+import frc2020.subsystems.RobotStateEstimator;
+import lib.Constants;
+import lib.SubsystemManager;
+import lib.loops.Looper;
+import lib.subsystems.Subsystem;
+import lib.util.Clock;
+import lib.util.VirtualClock;
+
+/**
+ * Runs auto modes headless, against {@link SwerveDriveSim}, as fast as the CPU allows. Robot time is a
+ * {@link VirtualClock} that only moves forward when the simulation steps it, one loop period at a time. Each step
+ * updates the drive model and runs one enabled loop cycle, which steps the mode's routine, so a run gives the same
+ * result every time.
+ * <p>
+ * Subsystems are singletons, so create one simulation per JVM and reuse it for every run.
+ */
+public class AutoSimulation {
+    private final Looper mEnabledLooper = new Looper();
+    private final Drive mDrive = Drive.getInstance();
+    private final RobotStateEstimator mRobotStateEstimator = RobotStateEstimator.getInstance();
+    private final ActionExecutor mActionExecutor = ActionExecutor.getInstance();
+    private final SwerveDriveSim mDriveSim;
+    private final VirtualClock mClock = new VirtualClock();
+
+    public static class Result {
+        /** True if the mode finished before the timeout */
+        public final boolean completed;
+        /** Seconds of robot time the mode ran */
+        public final double duration;
+        /** Largest distance between the robot and the path setpoint, meters */
+        public final double maxError;
+        /** Root mean square distance between the robot and the path setpoint, meters */
+        public final double rmsError;
+        public final Pose2d finalPose;
+
+        Result(boolean completed, double duration, double maxError, double rmsError, Pose2d finalPose) {
+            this.completed = completed;
+            this.duration = duration;
+            this.maxError = maxError;
+            this.rmsError = rmsError;
+            this.finalPose = finalPose;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s in %.2f s, path error max %.3f m rms %.3f m, final pose %s",
+                    completed ? "completed" : "timed out", duration, maxError, rmsError, finalPose);
+        }
+    }
+
+    /**
+     * @param seed            seed for the drive model's sensor noise
+     * @param extraSubsystems subsystems the modes use besides the drive
+     */
+    public AutoSimulation(long seed, Subsystem... extraSubsystems) {
+        HAL.initialize(500, 0);
+        Clock.setInstance(mClock);
+
+        Subsystem[] subsystems = new Subsystem[6 + extraSubsystems.length];
+        subsystems[0] = mRobotStateEstimator;
+        subsystems[1] = mDrive;
+        System.arraycopy(mDrive.getSwerveModules(), 0, subsystems, 2, 4);
+        System.arraycopy(extraSubsystems, 0, subsystems, 6, extraSubsystems.length);
+
+        SubsystemManager subsystemManager = SubsystemManager.getInstance();
+        subsystemManager.setSubsystems(subsystems);
+        subsystemManager.registerPostReadLoop(mActionExecutor);
+        subsystemManager.registerEnabledLoops(mEnabledLooper);
+
+        mDriveSim = new SwerveDriveSim(mDrive, seed);
+        mDrive.setDisabled(false);
+    }
+
+    public SwerveDriveSim getDriveSim() {
+        return mDriveSim;
+    }
+
+    /**
+     * Runs the mode from the given pose until it finishes or timeoutSeconds of robot time pass
+     */
+    public Result run(AutoModeBase mode, Pose2d startPose, double timeoutSeconds) {
+        mDriveSim.reset(startPose);
+        mRobotStateEstimator.resetOdometry(lib.geometry.Pose2d.fromWPI(startPose));
+        mDrive.setTrajectoryState(Double.NaN, Double.NaN, 0);
+
+        double startTime = mClock.getTimestamp();
+        double maxError = 0;
+        double sumSquaredError = 0;
+        int errorSamples = 0;
+
+        AutoModeExecutor autoModeExecutor = new AutoModeExecutor();
+        autoModeExecutor.setAutoMode(mode);
+        mEnabledLooper.startStepped();
+        try {
+            autoModeExecutor.start();
+
+            while (autoModeExecutor.isStarted() && mClock.getTimestamp() - startTime < timeoutSeconds) {
+                mClock.advance(Constants.kLooperDt);
+                mDriveSim.update(Constants.kLooperDt);
+                mEnabledLooper.step();
+
+                // Only measured while a path is being followed
+                if (!Double.isNaN(mDrive.getTrajectoryX())) {
+                    var translation = mDriveSim.getPose().getTranslation();
+                    double error = Math.hypot(translation.getX() - mDrive.getTrajectoryX(),
+                            translation.getY() - mDrive.getTrajectoryY());
+                    maxError = Math.max(maxError, error);
+                    sumSquaredError += error * error;
+                    errorSamples++;
+                }
+            }
+        } finally {
+            mEnabledLooper.stop();
+        }
+
+        boolean completed = !autoModeExecutor.isStarted() && mode.isActive();
+        autoModeExecutor.stop();
+
+        return new Result(
+            completed,
+            mClock.getTimestamp() - startTime,
+            maxError,
+            errorSamples > 0 ? Math.sqrt(sumSquaredError / errorSamples) : 0,
+            mDriveSim.getPose()
+        );
+    }
+}
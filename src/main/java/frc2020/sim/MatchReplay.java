@@ -0,0 +1,64 @@
+package frc2020.sim;
+
+import java.io.IOException;
+
+import edu.wpi.first.hal.HAL;
+import frc2020.subsystems.Drive;
+import frc2020.subsystems.Feeder;
+import frc2020.subsystems.Hood;
+import frc2020.subsystems.Intake;
+import frc2020.subsystems.Inventory;
+import frc2020.subsystems.LED;
+import frc2020.subsystems.Limelight;
+import frc2020.subsystems.Pixy;
+import frc2020.subsystems.RobotStateEstimator;
+import frc2020.subsystems.Shooter;
+import frc2020.subsystems.Superstructure;
+import lib.logging.LogReplay;
+
+/**
+ * Replays a log session from the robot through the robot's subsystems and loops on the desktop, and prints which
+ * outputs came out different and how long the loops took. Use it to reproduce a match bug after changing the code, or
+ * to measure loop CPU time.
+ * <p>
+ * Arguments: the session directory (copied from the robot's telemetry directory), and optionally the tolerance for
+ * double outputs (default 1e-6).
+ */
+public class MatchReplay {
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: MatchReplay <session directory> [tolerance]");
+            System.exit(1);
+        }
+        double tolerance = args.length > 1 ? Double.parseDouble(args[1]) : 1e-6;
+
+        HAL.initialize(500, 0);
+        Drive drive = Drive.getInstance();
+        Superstructure superstructure = Superstructure.getInstance();
+
+        // Same subsystems, in the same order, as Robot.robotInit
+        LogReplay replay = new LogReplay(args[0], tolerance,
+            RobotStateEstimator.getInstance(),
+            drive,
+            drive.getSwerveModules()[0],
+            drive.getSwerveModules()[1],
+            drive.getSwerveModules()[2],
+            drive.getSwerveModules()[3],
+            Intake.getInstance(),
+            Hood.getInstance(),
+            Shooter.getInstance(),
+            Feeder.getInstance(),
+            Inventory.getInstance(),
+            superstructure,
+            Limelight.getInstance(),
+            LED.getInstance(),
+            Pixy.getInstance()
+        );
+
+        // Logs are only written while enabled
+        superstructure.setDisabled(false);
+        drive.setDisabled(false);
+
+        System.out.println(replay.run());
+    }
+}
@@ -0,0 +1,114 @@
+package frc2020.sim;
+
+import static frc2020.Constants.kSwerveKinematics;
+
+import java.util.Random;
+
+import edu.wpi.first.wpilibj.geometry.Pose2d;
+import edu.wpi.first.wpilibj.geometry.Twist2d;
+import frc2020.subsystems.Drive;
+import frc2020.subsystems.SwerveModule;
+import frc2020.subsystems.SwerveModule.DriveMode;
+import frc2020.subsystems.SwerveModule.SteerMode;
+
+/**
+ * A simple model of the swerve drive. Each wheel speed follows its velocity command with a first order lag, each
+ * wheel angle moves toward its setpoint at a limited rate, and the true robot pose is integrated from the wheel
+ * states. The modules and gyro read this model (see {@link SwerveModule#setSimState}) instead of their hardware.
+ * <p>
+ * Sensor noise is drawn from a seeded random number generator so runs are repeatable.
+ */
+public class SwerveDriveSim {
+    /** Seconds */
+    public double kDriveTimeConstant = 0.05;
+    /** Degrees per second */
+    public double kSteerRate = 720;
+    /** Standard deviation of the measured wheel speed, m/s */
+    public double kVelocityNoise = 0;
+    /** Standard deviation of the measured yaw, degrees */
+    public double kYawNoise = 0;
+
+    private final Drive mDrive;
+    private final SwerveModule[] mModules;
+    private final SwerveModule.SimState[] mModuleStates;
+    // True wheel angles, degrees, and the chassis speeds they give
+    private final double[] mWheelAngles;
+    private final double[] mChassisSpeeds = new double[3];
+    private final long mSeed;
+    private final Random mRandom;
+
+    private Pose2d mPose = new Pose2d();
+    // Wheel speeds without noise, m/s
+    private final double[] mTrueVelocities;
+
+    public SwerveDriveSim(Drive drive, long seed) {
+        mDrive = drive;
+        mModules = drive.getSwerveModules();
+        mModuleStates = new SwerveModule.SimState[mModules.length];
+        mWheelAngles = new double[mModules.length];
+        mTrueVelocities = new double[mModules.length];
+        mSeed = seed;
+        mRandom = new Random(seed);
+
+        for (int i = 0; i < mModules.length; i++) {
+            mModuleStates[i] = new SwerveModule.SimState();
+            mModules[i].setSimState(mModuleStates[i]);
+        }
+        mDrive.getGyro().setSimYaw(0);
+    }
+
+    /**
+     * Stops and straightens the wheels, puts the robot at the given pose and restarts the noise sequence
+     */
+    public void reset(Pose2d pose) {
+        mPose = pose;
+        mRandom.setSeed(mSeed);
+        for (int i = 0; i < mModules.length; i++) {
+            mTrueVelocities[i] = 0;
+            mModuleStates[i].velocity = 0;
+            mModuleStates[i].position = 0;
+            mModuleStates[i].angle = 0;
+        }
+        mDrive.getGyro().setSimYaw(pose.getRotation().getDegrees());
+    }
+
+    /**
+     * @return where the robot actually is, as opposed to where odometry thinks it is
+     */
+    public Pose2d getPose() {
+        return mPose;
+    }
+
+    /**
+     * Moves the model forward by dt seconds using the commands the modules last wrote
+     */
+    public void update(double dt) {
+        for (int i = 0; i < mModules.length; i++) {
+            SwerveModule.PeriodicIO io = mModules[i].getPeriodicIO();
+            SwerveModule.SimState state = mModuleStates[i];
+
+            double targetVelocity = io.driveMode == DriveMode.VELOCITY ? io.driveCommand : 0;
+            mTrueVelocities[i] += (targetVelocity - mTrueVelocities[i]) * Math.min(1, dt / kDriveTimeConstant);
+
+            if (io.steerMode == SteerMode.ANGLE) {
+                // The setpoint is in the tracked frame, which is offset from the motor angle the model keeps
+                double target = io.steerSetpoint - (io.trackedAngle - io.relativeAngle);
+                double maxStep = kSteerRate * dt;
+                state.angle += Math.max(-maxStep, Math.min(maxStep, target - state.angle));
+            }
+
+            state.position += mTrueVelocities[i] * dt;
+            state.velocity = mTrueVelocities[i] + mRandom.nextGaussian() * kVelocityNoise;
+            mWheelAngles[i] = state.angle;
+        }
+
+        kSwerveKinematics.toChassisSpeeds(mTrueVelocities, mWheelAngles, mChassisSpeeds);
+        mPose = mPose.exp(new Twist2d(
+            mChassisSpeeds[0] * dt,
+            mChassisSpeeds[1] * dt,
+            mChassisSpeeds[2] * dt
+        ));
+
+        mDrive.getGyro().setSimYaw(mPose.getRotation().getDegrees() + mRandom.nextGaussian() * kYawNoise);
+    }
+}
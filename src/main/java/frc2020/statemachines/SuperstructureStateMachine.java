@@ -1,10 +1,10 @@
 package frc2020.statemachines;
 
-import edu.wpi.first.wpilibj.Timer;
 import frc2020.Constants;
 import frc2020.ShootingLocation;
 import frc2020.states.LEDState;
 import frc2020.subsystems.Shooter;
+import lib.util.Clock;
 import lib.util.DelayedBoolean;
 import lib.util.LatchedBoolean;
 import lib.util.Util;
@@ -155,7 +155,7 @@ public class SuperstructureStateMachine {
         mSystemState = newState;
 
         if(prevState != newState) {
-            mCurrentStateStartTime = Timer.getFPGATimestamp();
+            mCurrentStateStartTime = Clock.now();
             timeInState = 0.0;
         }
 
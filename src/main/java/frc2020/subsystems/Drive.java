@@ -7,35 +7,32 @@ import com.ctre.phoenix.motorcontrol.NeutralMode;
 import com.ctre.phoenix.sensors.PigeonIMU_StatusFrame;
 
 import edu.wpi.first.wpilibj.DriverStation;
-import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj.controller.PIDController;
 import edu.wpi.first.wpilibj.controller.ProfiledPIDController;
-import edu.wpi.first.wpilibj.kinematics.ChassisSpeeds;
-import edu.wpi.first.wpilibj.kinematics.SwerveDriveOdometry;
-import edu.wpi.first.wpilibj.kinematics.SwerveModuleState;
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
-import edu.wpi.first.wpilibj.trajectory.Trajectory.State;
 import edu.wpi.first.wpilibj.trajectory.TrapezoidProfile.Constraints;
 import edu.wpi.first.wpilibj.util.Units;
 import frc2020.Constants;
 import frc2020.RobotState;
 import frc2020.statemachines.SuperstructureStateMachine.SystemState;
 import lib.Kinematics;
+import lib.SwerveKinematics;
 import lib.drivers.BuzzPigeon;
 import lib.drivers.BuzzTalonFX;
 import lib.drivers.BuzzXboxController;
 import lib.drivers.TalonFXFactory;
+import lib.geometry.MutableRotation2d;
+import lib.geometry.MutableTranslation2d;
 import lib.geometry.Pose2d;
 import lib.geometry.Rotation2d;
-import lib.geometry.Translation2d;
 import lib.geometry.Twist2d;
 import lib.loops.ILooper;
 import lib.loops.Loop;
 import lib.subsystems.Subsystem;
+import lib.util.Clock;
+import lib.util.DashboardPublisher.NumberEntry;
 import lib.util.DriveSignal;
 import lib.util.LatchedBoolean;
 import lib.util.LeadLagFilter;
-import lib.util.ReflectingCSVWriter;
 import lib.util.SynchronousPIDF;
 import lib.util.TorqueLimit;
 import lib.util.Util;
@@ -65,7 +62,23 @@ public class Drive extends Subsystem {
     private boolean mDisabled = true;
     private boolean mFieldCentric = true;
 
-    private State mState = new State();
+    // Path follower setpoint shown on the dashboard, meters and meters per second
+    private double mTrajectoryX = 0;
+    private double mTrajectoryY = 0;
+    private double mTrajectoryVelocity = 0;
+
+    // Reused every call to setTeleOpInputs
+    private final MutableTranslation2d mTranslationalInput = new MutableTranslation2d();
+    private final MutableRotation2d mInputDirection = new MutableRotation2d();
+    // The gyro yaw as a rotation, set every cycle from PeriodicIO.yaw
+    private final MutableRotation2d mHeading = new MutableRotation2d();
+
+    // Reused every cycle by the kinematics: module speeds (m/s) and angles (degrees), and vx, vy and omega
+    private final double[] mModuleSpeeds = new double[4];
+    private final double[] mModuleAngles = new double[4];
+    private final double[] mChassisSpeeds = new double[3];
+    private final double[] mOutputVelocities = new double[4];
+    private final double[] mOutputAngles = new double[4];
 
     public enum DriveControlState {
         OPEN_LOOP, // open loop voltage control
@@ -92,7 +105,7 @@ public class Drive extends Subsystem {
         mGyro = new BuzzPigeon();
         mGyro.setStatusFramePeriod(PigeonIMU_StatusFrame.CondStatus_9_SixDeg_YPR, 10);
 
-        mYawControlFilter = new LeadLagFilter(Timer.getFPGATimestamp(), kYawLead, kYawLag);
+        mYawControlFilter = new LeadLagFilter(Clock.now(), kYawLead, kYawLag);
     }
 
     private final PeriodicIO mPeriodicIO;
@@ -105,34 +118,49 @@ public class Drive extends Subsystem {
         public double vy;
         public double omega;
 
-        public Rotation2d heading = Rotation2d.identity();
         public double yaw;
         public double yawRate;
         public double fusedHeading;
 
-        // OUTPUTS
-        public SwerveModuleState[] swerveModuleStates;
+        // Module commands from teleop or auto, logged so a log replay sends the same ones. The modules are disabled
+        // until the first command.
+        public boolean hasModuleCommands;
+        /** m/s */
+        public double[] moduleVelocityCommands = new double[4];
+        /** Degrees */
+        public double[] moduleAngleCommands = new double[4];
+    }
+
+    @Override
+    protected Object getLogSource() {
+        return mPeriodicIO;
+    }
+
+    @Override
+    protected void onInputsReplayed() {
+        mHeading.setDegrees(mPeriodicIO.yaw);
+        lastTimestamp = mPeriodicIO.timestamp;
     }
 
     double lastTimestamp = 0;
     @Override
     public synchronized void readPeriodicInputs() {
-        mPeriodicIO.timestamp = Timer.getFPGATimestamp();
+        mPeriodicIO.timestamp = Clock.now();
 
         double lastYaw = mPeriodicIO.yaw;
 
-        var speeds = kSwerveKinematics.toChassisSpeeds(
-            mModules[0].getModuleState(),
-            mModules[1].getModuleState(),
-            mModules[2].getModuleState(),
-            mModules[3].getModuleState());
-        
-        mPeriodicIO.vx = speeds.vxMetersPerSecond;
-        mPeriodicIO.vy = speeds.vyMetersPerSecond;
-        mPeriodicIO.omega = speeds.omegaRadiansPerSecond;
+        for(int i = 0; i < mModules.length; i++) {
+            mModuleSpeeds[i] = mModules[i].getVelocity();
+            mModuleAngles[i] = mModules[i].getAngleDegrees();
+        }
+        kSwerveKinematics.toChassisSpeeds(mModuleSpeeds, mModuleAngles, mChassisSpeeds);
+
+        mPeriodicIO.vx = mChassisSpeeds[0];
+        mPeriodicIO.vy = mChassisSpeeds[1];
+        mPeriodicIO.omega = mChassisSpeeds[2];
 
         mPeriodicIO.yaw = mGyro.getRawYawZeroed() + kInitialHeading;
-        mPeriodicIO.heading = Rotation2d.fromDegrees(mPeriodicIO.yaw);
+        mHeading.setDegrees(mPeriodicIO.yaw);
         mPeriodicIO.yawRate = (mPeriodicIO.yaw - lastYaw) 
             / (mPeriodicIO.timestamp - lastTimestamp);
         //mPeriodicIO.fusedHeading = mGyro.getFusedHeading();
@@ -144,14 +172,22 @@ public class Drive extends Subsystem {
     public synchronized void writePeriodicOutputs() {
         // Set output
         if(!mDisabled) {
-            if(mPeriodicIO.swerveModuleStates == null) {
+            if(!mPeriodicIO.hasModuleCommands) {
                 for(SwerveModule module : mModules) {
                     module.disable();
                 }
             } else {
-                for(int i = 0; i < 4; i++) {
-                    mModules[i].setVelocity(mPeriodicIO.swerveModuleStates[i].speedMetersPerSecond);
-                    mModules[i].setAngle(mPeriodicIO.swerveModuleStates[i].angle.getDegrees());
+                // Turn each module the short way from the angle it read this cycle
+                for(int i = 0; i < mModules.length; i++) {
+                    mOutputVelocities[i] = mPeriodicIO.moduleVelocityCommands[i];
+                    mOutputAngles[i] = mPeriodicIO.moduleAngleCommands[i];
+                    mModuleAngles[i] = mModules[i].getAngleDegrees();
+                }
+                SwerveKinematics.optimize(mOutputVelocities, mOutputAngles, mModuleAngles);
+
+                for(int i = 0; i < mModules.length; i++) {
+                    mModules[i].setVelocity(mOutputVelocities[i]);
+                    mModules[i].setAngle(mOutputAngles[i]);
                 }
             }
         }
@@ -203,7 +239,7 @@ public class Drive extends Subsystem {
             -wheel, kDriveSteerJoystickDeadbandCutoff, kDriveSteerJoystickWeight
         );
         
-        Translation2d translationalInput = new Translation2d(xVal, yVal);
+        mTranslationalInput.set(xVal, yVal);
 
         if(lockWheels) {
             lockWheels();
@@ -220,32 +256,27 @@ public class Drive extends Subsystem {
         if(Util.epsilonEquals(xVal, 0, 0.08) && 
             Util.epsilonEquals(yVal, 0, 0.08) &&
             Util.epsilonEquals(steerVal, 0, 0.08) && 
-            mPeriodicIO.swerveModuleStates != null &&
+            mPeriodicIO.hasModuleCommands &&
             mSuperstructure.getSystemState() != SystemState.AIM_LIGHTLIGHT
         ) {
-            for(int i = 0; i < mPeriodicIO.swerveModuleStates.length; i++) {
-                var oldState = mPeriodicIO.swerveModuleStates[i];
-                var newState = new SwerveModuleState(0, oldState.angle);
-                mPeriodicIO.swerveModuleStates[i] = newState; 
-            }
-
+            setChassisSpeeds(0, 0, 0);
             return;
         }
 
         if(lockTranslation) {
-            var oldDirection = translationalInput.direction();
-            var newDirection = Rotation2d.fromDegrees(Math.round(translationalInput.direction().getDegrees() / 45.0) * 45);
-            var changeDirection = newDirection.rotateBy(oldDirection.inverse());
-            translationalInput = translationalInput.rotateBy(changeDirection);
+            // Snap the direction to the nearest 45 degrees
+            var oldDegrees = mTranslationalInput.direction(mInputDirection).getDegrees();
+            var newDegrees = Math.round(oldDegrees / 45.0) * 45;
+            mTranslationalInput.rotateBy(mInputDirection.setDegrees(newDegrees - oldDegrees));
         }
 
         // Smooth joystick
-        Rotation2d direction = translationalInput.direction();
-        double scaledMagnitude = BuzzXboxController.joystickCubicScaledDeadband(Math.min(translationalInput.norm(), 1), kDriveJoystickDeadbandCutoff, kDriveJoystickWeight);
-        translationalInput = new Translation2d(direction.cos() * scaledMagnitude, direction.sin() * scaledMagnitude);
+        mTranslationalInput.direction(mInputDirection);
+        double scaledMagnitude = BuzzXboxController.joystickCubicScaledDeadband(Math.min(mTranslationalInput.norm(), 1), kDriveJoystickDeadbandCutoff, kDriveJoystickWeight);
+        mTranslationalInput.set(mInputDirection.cos() * scaledMagnitude, mInputDirection.sin() * scaledMagnitude);
 
         // Scale magnitude [0, 1] to [0, maxLinearVelocity]
-        translationalInput = translationalInput.scale(kDriveMaxLinearVelocity);
+        mTranslationalInput.scale(kDriveMaxLinearVelocity);
 
         // Rotation
         double omega = steerVal * kDriveMaxAngularVelocity;
@@ -268,41 +299,63 @@ public class Drive extends Subsystem {
         omega += correction;
 
         if(mFieldCentric) {
-            setFieldRelativeChassisSpeeds(translationalInput.x(), translationalInput.y(), omega);
+            setFieldRelativeChassisSpeeds(mTranslationalInput.x(), mTranslationalInput.y(), omega);
         } else {
-            setChassisSpeeds(translationalInput.x(), translationalInput.y(), omega);
+            setChassisSpeeds(mTranslationalInput.x(), mTranslationalInput.y(), omega);
         }
     }
 
-    public void setChassisSpeeds(double vx, double vy, double theta) {
-        setChassisSpeeds(new ChassisSpeeds(vx, vy, theta));
+    /**
+     * Robot relative. Modules that would go faster than kDriveMaxLinearVelocity are all slowed down together, and a
+     * module that is not moving keeps its angle.
+     *
+     * @param vx m/s
+     * @param vy m/s
+     * @param theta rad/s
+     */
+    public synchronized void setChassisSpeeds(double vx, double vy, double theta) {
+        kSwerveKinematics.toModuleStates(vx, vy, theta,
+            mPeriodicIO.moduleVelocityCommands, mPeriodicIO.moduleAngleCommands);
+        SwerveKinematics.desaturate(mPeriodicIO.moduleVelocityCommands, kDriveMaxLinearVelocity);
+        mPeriodicIO.hasModuleCommands = true;
     }
 
-    public void setFieldRelativeChassisSpeeds(double vx, double vy, double theta) {
-        setChassisSpeeds(ChassisSpeeds.fromFieldRelativeSpeeds(vx, vy, theta, getHeading().toWPI()));
+    public synchronized void setFieldRelativeChassisSpeeds(double vx, double vy, double theta) {
+        // Rotate the field relative speeds by minus the heading
+        double cos = mHeading.cos();
+        double sin = mHeading.sin();
+        setChassisSpeeds(vx * cos + vy * sin, -vx * sin + vy * cos, theta);
     }
 
-    public void setChassisSpeeds(ChassisSpeeds chassisSpeeds) {
-        SwerveModuleState[] moduleStates = kSwerveKinematics.toSwerveModuleStates(chassisSpeeds);
+    public synchronized void lockWheels() {
+        for(int i = 0; i < mModules.length; i++) {
+            mPeriodicIO.moduleVelocityCommands[i] = 0;
+            mPeriodicIO.moduleAngleCommands[i] = i % 2 == 0 ? -45 : 45;
+        }
+        mPeriodicIO.hasModuleCommands = true;
+    }
 
-        mPeriodicIO.swerveModuleStates = moduleStates;
+    public synchronized void centerWheels() {
+        for(int i = 0; i < mModules.length; i++) {
+            mPeriodicIO.moduleVelocityCommands[i] = 0;
+            mPeriodicIO.moduleAngleCommands[i] = 0;
+        }
+        mPeriodicIO.hasModuleCommands = true;
     }
 
-    public void lockWheels() {
-        mPeriodicIO.swerveModuleStates[0] = new SwerveModuleState(0, Rotation2d.fromDegrees(-45).toWPI());
-        mPeriodicIO.swerveModuleStates[1] = new SwerveModuleState(0, Rotation2d.fromDegrees(45).toWPI());
-        mPeriodicIO.swerveModuleStates[2] = new SwerveModuleState(0, Rotation2d.fromDegrees(-45).toWPI());
-        mPeriodicIO.swerveModuleStates[3] = new SwerveModuleState(0, Rotation2d.fromDegrees(45).toWPI());
+    public BuzzPigeon getGyro() {
+        return mGyro;
     }
 
-    public void centerWheels() {
-        for(int i = 0; i < mPeriodicIO.swerveModuleStates.length; i++) {
-            mPeriodicIO.swerveModuleStates[i] = new SwerveModuleState(0, Rotation2d.fromDegrees(0).toWPI());
-        }
+    /**
+     * @return x and y (meters) of the path follower setpoint last set with setTrajectoryState
+     */
+    public double getTrajectoryX() {
+        return mTrajectoryX;
     }
 
-    public void setModuleStates(SwerveModuleState[] moduleStates) {
-        mPeriodicIO.swerveModuleStates = moduleStates;
+    public double getTrajectoryY() {
+        return mTrajectoryY;
     }
 
     public SwerveModule[] getSwerveModules() {
@@ -310,12 +363,15 @@ public class Drive extends Subsystem {
     }
 
     // region Getters
-    public Rotation2d getHeading() {
-        return mPeriodicIO.heading;
+    /**
+     * @return the gyro heading, radians between -pi and pi
+     */
+    public double getHeadingRadians() {
+        return mHeading.getRadians();
     }
 
     public double getLinearVelocity() {
-        return new Translation2d(mPeriodicIO.vx, mPeriodicIO.vy).norm();
+        return Math.hypot(mPeriodicIO.vx, mPeriodicIO.vy);
     }
     // endregion
 
@@ -323,8 +379,16 @@ public class Drive extends Subsystem {
         mGyro.reset();
     }
 
-    public void setTrajectoryState(State state) {
-        mState = state;
+    /**
+     * Sets the path follower setpoint to display on the dashboard
+     * @param x meters
+     * @param y meters
+     * @param velocity meters per second
+     */
+    public void setTrajectoryState(double x, double y, double velocity) {
+        mTrajectoryX = x;
+        mTrajectoryY = y;
+        mTrajectoryVelocity = velocity;
     }
 
     public synchronized void setDisabled(boolean disabled) {
@@ -366,18 +430,23 @@ public class Drive extends Subsystem {
         return true;
     }
 
+    private final NumberEntry mVelocityEntry = mDashboard.number("v", 0.1);
+    private final NumberEntry mOmegaEntry = mDashboard.number("omega", 0.01);
+    private final NumberEntry mFusedHeadingEntry = mDashboard.number("fused heading", 0.1);
+    private final NumberEntry mStateXEntry = mDashboard.number("lx", 0.1);
+    private final NumberEntry mStateYEntry = mDashboard.number("ly", 0.1);
+    private final NumberEntry mStateVelocityEntry = mDashboard.number("lv", 0.1);
+
     @Override
     public void outputTelemetry() {
-        SmartDashboard.putNumber("v", Units.metersToInches(new Translation2d(mPeriodicIO.vx, mPeriodicIO.vy).norm()));
-        SmartDashboard.putNumber("omega", mPeriodicIO.omega);
+        mVelocityEntry.set(Units.metersToInches(getLinearVelocity()));
+        mOmegaEntry.set(mPeriodicIO.omega);
 
-        SmartDashboard.putNumber("fused heading", Rotation2d.fromDegrees(-mPeriodicIO.fusedHeading).getDegrees());
+        mFusedHeadingEntry.set(Rotation2d.fromDegrees(-mPeriodicIO.fusedHeading).getDegrees());
 
-        var statePose = mState.poseMeters;
-        var stateTrans = statePose.getTranslation();
-        SmartDashboard.putNumber("lx", Units.metersToInches(stateTrans.getX()));
-        SmartDashboard.putNumber("ly", Units.metersToInches(stateTrans.getY()));
-        SmartDashboard.putNumber("lv", Units.metersToInches(mState.velocityMetersPerSecond));
+        mStateXEntry.set(Units.metersToInches(mTrajectoryX));
+        mStateYEntry.set(Units.metersToInches(mTrajectoryY));
+        mStateVelocityEntry.set(Units.metersToInches(mTrajectoryVelocity));
     }
 
     public synchronized double getTimestamp() {
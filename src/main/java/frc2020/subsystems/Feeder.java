@@ -5,10 +5,12 @@ import static frc2020.Constants.*;
 import com.ctre.phoenix.motorcontrol.ControlMode;
 import com.ctre.phoenix.motorcontrol.NeutralMode;
 
-import edu.wpi.first.wpilibj.Timer;
 import lib.drivers.BuzzTalonSRX;
+import lib.drivers.StatusFramePlan;
 import lib.drivers.TalonSRXFactory;
+import lib.logging.LogSchema.Output;
 import lib.subsystems.Subsystem;
+import lib.util.Clock;
 
 public class Feeder extends Subsystem {
     private static Feeder mInstance;
@@ -32,7 +34,8 @@ public class Feeder extends Subsystem {
         mPeriodicIO = new PeriodicIO();
 
         // Initalize subsystem devices
-        mFeederMotor = TalonSRXFactory.createDefaultTalon(kFeederId);
+        // Nothing is read back from the feeder
+        mFeederMotor = TalonSRXFactory.createDefaultTalon(kFeederId, new StatusFramePlan());
 
         mFeederMotor.setInverted(true);
         mFeederMotor.setNeutralMode(NeutralMode.Brake);
@@ -47,13 +50,20 @@ public class Feeder extends Subsystem {
         public double timestamp;
 
         // OUTPUTS
+        @Output
         public double command;
+        @Output
         public CommandMode commandMode = CommandMode.DISABLED;
     }
 
+    @Override
+    protected Object getLogSource() {
+        return mPeriodicIO;
+    }
+
     @Override
     public synchronized void readPeriodicInputs() {
-        mPeriodicIO.timestamp = Timer.getFPGATimestamp();
+        mPeriodicIO.timestamp = Clock.now();
 
         // Read inputs
     }
@@ -5,11 +5,13 @@ import static frc2020.Constants.*;
 import java.util.Optional;
 
 import edu.wpi.first.wpilibj.RobotController;
-import edu.wpi.first.wpilibj.Timer;
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import lib.drivers.BuzzCANCoder;
 import lib.drivers.SmartServo;
+import lib.logging.LogSchema.Output;
 import lib.subsystems.Subsystem;
+import lib.util.Clock;
+import lib.util.DashboardPublisher.NumberEntry;
+import lib.util.DashboardPublisher.StringEntry;
 import lib.util.SynchronousPIDF;
 import lib.util.Util;
 
@@ -62,13 +64,20 @@ public class Hood extends Subsystem {
         public double trackedPosition;
 
         // OUTPUTS
+        @Output
         public double command;
+        @Output
         public CommandMode commandMode = CommandMode.DISABLED;
     }
 
+    @Override
+    protected Object getLogSource() {
+        return mPeriodicIO;
+    }
+
     @Override
     public synchronized void readPeriodicInputs() {
-        mPeriodicIO.timestamp = Timer.getFPGATimestamp();
+        mPeriodicIO.timestamp = Clock.now();
 
         // Read inputs
         double absRevs = mEncoder.getAbsoluteRevs();
@@ -167,14 +176,21 @@ public class Hood extends Subsystem {
         return true;
     }
 
+    private final StringEntry mCommandModeEntry = mDashboard.string("Hood Command Mode");
+    private final NumberEntry mCommandEntry = mDashboard.number("Hood Command");
+    private final NumberEntry mDesiredPercentEntry = mDashboard.number("Hood Desired Percent");
+    private final NumberEntry mRawEntry = mDashboard.number("Hood Raw");
+    private final NumberEntry mAbsEntry = mDashboard.number("Hood Abs");
+    private final NumberEntry mTrackedEntry = mDashboard.number("Hood Tracked");
+
     @Override
     public void outputTelemetry() {
-        SmartDashboard.putString("Hood Command Mode", mPeriodicIO.commandMode.toString());
-        SmartDashboard.putNumber("Hood Command", Util.round(mPeriodicIO.command));
-        SmartDashboard.putNumber("Hood Desired Percent", Util.round(mDesiredPercent));
-        SmartDashboard.putNumber("Hood Raw", Util.round(mPeriodicIO.rawAbsPosition));
-        SmartDashboard.putNumber("Hood Abs", Util.round(mPeriodicIO.absPosition));
-        SmartDashboard.putNumber("Hood Tracked", Util.round(mPeriodicIO.trackedPosition));
+        mCommandModeEntry.set(mPeriodicIO.commandMode.toString());
+        mCommandEntry.set(Util.round(mPeriodicIO.command));
+        mDesiredPercentEntry.set(Util.round(mDesiredPercent));
+        mRawEntry.set(Util.round(mPeriodicIO.rawAbsPosition));
+        mAbsEntry.set(Util.round(mPeriodicIO.absPosition));
+        mTrackedEntry.set(Util.round(mPeriodicIO.trackedPosition));
     }
 
     public synchronized double getTimestamp() {
@@ -6,16 +6,17 @@ import com.ctre.phoenix.motorcontrol.NeutralMode;
 
 import edu.wpi.first.wpilibj.DoubleSolenoid;
 import edu.wpi.first.wpilibj.DoubleSolenoid.Value;
-import edu.wpi.first.wpilibj.Timer;
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import frc2020.Constants;
 import lib.drivers.BuzzTalonFX;
 import lib.drivers.BuzzTalonSRX;
 import lib.drivers.TalonFXFactory;
 import lib.drivers.TalonSRXFactory;
+import lib.logging.LogSchema.Output;
 import lib.loops.ILooper;
 import lib.loops.Loop;
 import lib.subsystems.Subsystem;
+import lib.util.Clock;
+import lib.util.DashboardPublisher.NumberEntry;
 import lib.util.DelayedBoolean;
 
 public class Intake extends Subsystem {
@@ -25,8 +26,8 @@ public class Intake extends Subsystem {
     private BuzzTalonFX mIndexer;
     private DoubleSolenoid mIntakeSolenoid;
 
-    private DelayedBoolean mIntakeStalledDelayedBoolean = new DelayedBoolean(Timer.getFPGATimestamp(), kIntakeStallTime);
-    private DelayedBoolean mIndexerStalledDelayedBoolean = new DelayedBoolean(Timer.getFPGATimestamp(), kIntakeStallTime);
+    private DelayedBoolean mIntakeStalledDelayedBoolean = new DelayedBoolean(Clock.now(), kIntakeStallTime);
+    private DelayedBoolean mIndexerStalledDelayedBoolean = new DelayedBoolean(Clock.now(), kIntakeStallTime);
 
     private boolean mActuateIntake = false;
 
@@ -68,14 +69,22 @@ public class Intake extends Subsystem {
         public boolean ballStaged;
 
         // OUTPUTS
+        @Output
         public double intakeDemand;
+        @Output
         public boolean intakeDeploy;
+        @Output
         public double indexerDemand;
     }
 
+    @Override
+    protected Object getLogSource() {
+        return mPeriodicIO;
+    }
+
     @Override
     public synchronized void readPeriodicInputs() {
-        mPeriodicIO.timestamp = Timer.getFPGATimestamp();
+        mPeriodicIO.timestamp = Clock.now();
 
         // Read inputs
         mPeriodicIO.intakeStalled =
@@ -154,9 +163,11 @@ public class Intake extends Subsystem {
         return true;
     }
 
+    private final NumberEntry mBrushDemandEntry = mDashboard.number("Brush Demand");
+
     @Override
     public void outputTelemetry() {
-        SmartDashboard.putNumber("Brush Demand", mPeriodicIO.indexerDemand);
+        mBrushDemandEntry.set(mPeriodicIO.indexerDemand);
     }
 
     public synchronized double getTimestamp() {
@@ -2,12 +2,14 @@ package frc2020.subsystems;
 
 import static frc2020.Constants.*;
 
-import edu.wpi.first.wpilibj.Timer;
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import lib.drivers.BuzzDigitalInput;
 import lib.loops.ILooper;
 import lib.loops.Loop;
 import lib.subsystems.Subsystem;
+import lib.util.Clock;
+import lib.util.DashboardPublisher.BooleanArrayEntry;
+import lib.util.DashboardPublisher.BooleanEntry;
+import lib.util.DashboardPublisher.NumberEntry;
 import lib.util.LatchedBoolean;
 
 public class Inventory extends Subsystem {
@@ -51,9 +53,14 @@ public class Inventory extends Subsystem {
         public boolean[] sensorValues = new boolean[kBallSensorIds.length];
     }
 
+    @Override
+    protected Object getLogSource() {
+        return mPeriodicIO;
+    }
+
     @Override
     public synchronized void readPeriodicInputs() {
-        mPeriodicIO.timestamp = Timer.getFPGATimestamp();
+        mPeriodicIO.timestamp = Clock.now();
 
         // Read inputs
         for(int i = 0; i < mBallSensors.length; i++) {
@@ -132,11 +139,16 @@ public class Inventory extends Subsystem {
         return true;
     }
 
+    private final NumberEntry mVisibleBallsEntry = mDashboard.number("Visible Ball Count");
+    private final NumberEntry mTrackedBallsEntry = mDashboard.number("Tracked Ball Count");
+    private final BooleanArrayEntry mSensorValuesEntry = mDashboard.booleanArray("Ball Sensor Values");
+    private final BooleanEntry mSensor1Entry = mDashboard.bool("Ball Sensor ID 1");
+
     @Override
     public void outputTelemetry() {
-        SmartDashboard.putNumber("Visible Ball Count", getVisbileBalls());
-        SmartDashboard.putNumber("Tracked Ball Count", getBallCount());
-        SmartDashboard.putBooleanArray("Ball Sensor Values", mPeriodicIO.sensorValues);
-        SmartDashboard.putBoolean("Ball Sensor ID 1", mPeriodicIO.sensorValues[0]);
+        mVisibleBallsEntry.set(getVisbileBalls());
+        mTrackedBallsEntry.set(getBallCount());
+        mSensorValuesEntry.set(mPeriodicIO.sensorValues);
+        mSensor1Entry.set(mPeriodicIO.sensorValues[0]);
     }
 }
\ No newline at end of file
@@ -2,8 +2,9 @@ package frc2020.subsystems;
 
 import edu.wpi.first.networktables.NetworkTableEntry;
 import edu.wpi.first.networktables.NetworkTableInstance;
-import edu.wpi.first.wpilibj.Timer;
+import lib.logging.LogSchema.Output;
 import lib.subsystems.Subsystem;
+import lib.util.Clock;
 
 public class Limelight extends Subsystem {
     private static Limelight mInstance;
@@ -43,13 +44,20 @@ public class Limelight extends Subsystem {
         public int getpipe;
 
         // OUTPUTS
+        @Output
         public int pipeline;
+        @Output
         public int ledMode;
     }
 
+    @Override
+    protected Object getLogSource() {
+        return mPeriodicIO;
+    }
+
     @Override
     public synchronized void readPeriodicInputs() {
-        mPeriodicIO.timestamp = Timer.getFPGATimestamp();
+        mPeriodicIO.timestamp = Clock.now();
 
         // Read inputs
         mPeriodicIO.tx = txEntry.getDouble(0);
@@ -4,10 +4,11 @@ import static frc2020.Constants.*;
 
 import edu.wpi.first.wpilibj.AnalogInput;
 import edu.wpi.first.wpilibj.DigitalInput;
-import edu.wpi.first.wpilibj.Timer;
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 
 import lib.subsystems.Subsystem;
+import lib.util.Clock;
+import lib.util.DashboardPublisher.BooleanEntry;
+import lib.util.DashboardPublisher.NumberEntry;
 import lib.util.MovingAverage;
 
 public class Pixy extends Subsystem {
@@ -43,10 +44,15 @@ public class Pixy extends Subsystem {
         // OUTPUTS
     }
 
+    @Override
+    protected Object getLogSource() {
+        return mPeriodicIO;
+    }
+
     private MovingAverage mAverage = new MovingAverage(5);
     @Override
     public synchronized void readPeriodicInputs() {
-        mPeriodicIO.timestamp = Timer.getFPGATimestamp();
+        mPeriodicIO.timestamp = Clock.now();
 
         // Read inputs
         mPeriodicIO.ballSeen = mDigitalInput.get();
@@ -85,10 +91,13 @@ public class Pixy extends Subsystem {
         return true;
     }
 
+    private final BooleanEntry mBallSeenEntry = mDashboard.bool("Pixy Ball Seen");
+    private final NumberEntry mBallXEntry = mDashboard.number("Pixy Ball X", 0.1);
+
     @Override
     public void outputTelemetry() {
-        SmartDashboard.putBoolean("Pixy Ball Seen", mPeriodicIO.ballSeen);
-        SmartDashboard.putNumber("Pixy Ball X", mPeriodicIO.ballAngleX);
+        mBallSeenEntry.set(mPeriodicIO.ballSeen);
+        mBallXEntry.set(mPeriodicIO.ballAngleX);
     }
 
     public synchronized double getTimestamp() {
@@ -1,15 +1,15 @@
 package frc2020.subsystems;
 
 import lib.Kinematics;
-import edu.wpi.first.wpilibj.Timer;
-import edu.wpi.first.wpilibj.kinematics.SwerveDriveOdometry;
 import frc2020.RobotState;
 import lib.loops.ILooper;
 import lib.loops.Loop;
 import lib.subsystems.Subsystem;
+import lib.geometry.MutablePose2d;
 import lib.geometry.Pose2d;
 import lib.geometry.Rotation2d;
 import lib.geometry.Twist2d;
+import lib.util.Clock;
 
 import static frc2020.Constants.*;
 
@@ -21,7 +21,16 @@ public class RobotStateEstimator extends Subsystem {
     private double prev_timestamp_ = -1.0;
     private Rotation2d prev_heading_ = null;
 
-    private SwerveDriveOdometry mSwerveDriveOdometry;
+    // Odometry, integrated in place the same way as WPILib's SwerveDriveOdometry. Angles are radians.
+    private final MutablePose2d mOdometryPose = new MutablePose2d();
+    private double mGyroOffset = 0;
+    private double mPreviousAngle = 0;
+    private double mPreviousOdometryTimestamp = -1;
+
+    // Module speeds (m/s) and angles (degrees), and vx, vy and omega, reused every cycle
+    private final double[] mModuleSpeeds = new double[4];
+    private final double[] mModuleAngles = new double[4];
+    private final double[] mChassisSpeeds = new double[3];
 
     public static RobotStateEstimator getInstance() {
         if (mInstance == null) {
@@ -31,13 +40,15 @@ public class RobotStateEstimator extends Subsystem {
         return mInstance;
     }
 
-    private RobotStateEstimator() {
-        mSwerveDriveOdometry = new SwerveDriveOdometry(kSwerveKinematics, Rotation2d.fromDegrees(0).toWPI());
-    }
+    private RobotStateEstimator() {}
 
+    /**
+     * The pose is updated right after the inputs are read, so auto actions and the subsystems' loops use this cycle's
+     * pose
+     */
     @Override
     public void registerEnabledLoops(ILooper looper) {
-        looper.register(new EnabledLoop());
+        looper.registerPostRead(new EnabledLoop());
     }
 
     private class EnabledLoop implements Loop {
@@ -52,20 +63,37 @@ public class RobotStateEstimator extends Subsystem {
                 prev_heading_ = mRobotState.getLatestFieldToVehicle().getValue().getRotation();
             }
 
-            var modules = mDrive.getSwerveModules();
-            var pose = mSwerveDriveOdometry.update(mDrive.getHeading().toWPI(),
-                modules[0].getModuleState(),
-                modules[1].getModuleState(),
-                modules[2].getModuleState(),
-                modules[3].getModuleState());
-
-            mRobotState.addFieldToVehicleObservation(timestamp, Pose2d.fromWPI(pose));
+            updateOdometry(timestamp);
+            mRobotState.addFieldToVehicleObservation(timestamp, mOdometryPose.toPose2d());
         }
 
         @Override
         public void onStop(double timestamp) {}
     }
 
+    /**
+     * Moves the odometry pose by the chassis speeds the modules measured since the last update, and takes its rotation
+     * from the gyro
+     */
+    private synchronized void updateOdometry(double timestamp) {
+        double dt = mPreviousOdometryTimestamp >= 0 ? timestamp - mPreviousOdometryTimestamp : 0;
+        mPreviousOdometryTimestamp = timestamp;
+        double angle = mDrive.getHeadingRadians() + mGyroOffset;
+
+        var modules = mDrive.getSwerveModules();
+        for (int i = 0; i < modules.length; i++) {
+            mModuleSpeeds[i] = modules[i].getVelocity();
+            mModuleAngles[i] = modules[i].getAngleDegrees();
+        }
+        kSwerveKinematics.toChassisSpeeds(mModuleSpeeds, mModuleAngles, mChassisSpeeds);
+
+        mOdometryPose.transformByExp(mChassisSpeeds[0] * dt, mChassisSpeeds[1] * dt,
+            Math.IEEEremainder(angle - mPreviousAngle, 2 * Math.PI));
+        mPreviousAngle = angle;
+        mOdometryPose.set(mOdometryPose.getTranslation().x(), mOdometryPose.getTranslation().y(),
+            Math.cos(angle), Math.sin(angle));
+    }
+
     public synchronized void resetOdometry() {
         resetOdometry(new Pose2d(0, 0, Rotation2d.fromDegrees(kInitialHeading)));
     }
@@ -73,12 +101,11 @@ public class RobotStateEstimator extends Subsystem {
     public synchronized void resetOdometry(Pose2d pose) {
         mDrive.resetGyro();
 
-        mSwerveDriveOdometry.resetPosition(
-            pose.toWPI(),
-            mDrive.getHeading().toWPI()
-        );
+        mOdometryPose.set(pose);
+        mPreviousAngle = pose.getRotation().getRadians();
+        mGyroOffset = mPreviousAngle - mDrive.getHeadingRadians();
 
-        mRobotState.reset(Timer.getFPGATimestamp(), pose);
+        mRobotState.reset(Clock.now(), pose);
     }
 
     @Override
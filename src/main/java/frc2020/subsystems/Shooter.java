@@ -5,11 +5,15 @@ import static frc2020.Constants.*;
 import com.ctre.phoenix.motorcontrol.ControlMode;
 import com.ctre.phoenix.motorcontrol.NeutralMode;
 
-import edu.wpi.first.wpilibj.Timer;
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import lib.drivers.BuzzTalonFX;
+import lib.drivers.StatusFramePlan;
 import lib.drivers.TalonFXFactory;
+import lib.drivers.TalonStatusReader.Signal;
+import lib.logging.LogSchema.Output;
 import lib.subsystems.Subsystem;
+import lib.util.Clock;
+import lib.util.DashboardPublisher.NumberEntry;
+import lib.util.DashboardPublisher.StringEntry;
 
 public class Shooter extends Subsystem {
     private static Shooter mInstance;
@@ -35,8 +39,11 @@ public class Shooter extends Subsystem {
         mPeriodicIO = new PeriodicIO();
 
         // Initalize subsystem devices
-        mShooterA = TalonFXFactory.createDefaultTalon(kShooterAId);
-        mShooterB = TalonFXFactory.createDefaultTalon(kShooterBId);
+        mShooterA = TalonFXFactory.createDefaultTalon(kShooterAId, new StatusFramePlan()
+            .read(Signal.SENSOR_VELOCITY, 10)
+            .read(Signal.OUTPUT_VOLTAGE, 10));
+        mShooterB = TalonFXFactory.createDefaultTalon(kShooterBId, new StatusFramePlan()
+            .read(Signal.SENSOR_VELOCITY, 10));
         boolean invert = true;
         configShooterMotor(mShooterA, !invert);
         configShooterMotor(mShooterB, invert);
@@ -65,13 +72,20 @@ public class Shooter extends Subsystem {
         public double voltageB;
 
         // OUTPUTS
+        @Output
         public double command;
+        @Output
         public CommandMode commandMode = CommandMode.DISABLED;
     }
 
+    @Override
+    protected Object getLogSource() {
+        return mPeriodicIO;
+    }
+
     @Override
     public synchronized void readPeriodicInputs() {
-        mPeriodicIO.timestamp = Timer.getFPGATimestamp();
+        mPeriodicIO.timestamp = Clock.now();
 
         // Read inputs
         mPeriodicIO.rpmA = mShooterA.getRPM();
@@ -131,13 +145,19 @@ public class Shooter extends Subsystem {
         return true;
     }
 
+    private final NumberEntry mRPMEntry = mDashboard.number("Shooter Current RPM", 1.0);
+    private final NumberEntry mCommandEntry = mDashboard.number("Shooter Command");
+    private final StringEntry mCommandModeEntry = mDashboard.string("Shooter Command Mode");
+    private final NumberEntry mVoltageAEntry = mDashboard.number("Shooter A Voltage", 0.01);
+    private final NumberEntry mVoltageBEntry = mDashboard.number("Shooter B Voltage", 0.01);
+
     @Override
     public void outputTelemetry() {
-        SmartDashboard.putNumber("Shooter Current RPM", getRPM());
-        SmartDashboard.putNumber("Shooter Command", mPeriodicIO.command);
-        SmartDashboard.putString("Shooter Command Mode", mPeriodicIO.commandMode.toString());
-        SmartDashboard.putNumber("Shooter A Voltage", mPeriodicIO.voltageA);
-        SmartDashboard.putNumber("Shooter B Voltage", mPeriodicIO.voltageB);
+        mRPMEntry.set(getRPM());
+        mCommandEntry.set(mPeriodicIO.command);
+        mCommandModeEntry.set(mPeriodicIO.commandMode.toString());
+        mVoltageAEntry.set(mPeriodicIO.voltageA);
+        mVoltageBEntry.set(mPeriodicIO.voltageB);
     }
 
     public synchronized double getTimestamp() {
@@ -5,15 +5,17 @@ import java.util.Optional;
 import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.RobotBase;
 import edu.wpi.first.wpilibj.Timer;
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import frc2020.ShootingLocation;
 import frc2020.statemachines.SuperstructureStateMachine;
 import frc2020.statemachines.SuperstructureStateMachine.SystemState;
 import frc2020.Robot;
 import frc2020.RobotState;
+import lib.logging.LogSchema.Output;
 import lib.loops.ILooper;
 import lib.loops.Loop;
 import lib.subsystems.Subsystem;
+import lib.util.Clock;
+import lib.util.DashboardPublisher.StringEntry;
 
 public class Superstructure extends Subsystem {
     private static Superstructure mInstance;
@@ -40,10 +42,30 @@ public class Superstructure extends Subsystem {
 
     private boolean disabled = false;
 
-    private boolean mAtRPM = false;
-
     private Optional<Boolean> mIntakeDeployOverride = Optional.empty();
 
+    private final PeriodicIO mPeriodicIO = new PeriodicIO();
+
+    public static class PeriodicIO {
+        // INPUTS
+        public double timestamp;
+        // Wanted action and overrides, latched at the start of each cycle
+        public SuperstructureStateMachine.WantedAction wantedAction = SuperstructureStateMachine.WantedAction.IDLE;
+        public ShootingLocation.Location wantedShootingLocation = ShootingLocation.Location.NONE;
+        public double altitudeOffset;
+        public double brushOverride;
+        /** NaN when not overridden */
+        public double hoodAngleOverride = Double.NaN;
+        public boolean intakeDeployOverridden;
+        public boolean intakeDeployOverride;
+
+        // OUTPUTS
+        @Output
+        public SystemState systemState = SystemState.IDLE;
+        @Output
+        public boolean atRPM;
+    }
+
     public synchronized static Superstructure getInstance() {
         if (mInstance == null) {
             mInstance = new Superstructure();
@@ -56,6 +78,24 @@ public class Superstructure extends Subsystem {
 
     }
 
+    @Override
+    protected Object getLogSource() {
+        return mPeriodicIO;
+    }
+
+    @Override
+    public synchronized void readPeriodicInputs() {
+        mPeriodicIO.timestamp = Clock.now();
+
+        mPeriodicIO.wantedAction = mWantedAction;
+        mPeriodicIO.wantedShootingLocation = mWantedShootingLocation;
+        mPeriodicIO.altitudeOffset = mAltitudeOffset;
+        mPeriodicIO.brushOverride = mBrushOverride;
+        mPeriodicIO.hoodAngleOverride = mHoodAngleOverride.orElse(Double.NaN);
+        mPeriodicIO.intakeDeployOverridden = mIntakeDeployOverride.isPresent();
+        mPeriodicIO.intakeDeployOverride = mIntakeDeployOverride.orElse(false);
+    }
+
     @Override
     public void registerEnabledLoops(final ILooper in) {
         in.register(new Loop() {
@@ -92,26 +132,27 @@ public class Superstructure extends Subsystem {
                         mCurrentState.ballCount = mInventory.getBallCount();
 
                         // Get new state based on wanted actions and current state
-                        var newState = mStateMachine.update(timestamp, mCurrentState, mWantedAction,
-                                mWantedShootingLocation, mAltitudeOffset);
+                        var newState = mStateMachine.update(timestamp, mCurrentState, mPeriodicIO.wantedAction,
+                                mPeriodicIO.wantedShootingLocation, mPeriodicIO.altitudeOffset);
+                        mPeriodicIO.systemState = mStateMachine.getSystemState();
 
                         // Write subsystem outputs based on new state
-                        if(mIntakeDeployOverride.isEmpty()) {
+                        if(!mPeriodicIO.intakeDeployOverridden) {
                             mIntake.setIntakeDeploy(newState.intakeDeploy);
                         } else {
-                            mIntake.setIntakeDeploy(mIntakeDeployOverride.get());
+                            mIntake.setIntakeDeploy(mPeriodicIO.intakeDeployOverride);
                         }
                         mIntake.setIntake(newState.intakeVoltage);
-                        if (mBrushOverride == 0) {
+                        if (mPeriodicIO.brushOverride == 0) {
                             mIntake.setIndexer(newState.brushVoltage);
                         } else {
-                            mIntake.setIndexer(mBrushOverride);
+                            mIntake.setIndexer(mPeriodicIO.brushOverride);
                         }
 
-                        if(mHoodAngleOverride.isEmpty()) {
+                        if(Double.isNaN(mPeriodicIO.hoodAngleOverride)) {
                             mHood.setAngle(newState.hood);
                         } else {
-                            mHood.setAngle(mHoodAngleOverride.get());
+                            mHood.setAngle(mPeriodicIO.hoodAngleOverride);
                         }
                         
                         mFeeder.setDemand(newState.feederVoltage);
@@ -134,9 +175,9 @@ public class Superstructure extends Subsystem {
                         }
 
                         if(mCurrentState.shooterRPM > newState.shooterRPM) {
-                            mAtRPM = true;
+                            mPeriodicIO.atRPM = true;
                         } else {
-                            mAtRPM = false;
+                            mPeriodicIO.atRPM = false;
                         }
                     }
                 }
@@ -150,7 +191,7 @@ public class Superstructure extends Subsystem {
     }
 
     public boolean getAtRPM() {
-        return mAtRPM;
+        return mPeriodicIO.atRPM;
     }
 
     public void setDisabled(boolean disabled) {
@@ -272,9 +313,12 @@ public class Superstructure extends Subsystem {
         return true;
     }
 
+    private final StringEntry mWantedActionEntry = mDashboard.string("Wanted Action");
+    private final StringEntry mSystemStateEntry = mDashboard.string("System State");
+
     @Override
     public void outputTelemetry() { 
-        SmartDashboard.putString("Wanted Action", mWantedAction.toString());
-        SmartDashboard.putString("System State", getSystemState().toString());
+        mWantedActionEntry.set(mWantedAction.toString());
+        mSystemStateEntry.set(getSystemState().toString());
     }
 }
\ No newline at end of file
@@ -11,16 +11,19 @@ import com.ctre.phoenix.motorcontrol.can.TalonSRX;
 import edu.wpi.first.wpilibj.DigitalInput;
 import edu.wpi.first.wpilibj.DutyCycle;
 import edu.wpi.first.wpilibj.RobotBase;
-import edu.wpi.first.wpilibj.Timer;
-import edu.wpi.first.wpilibj.kinematics.SwerveModuleState;
 import edu.wpi.first.wpilibj.simulation.DutyCycleSim;
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj.util.Units;
 import frc2020.Constants;
 import lib.drivers.TalonFXFactory;
+import lib.drivers.StatusFramePlan;
 import lib.drivers.TalonSRXFactory;
+import lib.drivers.TalonStatusReader;
+import lib.drivers.TalonStatusReader.Signal;
 import lib.geometry.Rotation2d;
+import lib.logging.LogSchema.Output;
 import lib.subsystems.Subsystem;
+import lib.util.Clock;
+import lib.util.DashboardPublisher.NumberEntry;
 
 /**
  * Unlike other subystems, this is not a singleton since their will be 4 swerve modules.
@@ -31,6 +34,23 @@ public class SwerveModule extends Subsystem {
     private BaseTalon mSteerMotor;
     private DutyCycle mSteerEncoder;
 
+    // What readPeriodicInputs reads from each motor, and how often. Output and bus voltage are only logged and shown
+    private static final StatusFramePlan kDriveStatusPlan = new StatusFramePlan()
+        .read(Signal.SENSOR_VELOCITY, 10)
+        .read(Signal.SENSOR_POSITION, 10)
+        .read(Signal.OUTPUT_VOLTAGE, 100)
+        .read(Signal.BUS_VOLTAGE, 250);
+    private static final StatusFramePlan kSteerStatusPlan = new StatusFramePlan()
+        .read(Signal.SENSOR_POSITION, 10)
+        .read(Signal.SENSOR_VELOCITY, 10)
+        .read(Signal.OUTPUT_VOLTAGE, 100)
+        .read(Signal.BUS_VOLTAGE, 250);
+
+    // Both motors' status signals, fetched together once per cycle
+    private final TalonStatusReader mStatusReader = new TalonStatusReader();
+    private final TalonStatusReader.Device mDriveStatus;
+    private final TalonStatusReader.Device mSteerStatus;
+
     private String mName;
     
     private Optional<Double> mTrackedAngleOffset = Optional.empty();
@@ -97,13 +117,24 @@ public class SwerveModule extends Subsystem {
 
         mName = constants.kName;
 
+        mDriveKfEntry = mDashboard.number(mName + " Drive Kf");
+        mVelocityEntry = mDashboard.number(mName + " Velocity");
+        mTargetVelocityEntry = mDashboard.number(mName + " Target Velocity");
+        mSteerKfEntry = mDashboard.number(mName + " Steer Kf");
+        mRawRevsEntry = mDashboard.number(mName + " Raw Revs");
+        mAbsAngleEntry = mDashboard.number(mName + " Abs Angle");
+        mRelAngleEntry = mDashboard.number(mName + " Rel Angle");
+        mTrackedAngleEntry = mDashboard.number(mName + " Tracked Angle");
+        mTargetAngleEntry = mDashboard.number(mName + " Target Angle");
+        mRot2dAngleEntry = mDashboard.number(mName + " Rot2d Angle");
+
         // Initalize subsystem devices
         if(RobotBase.isReal()) {
-            mDriveMotor = TalonFXFactory.createDefaultTalon(constants.kDriveMotorId);
-            mSteerMotor = TalonFXFactory.createDefaultTalon(constants.kSteerMotorId);
+            mDriveMotor = TalonFXFactory.createDefaultTalon(constants.kDriveMotorId, kDriveStatusPlan);
+            mSteerMotor = TalonFXFactory.createDefaultTalon(constants.kSteerMotorId, kSteerStatusPlan);
         } else {
-            mDriveMotor = TalonSRXFactory.createDefaultTalon(constants.kDriveMotorId);
-            mSteerMotor = TalonSRXFactory.createDefaultTalon(constants.kSteerMotorId);
+            mDriveMotor = TalonSRXFactory.createDefaultTalon(constants.kDriveMotorId, kDriveStatusPlan);
+            mSteerMotor = TalonSRXFactory.createDefaultTalon(constants.kSteerMotorId, kSteerStatusPlan);
         }
         
         mSteerEncoder = new DutyCycle(new DigitalInput(constants.kSteerEncoderId));
@@ -134,6 +165,11 @@ public class SwerveModule extends Subsystem {
         mSteerMotor.config_kD(0, constants.kSteerKd);
         mSteerMotor.config_kF(0, constants.kSteerKf);
         mSteerMotor.config_IntegralZone(0, constants.kSteerKiZone);
+
+        mDriveStatus = mStatusReader.register(mDriveMotor,
+            Signal.BUS_VOLTAGE, Signal.OUTPUT_VOLTAGE, Signal.SENSOR_VELOCITY, Signal.SENSOR_POSITION);
+        mSteerStatus = mStatusReader.register(mSteerMotor,
+            Signal.BUS_VOLTAGE, Signal.OUTPUT_VOLTAGE, Signal.SENSOR_VELOCITY, Signal.SENSOR_POSITION);
     }
 
     private final PeriodicIO mPeriodicIO;
@@ -163,39 +199,57 @@ public class SwerveModule extends Subsystem {
         public double trackedAngle;
 
         // OUTPUTS
+        @Output
         public double driveCommand;
         /** Wrapped -180 to 180 */
+        @Output
         public double steerCommand;
+        /** Degrees, not wrapped. Angle the steer motor is sent to after picking the shortest way to steerCommand */
+        @Output
+        public double steerSetpoint;
+        @Output
         public DriveMode driveMode = DriveMode.DISABLED;
+        @Output
         public SteerMode steerMode = SteerMode.DISABLED;
     }
 
+    @Override
+    protected Object getLogSource() {
+        return mPeriodicIO;
+    }
+
     @Override
     public synchronized void readPeriodicInputs() {
-        mPeriodicIO.timestamp = Timer.getFPGATimestamp();
+        mPeriodicIO.timestamp = Clock.now();
 
         // Read inputs
-        mPeriodicIO.driveSupplyVoltage = mDriveMotor.getBusVoltage();
-        mPeriodicIO.driveCommandVoltage = mDriveMotor.getMotorOutputVoltage();
-        mPeriodicIO.driveRawVelocity = mDriveMotor.getSelectedSensorVelocity();
-        mPeriodicIO.driveVelocity = (((mPeriodicIO.driveRawVelocity / Constants.kFalconCPR) / mConstants.kDriveMotorGearReduction) * 10d) // rev/s
-                                     * (mConstants.kDriveWheelDiameter * Math.PI); // Scale revs to inches
-        mPeriodicIO.drivePosition = ((mDriveMotor.getSelectedSensorPosition() / Constants.kFalconCPR) / mConstants.kDriveMotorGearReduction) // rev
-                                     * (mConstants.kDriveWheelDiameter * Math.PI); // Scale revs to inches
-        
-        mPeriodicIO.steerSupplyVoltage = mSteerMotor.getBusVoltage();
-        mPeriodicIO.steerCommandVoltage = mSteerMotor.getMotorOutputVoltage();
-        mPeriodicIO.steerRawVelocity = mSteerMotor.getSelectedSensorVelocity();
+        if(mSimState != null) {
+            readSimulatedInputs();
+        } else {
+            mStatusReader.update();
+
+            mPeriodicIO.driveSupplyVoltage = mDriveStatus.get(Signal.BUS_VOLTAGE);
+            mPeriodicIO.driveCommandVoltage = mDriveStatus.get(Signal.OUTPUT_VOLTAGE);
+            mPeriodicIO.driveRawVelocity = mDriveStatus.get(Signal.SENSOR_VELOCITY);
+            mPeriodicIO.driveVelocity = (((mPeriodicIO.driveRawVelocity / Constants.kFalconCPR) / mConstants.kDriveMotorGearReduction) * 10d) // rev/s
+                                         * (mConstants.kDriveWheelDiameter * Math.PI); // Scale revs to inches
+            mPeriodicIO.drivePosition = ((mDriveStatus.get(Signal.SENSOR_POSITION) / Constants.kFalconCPR) / mConstants.kDriveMotorGearReduction) // rev
+                                         * (mConstants.kDriveWheelDiameter * Math.PI); // Scale revs to inches
+
+            mPeriodicIO.steerSupplyVoltage = mSteerStatus.get(Signal.BUS_VOLTAGE);
+            mPeriodicIO.steerCommandVoltage = mSteerStatus.get(Signal.OUTPUT_VOLTAGE);
+            mPeriodicIO.steerRawVelocity = mSteerStatus.get(Signal.SENSOR_VELOCITY);
+
+            mPeriodicIO.rawAbsoluteRevs = mSteerEncoder.getOutput();
+            mPeriodicIO.relativeAngle = ((mSteerStatus.get(Signal.SENSOR_POSITION) / Constants.kFalconCPR) / mConstants.kSteerMotorGearReduction) // rev
+                                        * 360; // Scales revs to degrees
+        }
 
-        mPeriodicIO.rawAbsoluteRevs = mSteerEncoder.getOutput();
         var absoluteRevs = mPeriodicIO.rawAbsoluteRevs - mConstants.kSteerEncoderOffset; // Subtract offset so that 0 revs = 0 degrees
         if(absoluteRevs < 0) absoluteRevs += 1; // Wrap negative values to be back inside range [0, 1]
         mPeriodicIO.absoluteAngle = absoluteRevs * -360; // Scale [0, 1] to [0, -360]
         mPeriodicIO.absoluteAngle = Rotation2d.fromDegrees(mPeriodicIO.absoluteAngle).getDegrees();
 
-        mPeriodicIO.relativeAngle = ((mSteerMotor.getSelectedSensorPosition() / Constants.kFalconCPR) / mConstants.kSteerMotorGearReduction) // rev
-                                    * 360; // Scales revs to degrees
-
         if(mTrackedAngleOffset.isEmpty()) {
             mTrackedAngleOffset = Optional.of(mPeriodicIO.absoluteAngle - mPeriodicIO.relativeAngle);
         }
@@ -250,6 +304,7 @@ public class SwerveModule extends Subsystem {
                     
 
                     double final_setpoint = mPeriodicIO.trackedAngle + Units.radiansToDegrees(raw_error);                  
+                    mPeriodicIO.steerSetpoint = final_setpoint;
 
                     var steerCommandEncoderUnits = ((final_setpoint - mTrackedAngleOffset.get()) / 360) 
                     * Constants.kFalconCPR * mConstants.kSteerMotorGearReduction; // Scales steer cmd in degs to ticks
@@ -268,6 +323,11 @@ public class SwerveModule extends Subsystem {
         }
     }
 
+    @Override
+    public String getName() {
+        return mName;
+    }
+
     public PeriodicIO getPeriodicIO() {
         return mPeriodicIO;
     }
@@ -320,8 +380,11 @@ public class SwerveModule extends Subsystem {
         mSteerMotor.setNeutralMode(braked ? NeutralMode.Brake : NeutralMode.Coast);
     }
 
-    public SwerveModuleState getModuleState() {
-        return new SwerveModuleState(getVelocity(), getAngleWPI());
+    /**
+     * @return the tracked angle, degrees and not wrapped
+     */
+    public double getAngleDegrees() {
+        return mPeriodicIO.trackedAngle;
     }
 
     public synchronized void resetOffset() {
@@ -329,6 +392,35 @@ public class SwerveModule extends Subsystem {
     }
 
     // region Simulation
+    /**
+     * Wheel state from a simulated module, read instead of the motors and encoder once set with
+     * {@link #setSimState}
+     */
+    public static class SimState {
+        /** m/s */
+        public double velocity;
+        /** m */
+        public double position;
+        /** Degrees, not wrapped */
+        public double angle;
+    }
+
+    private SimState mSimState = null;
+
+    public void setSimState(SimState simState) {
+        mSimState = simState;
+    }
+
+    private void readSimulatedInputs() {
+        mPeriodicIO.driveVelocity = mSimState.velocity;
+        mPeriodicIO.drivePosition = mSimState.position;
+        mPeriodicIO.relativeAngle = mSimState.angle;
+
+        // Inverse of the absolute angle calculation in readPeriodicInputs
+        double revs = (-mSimState.angle / 360 + mConstants.kSteerEncoderOffset) % 1;
+        mPeriodicIO.rawAbsoluteRevs = revs < 0 ? revs + 1 : revs;
+    }
+
     public TalonSRXSimCollection getDriveSim() {
         return ((TalonSRX) mDriveMotor).getSimCollection();
     }
@@ -351,19 +443,30 @@ public class SwerveModule extends Subsystem {
         return true;
     }
 
+    private final NumberEntry mDriveKfEntry;
+    private final NumberEntry mVelocityEntry;
+    private final NumberEntry mTargetVelocityEntry;
+    private final NumberEntry mSteerKfEntry;
+    private final NumberEntry mRawRevsEntry;
+    private final NumberEntry mAbsAngleEntry;
+    private final NumberEntry mRelAngleEntry;
+    private final NumberEntry mTrackedAngleEntry;
+    private final NumberEntry mTargetAngleEntry;
+    private final NumberEntry mRot2dAngleEntry;
+
     @Override
     public void outputTelemetry() {
-        SmartDashboard.putNumber(mName + " Drive Kf", (1023 * (mPeriodicIO.driveCommandVoltage / 12)) / mPeriodicIO.driveRawVelocity);
-        SmartDashboard.putNumber(mName + " Velocity", mPeriodicIO.driveVelocity);
-        SmartDashboard.putNumber(mName + " Target Velocity", mPeriodicIO.driveCommand);
-
-        SmartDashboard.putNumber(mName + " Steer Kf", (1023 * (mPeriodicIO.steerCommandVoltage / 12)) / mPeriodicIO.steerRawVelocity);
-        SmartDashboard.putNumber(mName + " Raw Revs", mPeriodicIO.rawAbsoluteRevs);
-        SmartDashboard.putNumber(mName + " Abs Angle", mPeriodicIO.absoluteAngle);
-        SmartDashboard.putNumber(mName + " Rel Angle", mPeriodicIO.relativeAngle);
-        SmartDashboard.putNumber(mName + " Tracked Angle", mPeriodicIO.trackedAngle);
-        SmartDashboard.putNumber(mName + " Target Angle", mPeriodicIO.steerCommand);
-        SmartDashboard.putNumber(mName + " Rot2d Angle", getAngle().getDegrees());
+        mDriveKfEntry.set((1023 * (mPeriodicIO.driveCommandVoltage / 12)) / mPeriodicIO.driveRawVelocity);
+        mVelocityEntry.set(mPeriodicIO.driveVelocity);
+        mTargetVelocityEntry.set(mPeriodicIO.driveCommand);
+
+        mSteerKfEntry.set((1023 * (mPeriodicIO.steerCommandVoltage / 12)) / mPeriodicIO.steerRawVelocity);
+        mRawRevsEntry.set(mPeriodicIO.rawAbsoluteRevs);
+        mAbsAngleEntry.set(mPeriodicIO.absoluteAngle);
+        mRelAngleEntry.set(mPeriodicIO.relativeAngle);
+        mTrackedAngleEntry.set(mPeriodicIO.trackedAngle);
+        mTargetAngleEntry.set(mPeriodicIO.steerCommand);
+        mRot2dAngleEntry.set(getAngle().getDegrees());
     }
     
 }
\ No newline at end of file
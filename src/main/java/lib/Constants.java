@@ -9,4 +9,14 @@ package lib;
 
 public final class Constants {
     public static final double kLooperDt = 0.01;
+    /** Number of cycles kept for loop timing statistics */
+    public static final int kLooperTimingWindow = 500;
+    /** Most times per second each subsystem's dashboard values are published */
+    public static final double kDashboardRate = 10.0;
+    /** Records each subsystem's telemetry logger can queue before dropping */
+    public static final int kTelemetryQueueCapacity = 256;
+    /** Records kept in each subsystem's telemetry log before the oldest are overwritten (one match at 100 Hz) */
+    public static final int kTelemetryLogCapacity = 18000;
+    /** Telemetry log directories kept on the robot; older ones are deleted when a new one is started */
+    public static final int kTelemetryMaxSessions = 10;
 }
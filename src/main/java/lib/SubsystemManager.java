@@ -4,10 +4,19 @@ import lib.loops.ILooper;
 import lib.loops.Loop;
 import lib.loops.Looper;
 import lib.subsystems.Subsystem;
+import lib.subsystems.SubsystemProfiler;
+import lib.subsystems.SubsystemProfiler.Phase;
+import lib.util.Clock;
+import lib.util.WorkerPool;
 
+
+import java.io.File;
+import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Date;
 import java.util.List;
+import java.util.regex.Pattern;
 
 /**
  * Used to reset, start, stop, and update all subsystems at once
@@ -15,8 +24,27 @@ import java.util.List;
 public class SubsystemManager implements ILooper {
     public static SubsystemManager mInstance = null;
 
+    // Log session directories are named with the time they started, and only directories named that way are pruned
+    private static final String kLogSessionFormat = "yyyyMMdd_HHmmss";
+    private static final Pattern kLogSessionPattern = Pattern.compile("\\d{8}_\\d{6}");
+
     private List<Subsystem> mAllSubsystems;
+    private List<Loop> mPostReadLoops = new ArrayList<>();
+    /** Index into mAllSubsystems of the subsystem that registered each loop in mPostReadLoops */
+    private List<Integer> mPostReadLoopOwners = new ArrayList<>();
+    // Subsystems' post read loops are kept at the front of mPostReadLoops
+    private int mSubsystemPostReadLoops = 0;
     private List<Loop> mLoops = new ArrayList<>();
+    /** Index into mAllSubsystems of the subsystem that registered each loop in mLoops */
+    private List<Integer> mLoopOwners = new ArrayList<>();
+    private int mRegisteringSubsystem = -1;
+
+    private SubsystemProfiler mProfiler;
+
+    // Parallel reads (opt in)
+    private WorkerPool mReadPool = null;
+    private Runnable[] mParallelReadTasks;
+    private int[] mSerialReadIndices;
 
     private SubsystemManager() {}
 
@@ -28,8 +56,17 @@ public class SubsystemManager implements ILooper {
         return mInstance;
     }
 
+    /**
+     * Publishes each subsystem's telemetry, skipping subsystems that have already published within their rate limit
+     */
     public void outputToSmartDashboard() {
-        mAllSubsystems.forEach(Subsystem::outputTelemetry);
+        double timestamp = Clock.now();
+        for (int i = 0; i < mAllSubsystems.size(); i++) {
+            Subsystem subsystem = mAllSubsystems.get(i);
+            if (subsystem.getDashboard().beginUpdate(timestamp)) {
+                subsystem.outputTelemetry();
+            }
+        }
     }
 
     public boolean checkSubsystems() {
@@ -46,29 +83,155 @@ public class SubsystemManager implements ILooper {
         mAllSubsystems.forEach(Subsystem::stop);
     }
 
+    /**
+     * Starts logging every subsystem's telemetry into a new directory (named with the current time) under baseDirectory
+     */
+    public void startLogging(String baseDirectory) {
+        pruneLogSessions(new File(baseDirectory), Constants.kTelemetryMaxSessions - 1);
+
+        File directory = new File(baseDirectory, new SimpleDateFormat(kLogSessionFormat).format(new Date()));
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            System.err.println("Could not create log directory " + directory);
+            return;
+        }
+        for (Subsystem subsystem : mAllSubsystems) {
+            subsystem.startLogging(directory.getPath());
+        }
+    }
+
+    public void stopLogging() {
+        mAllSubsystems.forEach(Subsystem::stopLogging);
+    }
+
+    /**
+     * Deletes the oldest session directories so at most keep are left. Session names sort by time. Anything else in
+     * baseDirectory is left alone.
+     */
+    private static void pruneLogSessions(File baseDirectory, int keep) {
+        File[] sessions = baseDirectory.listFiles(
+            file -> file.isDirectory() && kLogSessionPattern.matcher(file.getName()).matches());
+        if (sessions == null || sessions.length <= keep) {
+            return;
+        }
+        Arrays.sort(sessions);
+        for (int i = 0; i < sessions.length - keep; i++) {
+            File[] files = sessions[i].listFiles();
+            if (files != null) {
+                for (File file : files) {
+                    file.delete();
+                }
+            }
+            sessions[i].delete();
+        }
+    }
+
     public List<Subsystem> getSubsystems() {
         return mAllSubsystems;
     }
 
     public void setSubsystems(Subsystem... allSubsystems) {
         mAllSubsystems = Arrays.asList(allSubsystems);
+
+        // The extra slot at the end collects loops not registered by a subsystem
+        String[] names = new String[allSubsystems.length + 1];
+        for (int i = 0; i < allSubsystems.length; i++) {
+            names[i] = allSubsystems[i].getName();
+        }
+        names[allSubsystems.length] = "Other";
+        mProfiler = new SubsystemProfiler(names, Constants.kLooperTimingWindow);
+    }
+
+    public SubsystemProfiler getProfiler() {
+        return mProfiler;
+    }
+
+    /**
+     * Reads the inputs of the given subsystems in parallel on a pool of worker threads. Every read must be independent
+     * of the others (no subsystem may use another's inputs in readPeriodicInputs). Subsystems that are not listed are
+     * still read on the loop thread, in order, once all of the parallel reads have finished, so they may depend on the
+     * inputs of listed subsystems.
+     */
+    public void enableParallelReads(int numThreads, Subsystem... independentSubsystems) {
+        List<Subsystem> independent = Arrays.asList(independentSubsystems);
+
+        List<Runnable> parallelTasks = new ArrayList<>();
+        List<Integer> serialIndices = new ArrayList<>();
+        for (int i = 0; i < mAllSubsystems.size(); i++) {
+            final int index = i;
+            if (independent.contains(mAllSubsystems.get(i))) {
+                parallelTasks.add(() -> readPeriodicInputs(index));
+            } else {
+                serialIndices.add(i);
+            }
+        }
+
+        mParallelReadTasks = parallelTasks.toArray(new Runnable[0]);
+        mSerialReadIndices = serialIndices.stream().mapToInt(Integer::intValue).toArray();
+        // The loop thread runs tasks too, so it counts as one of the threads
+        mReadPool = new WorkerPool("SubsystemReader", Math.max(0, numThreads - 1));
+    }
+
+    private void readPeriodicInputs(int index) {
+        long start = System.nanoTime();
+        mAllSubsystems.get(index).readPeriodicInputs();
+        mProfiler.record(index, Phase.READ, System.nanoTime() - start);
+    }
+
+    private void readPeriodicInputs() {
+        if (mReadPool != null) {
+            mReadPool.runAll(mParallelReadTasks, mParallelReadTasks.length);
+            for (int index : mSerialReadIndices) {
+                readPeriodicInputs(index);
+            }
+        } else {
+            for (int i = 0; i < mAllSubsystems.size(); i++) {
+                readPeriodicInputs(i);
+            }
+        }
+    }
+
+    private void writePeriodicOutputs() {
+        for (int i = 0; i < mAllSubsystems.size(); i++) {
+            long start = System.nanoTime();
+            mAllSubsystems.get(i).writePeriodicOutputs();
+            mProfiler.record(i, Phase.WRITE, System.nanoTime() - start);
+        }
     }
 
     private class EnabledLoop implements Loop {
         @Override
         public void onStart(double timestamp) {
+            mPostReadLoops.forEach(l -> l.onStart(timestamp));
             mLoops.forEach(l -> l.onStart(timestamp));
         }
 
         @Override
         public void onLoop(double timestamp) {
-            mAllSubsystems.forEach(Subsystem::readPeriodicInputs);
-            mLoops.forEach(l -> l.onLoop(timestamp));
-            mAllSubsystems.forEach(Subsystem::writePeriodicOutputs);
+            readPeriodicInputs();
+
+            for (int i = 0; i < mPostReadLoops.size(); i++) {
+                long start = System.nanoTime();
+                mPostReadLoops.get(i).onLoop(timestamp);
+                mProfiler.record(mPostReadLoopOwners.get(i), Phase.LOOP, System.nanoTime() - start);
+            }
+
+            for (int i = 0; i < mLoops.size(); i++) {
+                long start = System.nanoTime();
+                mLoops.get(i).onLoop(timestamp);
+                mProfiler.record(mLoopOwners.get(i), Phase.LOOP, System.nanoTime() - start);
+            }
+
+            writePeriodicOutputs();
+
+            for (int i = 0; i < mAllSubsystems.size(); i++) {
+                mAllSubsystems.get(i).writeToLog();
+            }
+            mProfiler.endCycle();
         }
 
         @Override
         public void onStop(double timestamp) {
+            mPostReadLoops.forEach(l -> l.onStop(timestamp));
             mLoops.forEach(l -> l.onStop(timestamp));
         }
     }
@@ -79,7 +242,8 @@ public class SubsystemManager implements ILooper {
 
         @Override
         public void onLoop(double timestamp) {
-            mAllSubsystems.forEach(Subsystem::readPeriodicInputs);
+            readPeriodicInputs();
+            mProfiler.endCycle();
         }
 
         @Override
@@ -87,10 +251,25 @@ public class SubsystemManager implements ILooper {
     }
 
     public void registerEnabledLoops(Looper enabledLooper) {
-        mAllSubsystems.forEach(s -> s.registerEnabledLoops(this));
+        for (int i = 0; i < mAllSubsystems.size(); i++) {
+            mRegisteringSubsystem = i;
+            mAllSubsystems.get(i).registerEnabledLoops(this);
+        }
+        mRegisteringSubsystem = -1;
         enabledLooper.register(new EnabledLoop());
     }
 
+    /**
+     * Runs the loop every enabled cycle right after the inputs are read, before the subsystems' loops. Whatever it
+     * commands is acted on in the same cycle. Post read loops run in the order they are registered, except that the
+     * subsystems' own (see {@link #registerPostRead}, like odometry) always run first, so a loop registered here sees
+     * this cycle's estimates too.
+     */
+    public void registerPostReadLoop(Loop loop) {
+        mPostReadLoops.add(loop);
+        mPostReadLoopOwners.add(mAllSubsystems.size());
+    }
+
     public void registerDisabledLoops(Looper disabledLooper) {
         disabledLooper.register(new DisabledLoop());
     }
@@ -98,5 +277,17 @@ public class SubsystemManager implements ILooper {
     @Override
     public void register(Loop loop) {
         mLoops.add(loop);
+        mLoopOwners.add(mRegisteringSubsystem >= 0 ? mRegisteringSubsystem : mAllSubsystems.size());
+    }
+
+    @Override
+    public void registerPostRead(Loop loop) {
+        if (mRegisteringSubsystem < 0) {
+            registerPostReadLoop(loop);
+            return;
+        }
+        mPostReadLoops.add(mSubsystemPostReadLoops, loop);
+        mPostReadLoopOwners.add(mSubsystemPostReadLoops, mRegisteringSubsystem);
+        mSubsystemPostReadLoops++;
     }
 }
@@ -0,0 +1,147 @@
+package lib;
+
+/**
+ * Inverse and forward kinematics for a swerve drive, the same math as WPILib's SwerveDriveKinematics but written
+ * against arrays the caller owns, so nothing is allocated per call. Speeds are robot relative (x forward, y left,
+ * omega counterclockwise in radians per second), module speeds are in the chassis speed units and module angles are in
+ * degrees.
+ */
+public class SwerveKinematics {
+    private static final double kEpsilon = 1E-9;
+
+    private final double[] mModuleX;
+    private final double[] mModuleY;
+    // Least squares solution of the inverse kinematics: row k gives vx, vy or omega from the modules' velocity
+    // components, ordered x0, y0, x1, y1, ...
+    private final double[][] mForward;
+
+    /**
+     * @param moduleX x of each module from the center of rotation
+     * @param moduleY y of each module from the center of rotation
+     */
+    public SwerveKinematics(double[] moduleX, double[] moduleY) {
+        if (moduleX.length != moduleY.length || moduleX.length < 2) {
+            throw new IllegalArgumentException("Need the x and y of at least two modules");
+        }
+        mModuleX = moduleX.clone();
+        mModuleY = moduleY.clone();
+
+        // Each module contributes the rows [1 0 -y] and [0 1 x]; solve (A^T A) B = A^T once
+        int n = mModuleX.length;
+        double sumX = 0, sumY = 0, sumSquares = 0;
+        for (int i = 0; i < n; i++) {
+            sumX += mModuleX[i];
+            sumY += mModuleY[i];
+            sumSquares += mModuleX[i] * mModuleX[i] + mModuleY[i] * mModuleY[i];
+        }
+        double[][] inverse = invert(new double[][] {
+            { n, 0, -sumY },
+            { 0, n, sumX },
+            { -sumY, sumX, sumSquares }
+        });
+
+        mForward = new double[3][2 * n];
+        for (int k = 0; k < 3; k++) {
+            for (int i = 0; i < n; i++) {
+                mForward[k][2 * i] = inverse[k][0] - inverse[k][2] * mModuleY[i];
+                mForward[k][2 * i + 1] = inverse[k][1] + inverse[k][2] * mModuleX[i];
+            }
+        }
+    }
+
+    private static double[][] invert(double[][] m) {
+        double c00 = m[1][1] * m[2][2] - m[1][2] * m[2][1];
+        double c01 = m[1][2] * m[2][0] - m[1][0] * m[2][2];
+        double c02 = m[1][0] * m[2][1] - m[1][1] * m[2][0];
+        double det = m[0][0] * c00 + m[0][1] * c01 + m[0][2] * c02;
+        if (Math.abs(det) < kEpsilon) {
+            throw new IllegalArgumentException("Module positions do not determine the chassis speeds");
+        }
+
+        return new double[][] {
+            { c00 / det, (m[0][2] * m[2][1] - m[0][1] * m[2][2]) / det, (m[0][1] * m[1][2] - m[0][2] * m[1][1]) / det },
+            { c01 / det, (m[0][0] * m[2][2] - m[0][2] * m[2][0]) / det, (m[0][2] * m[1][0] - m[0][0] * m[1][2]) / det },
+            { c02 / det, (m[0][1] * m[2][0] - m[0][0] * m[2][1]) / det, (m[0][0] * m[1][1] - m[0][1] * m[1][0]) / det }
+        };
+    }
+
+    public int getNumModules() {
+        return mModuleX.length;
+    }
+
+    /**
+     * Inverse kinematics. A module that is not moving keeps the angle already in anglesOut rather than snapping to 0
+     * degrees.
+     *
+     * @param speedsOut filled in with each module's speed
+     * @param anglesOut filled in with each module's angle, degrees
+     */
+    public void toModuleStates(double vx, double vy, double omega, double[] speedsOut, double[] anglesOut) {
+        for (int i = 0; i < mModuleX.length; i++) {
+            double x = vx - omega * mModuleY[i];
+            double y = vy + omega * mModuleX[i];
+            double speed = Math.hypot(x, y);
+            speedsOut[i] = speed;
+            if (speed > kEpsilon) {
+                anglesOut[i] = Math.toDegrees(Math.atan2(y, x));
+            }
+        }
+    }
+
+    /**
+     * Forward kinematics, the chassis speeds that best fit the module states
+     *
+     * @param angles degrees
+     * @param out filled in with vx, vy and omega
+     * @return out
+     */
+    public double[] toChassisSpeeds(double[] speeds, double[] angles, double[] out) {
+        double vx = 0, vy = 0, omega = 0;
+        for (int i = 0; i < mModuleX.length; i++) {
+            double radians = Math.toRadians(angles[i]);
+            double x = speeds[i] * Math.cos(radians);
+            double y = speeds[i] * Math.sin(radians);
+            vx += mForward[0][2 * i] * x + mForward[0][2 * i + 1] * y;
+            vy += mForward[1][2 * i] * x + mForward[1][2 * i + 1] * y;
+            omega += mForward[2][2 * i] * x + mForward[2][2 * i + 1] * y;
+        }
+        out[0] = vx;
+        out[1] = vy;
+        out[2] = omega;
+        return out;
+    }
+
+    /**
+     * Scales every module speed down by the same factor so none is over maxSpeed, keeping the direction the robot
+     * moves in
+     */
+    public static void desaturate(double[] speeds, double maxSpeed) {
+        double max = 0;
+        for (double speed : speeds) {
+            max = Math.max(max, Math.abs(speed));
+        }
+        if (max > maxSpeed) {
+            for (int i = 0; i < speeds.length; i++) {
+                speeds[i] *= maxSpeed / max;
+            }
+        }
+    }
+
+    /**
+     * Flips any module that would have to turn more than 90 degrees: it turns the other way and drives backwards
+     * instead
+     *
+     * @param angles degrees, replaced by the nearest equivalent angle to the current one
+     * @param currentAngles degrees, not wrapped
+     */
+    public static void optimize(double[] speeds, double[] angles, double[] currentAngles) {
+        for (int i = 0; i < speeds.length; i++) {
+            double error = Math.IEEEremainder(angles[i] - currentAngles[i], 360);
+            if (Math.abs(error) > 90) {
+                error -= Math.copySign(180, error);
+                speeds[i] = -speeds[i];
+            }
+            angles[i] = currentAngles[i] + error;
+        }
+    }
+}
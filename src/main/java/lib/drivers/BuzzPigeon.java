@@ -6,6 +6,8 @@ import lib.geometry.Rotation2d;
 
 public class BuzzPigeon extends PigeonIMU {
     private double mZeroYaw;
+    /** Replaces the sensor reading when not NaN, for simulation */
+    private double mSimYaw = Double.NaN;
 
     public BuzzPigeon() {
         this(0);
@@ -16,6 +18,9 @@ public class BuzzPigeon extends PigeonIMU {
     }
 
     public double getRawYaw() {
+        if (!Double.isNaN(mSimYaw)) {
+            return mSimYaw;
+        }
         double[] ypr_deg = {0, 0, 0};
         getYawPitchRoll(ypr_deg);
         return ypr_deg[0];
@@ -28,4 +33,11 @@ public class BuzzPigeon extends PigeonIMU {
     public void reset() {
         mZeroYaw = getRawYaw(); 
     }
+
+    /**
+     * @param yaw degrees reported by getRawYaw from now on, or NaN to go back to reading the sensor
+     */
+    public void setSimYaw(double yaw) {
+        mSimYaw = yaw;
+    }
 }
\ No newline at end of file
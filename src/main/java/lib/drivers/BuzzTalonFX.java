@@ -18,9 +18,8 @@ public class BuzzTalonFX extends TalonFX {
     private double mSaturationVoltage;
     private boolean mVoltageCompEnabled;
 
-    protected ControlMode lastMode = null;
-    protected double lastValue = Double.NaN;
-    protected ErrorCode lastError = ErrorCode.OK;
+    // Skips writing outputs that haven't changed
+    private final OutputWriteFilter mWriteFilter = new OutputWriteFilter();
 
     public BuzzTalonFX(int id) {
         super(id);
@@ -136,20 +135,44 @@ public class BuzzTalonFX extends TalonFX {
         configSelectedFeedbackCoefficient(0.5);
     }
 
+    /**
+     * Sets how much the output must change to be written again, in the units passed to set (default 1e-6)
+     */
+    public synchronized void setWriteEpsilon(double epsilon) {
+        mWriteFilter.setEpsilon(epsilon);
+    }
+
+    /**
+     * Sets how many unchanged outputs in a row may be skipped before one is written anyway (default 10). 0 writes
+     * every output.
+     */
+    public synchronized void setWriteRefresh(int skippedWrites) {
+        mWriteFilter.setRefreshWrites(skippedWrites);
+    }
+
+    /**
+     * Makes the next output be written even if it hasn't changed
+     */
+    public synchronized void forceNextWrite() {
+        mWriteFilter.invalidate();
+    }
+
+    /**
+     * @return number of outputs that were not written because they hadn't changed
+     */
+    public synchronized long getSkippedWrites() {
+        return mWriteFilter.getSkippedWrites();
+    }
+
     @Override
-    public void set(ControlMode mode, double value) {
-        super.set(mode, value);
-        /*
+    public synchronized void set(ControlMode mode, double value) {
         if(mode == ControlMode.PercentOutput) {
             if(value > 1.0) value = 1.0;
             if(value < -1.0) value = -1.0;
         }
-        if(mode != lastMode || value != lastValue || lastError != ErrorCode.OK ) {
+        if(mWriteFilter.shouldWrite(mode, value)) {
             super.set(mode, value);
-            lastMode = mode;
-            lastValue = value;
-            lastError = getLastError();
+            mWriteFilter.written(mode, value, getLastError() == ErrorCode.OK);
         }
-        */
     }
 }
\ No newline at end of file
@@ -0,0 +1,79 @@
+package lib.drivers;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Estimates how much of the CAN bus the talons use, from the frame periods the factories set. Each talon created by
+ * {@link TalonFXFactory} or {@link TalonSRXFactory} is added automatically.
+ * <p>
+ * Only the frames the factories set are counted (the status frames in {@link StatusFramePlan#kFrames} and the general
+ * control frame), so the real load is somewhat higher. Every frame is counted as a full 8 byte extended frame.
+ */
+public class CanBusBudget {
+    private static CanBusBudget mInstance;
+
+    /** Bits per frame with a 29 bit id and 8 data bytes (131), plus about 10% for bit stuffing */
+    public static final double kBitsPerFrame = 144;
+    public static final double kBusBitsPerSecond = 1e6;
+
+    private static class Device {
+        final String name;
+        final double framesPerSecond;
+
+        Device(String name, double framesPerSecond) {
+            this.name = name;
+            this.framesPerSecond = framesPerSecond;
+        }
+    }
+
+    private final List<Device> mDevices = new ArrayList<>();
+
+    public synchronized static CanBusBudget getInstance() {
+        if (mInstance == null) {
+            mInstance = new CanBusBudget();
+        }
+
+        return mInstance;
+    }
+
+    private CanBusBudget() {}
+
+    /**
+     * @param statusPeriodsMs period of each frame in {@link StatusFramePlan#kFrames}
+     * @param controlPeriodMs period of the general control frame
+     */
+    public synchronized void addTalon(String name, int[] statusPeriodsMs, int controlPeriodMs) {
+        double framesPerSecond = 1000.0 / controlPeriodMs;
+        for (int period : statusPeriodsMs) {
+            framesPerSecond += 1000.0 / Math.min(period, StatusFramePlan.kMaxPeriodMs);
+        }
+        mDevices.add(new Device(name, framesPerSecond));
+    }
+
+    public synchronized double getFramesPerSecond() {
+        double total = 0;
+        for (Device device : mDevices) {
+            total += device.framesPerSecond;
+        }
+        return total;
+    }
+
+    /**
+     * @return estimated fraction of the bus in use, 0 to 1
+     */
+    public synchronized double getUtilization() {
+        return getFramesPerSecond() * kBitsPerFrame / kBusBitsPerSecond;
+    }
+
+    public synchronized String getReport() {
+        StringBuilder builder = new StringBuilder("CAN bus budget:");
+        for (Device device : mDevices) {
+            builder.append(String.format("%n  %-16s %6.0f frames/s %5.1f%%", device.name, device.framesPerSecond,
+                    100 * device.framesPerSecond * kBitsPerFrame / kBusBitsPerSecond));
+        }
+        builder.append(String.format("%n  %-16s %6.0f frames/s %5.1f%%", "Total", getFramesPerSecond(),
+                100 * getUtilization()));
+        return builder.toString();
+    }
+}
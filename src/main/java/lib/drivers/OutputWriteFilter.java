@@ -0,0 +1,61 @@
+package lib.drivers;
+
+import com.ctre.phoenix.motorcontrol.ControlMode;
+
+/**
+ * Decides whether a motor controller output needs to be sent. A write with the same mode as the last one, and a value
+ * within epsilon of it, is skipped. After a number of skipped writes one is sent anyway, so a controller that reset or
+ * lost a frame gets its output back. A write that failed is never skipped.
+ */
+class OutputWriteFilter {
+    static final double kDefaultEpsilon = 1e-6;
+    static final int kDefaultRefreshWrites = 10;
+
+    private double mEpsilon = kDefaultEpsilon;
+    private int mRefreshWrites = kDefaultRefreshWrites;
+
+    private ControlMode mLastMode = null;
+    private double mLastValue = Double.NaN;
+    private int mSkippedSinceWrite = 0;
+    private long mSkipped = 0;
+
+    /**
+     * @param epsilon largest change in value (in the units passed to set) that is not written
+     */
+    void setEpsilon(double epsilon) {
+        mEpsilon = epsilon;
+    }
+
+    /**
+     * @param refreshWrites skipped writes after which the output is sent again even if unchanged; 0 never skips
+     */
+    void setRefreshWrites(int refreshWrites) {
+        mRefreshWrites = refreshWrites;
+    }
+
+    boolean shouldWrite(ControlMode mode, double value) {
+        if (mode == mLastMode && Math.abs(value - mLastValue) <= mEpsilon && mSkippedSinceWrite < mRefreshWrites) {
+            mSkippedSinceWrite++;
+            mSkipped++;
+            return false;
+        }
+        return true;
+    }
+
+    void written(ControlMode mode, double value, boolean succeeded) {
+        mLastMode = succeeded ? mode : null;
+        mLastValue = value;
+        mSkippedSinceWrite = 0;
+    }
+
+    /**
+     * Makes the next write go through
+     */
+    void invalidate() {
+        mLastMode = null;
+    }
+
+    long getSkippedWrites() {
+        return mSkipped;
+    }
+}
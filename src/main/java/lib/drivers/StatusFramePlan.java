@@ -0,0 +1,81 @@
+package lib.drivers;
+
+import com.ctre.phoenix.motorcontrol.StatusFrameEnhanced;
+
+import lib.drivers.TalonStatusReader.Signal;
+
+import java.util.Arrays;
+
+/**
+ * Declares which status signals the code reads from a talon and how often, and works out the status frame periods
+ * from that. Each frame is sent as often as its most frequently read signal needs; frames nothing reads are slowed to
+ * the longest period. Give one to {@link TalonFXFactory} or {@link TalonSRXFactory} when creating the talon:
+ *
+ * <pre>
+ * new StatusFramePlan()
+ *     .read(Signal.SENSOR_VELOCITY, 10)
+ *     .read(Signal.BUS_VOLTAGE, 250)
+ * </pre>
+ */
+public class StatusFramePlan {
+    /** Longest status frame period a talon uses; longer periods are capped to this */
+    public static final int kMaxPeriodMs = 255;
+    public static final int kMinPeriodMs = 5;
+    /** Followers take their output from the leader's general status frame, so a leader keeps it at least this fast */
+    public static final int kLeaderGeneralPeriodMs = 10;
+
+    /** Status frames set by the factories, in the order of {@link #getPeriodsMs()} */
+    public static final StatusFrameEnhanced[] kFrames = {
+        StatusFrameEnhanced.Status_1_General,
+        StatusFrameEnhanced.Status_2_Feedback0,
+        StatusFrameEnhanced.Status_3_Quadrature,
+        StatusFrameEnhanced.Status_4_AinTempVbat,
+        StatusFrameEnhanced.Status_8_PulseWidth
+    };
+
+    private final int[] mPeriodsMs = new int[kFrames.length];
+
+    public StatusFramePlan() {
+        Arrays.fill(mPeriodsMs, kMaxPeriodMs);
+    }
+
+    /**
+     * Declares that the signal is read every periodMs (or more often)
+     */
+    public StatusFramePlan read(Signal signal, int periodMs) {
+        return require(signal.frame, periodMs);
+    }
+
+    /**
+     * Keeps the general status frame fast enough for talons following this one
+     */
+    public StatusFramePlan leadsFollowers() {
+        return require(StatusFrameEnhanced.Status_1_General, kLeaderGeneralPeriodMs);
+    }
+
+    private StatusFramePlan require(StatusFrameEnhanced frame, int periodMs) {
+        int index = indexOf(frame);
+        mPeriodsMs[index] = Math.min(mPeriodsMs[index], Math.max(kMinPeriodMs, Math.min(kMaxPeriodMs, periodMs)));
+        return this;
+    }
+
+    private static int indexOf(StatusFrameEnhanced frame) {
+        for (int i = 0; i < kFrames.length; i++) {
+            if (kFrames[i] == frame) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException(frame + " is not a planned status frame");
+    }
+
+    public int getPeriodMs(StatusFrameEnhanced frame) {
+        return mPeriodsMs[indexOf(frame)];
+    }
+
+    /**
+     * @return period of each frame in {@link #kFrames}
+     */
+    public int[] getPeriodsMs() {
+        return mPeriodsMs.clone();
+    }
+}
@@ -61,6 +61,13 @@ public class TalonFXFactory {
         return createTalon(id, kDefaultConfiguration);
     }
 
+    /**
+     * Same as {@link #createDefaultTalon(int)}, with status frame periods from the plan
+     */
+    public static BuzzTalonFX createDefaultTalon(int id, StatusFramePlan plan) {
+        return createTalon(id, kDefaultConfiguration, plan);
+    }
+
     public static BuzzTalonFX createPermanentFollowerTalon(int id, int leader_id) {
         final BuzzTalonFX talon = createTalon(id, kFollowerConfiguration);
         talon.set(ControlMode.Follower, leader_id);
@@ -68,6 +75,13 @@ public class TalonFXFactory {
     }
 
     public static BuzzTalonFX createTalon(int id, Configuration config) {
+        return createTalon(id, config, null);
+    }
+
+    /**
+     * @param plan status frame periods to use instead of the configuration's, or null to use the configuration's
+     */
+    public static BuzzTalonFX createTalon(int id, Configuration config, StatusFramePlan plan) {
         BuzzTalonFX talon = new BuzzTalonFX(id);
         talon.set(ControlMode.PercentOutput, 0.0);
 
@@ -121,20 +135,22 @@ public class TalonFXFactory {
         talon.configVoltageMeasurementFilter(32, kTimeoutMs);
         talon.enableVoltageCompensation(false);
 
-        talon.setStatusFramePeriod(StatusFrameEnhanced.Status_1_General,
-                config.GENERAL_STATUS_FRAME_RATE_MS, kTimeoutMs);
-        talon.setStatusFramePeriod(StatusFrameEnhanced.Status_2_Feedback0,
-                config.FEEDBACK_STATUS_FRAME_RATE_MS, kTimeoutMs);
-
-        talon.setStatusFramePeriod(StatusFrameEnhanced.Status_3_Quadrature,
-                config.QUAD_ENCODER_STATUS_FRAME_RATE_MS, kTimeoutMs);
-        talon.setStatusFramePeriod(StatusFrameEnhanced.Status_4_AinTempVbat,
-                config.ANALOG_TEMP_VBAT_STATUS_FRAME_RATE_MS, kTimeoutMs);
-        talon.setStatusFramePeriod(StatusFrameEnhanced.Status_8_PulseWidth,
-                config.PULSE_WIDTH_STATUS_FRAME_RATE_MS, kTimeoutMs);
+        // Same order as StatusFramePlan.kFrames
+        int[] statusPeriods = plan != null ? plan.getPeriodsMs() : new int[] {
+            config.GENERAL_STATUS_FRAME_RATE_MS,
+            config.FEEDBACK_STATUS_FRAME_RATE_MS,
+            config.QUAD_ENCODER_STATUS_FRAME_RATE_MS,
+            config.ANALOG_TEMP_VBAT_STATUS_FRAME_RATE_MS,
+            config.PULSE_WIDTH_STATUS_FRAME_RATE_MS
+        };
+        for (int i = 0; i < statusPeriods.length; i++) {
+            talon.setStatusFramePeriod(StatusFramePlan.kFrames[i], statusPeriods[i], kTimeoutMs);
+        }
 
         talon.setControlFramePeriod(ControlFrame.Control_3_General, config.CONTROL_FRAME_PERIOD_MS);
 
+        CanBusBudget.getInstance().addTalon("TalonFX " + id, statusPeriods, config.CONTROL_FRAME_PERIOD_MS);
+
         return talon;
     }
 }
\ No newline at end of file
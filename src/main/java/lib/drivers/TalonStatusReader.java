@@ -0,0 +1,160 @@
+package lib.drivers;
+
+import com.ctre.phoenix.ErrorCode;
+import com.ctre.phoenix.motorcontrol.StatusFrameEnhanced;
+import com.ctre.phoenix.motorcontrol.can.BaseTalon;
+
+import lib.Constants;
+import lib.util.Clock;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads the status signals of a group of talons in one pass per cycle and caches them, so the rest of the cycle reads
+ * plain fields instead of crossing into the Phoenix library for every value.
+ * <p>
+ * A talon only sends each status frame every so often (bus voltage, for example, every second with the factory
+ * settings), and asking for a value again before the next frame arrives just returns the same number. So each signal
+ * is only fetched once its frame's period has passed since the last fetch. That can delay a new value by up to one
+ * period, which is nothing next to how old the value already is.
+ */
+public class TalonStatusReader {
+    private static final int kTimeoutMs = 100;
+
+    public enum Signal {
+        /** Volts */
+        BUS_VOLTAGE(StatusFrameEnhanced.Status_4_AinTempVbat),
+        /** Volts */
+        OUTPUT_VOLTAGE(StatusFrameEnhanced.Status_1_General),
+        /** Native units */
+        SENSOR_POSITION(StatusFrameEnhanced.Status_2_Feedback0),
+        /** Native units per 100 ms */
+        SENSOR_VELOCITY(StatusFrameEnhanced.Status_2_Feedback0),
+        /** Degrees Celsius */
+        TEMPERATURE(StatusFrameEnhanced.Status_4_AinTempVbat);
+
+        /** Status frame the signal arrives in */
+        public final StatusFrameEnhanced frame;
+
+        Signal(StatusFrameEnhanced frame) {
+            this.frame = frame;
+        }
+    }
+
+    private static final Signal[] kSignals = Signal.values();
+
+    /**
+     * Cached signals of one talon
+     */
+    public static class Device {
+        private final BaseTalon mTalon;
+        private final Signal[] mSignals;
+        // Indexed by signal ordinal
+        private final double[] mPeriods = new double[kSignals.length];
+        private final double[] mValues = new double[kSignals.length];
+        private final double[] mTimestamps = new double[kSignals.length];
+
+        private Device(BaseTalon talon, Signal[] signals) {
+            mTalon = talon;
+            mSignals = signals;
+            Arrays.fill(mValues, Double.NaN);
+            Arrays.fill(mTimestamps, Double.NEGATIVE_INFINITY);
+
+            for (Signal signal : signals) {
+                int periodMs = talon.getStatusFramePeriod(signal.frame, kTimeoutMs);
+                // If the period can't be read, fetch every cycle
+                mPeriods[signal.ordinal()] = talon.getLastError() == ErrorCode.OK ? periodMs / 1000.0 : 0;
+            }
+        }
+
+        public BaseTalon getTalon() {
+            return mTalon;
+        }
+
+        /**
+         * @return the signal's value as of the last fetch, or NaN if it was not registered for this talon
+         */
+        public double get(Signal signal) {
+            return mValues[signal.ordinal()];
+        }
+
+        /**
+         * @return when the signal was last fetched, which is at most one frame period after the talon sent it
+         */
+        public double getTimestamp(Signal signal) {
+            return mTimestamps[signal.ordinal()];
+        }
+
+        private double fetch(Signal signal) {
+            switch (signal) {
+                case BUS_VOLTAGE:
+                    return mTalon.getBusVoltage();
+                case OUTPUT_VOLTAGE:
+                    return mTalon.getMotorOutputVoltage();
+                case SENSOR_POSITION:
+                    return mTalon.getSelectedSensorPosition();
+                case SENSOR_VELOCITY:
+                    return mTalon.getSelectedSensorVelocity();
+                case TEMPERATURE:
+                    return mTalon.getTemperature();
+                default:
+                    throw new IllegalArgumentException("Unknown signal " + signal);
+            }
+        }
+    }
+
+    private final List<Device> mDevices = new ArrayList<>();
+    private long mFetches = 0;
+    private long mSkips = 0;
+
+    /**
+     * Adds a talon and fetches its signals for the first time. Reads each signal's status frame period from the talon,
+     * so set the periods first.
+     */
+    public synchronized Device register(BaseTalon talon, Signal... signals) {
+        Device device = new Device(talon, signals.clone());
+        mDevices.add(device);
+        fetch(device, Clock.now(), true);
+        return device;
+    }
+
+    /**
+     * Fetches every registered signal whose status frame may have changed since it was last fetched
+     */
+    public synchronized void update() {
+        double now = Clock.now();
+        for (int i = 0; i < mDevices.size(); i++) {
+            fetch(mDevices.get(i), now, false);
+        }
+    }
+
+    private void fetch(Device device, double now, boolean force) {
+        for (Signal signal : device.mSignals) {
+            int index = signal.ordinal();
+            // Allow half a loop of jitter so a frame period equal to the loop period fetches every cycle
+            if (force || now - device.mTimestamps[index] >= device.mPeriods[index] - Constants.kLooperDt / 2) {
+                device.mValues[index] = device.fetch(signal);
+                device.mTimestamps[index] = now;
+                mFetches++;
+            } else {
+                mSkips++;
+            }
+        }
+    }
+
+    /**
+     * @return number of values read from the talons so far
+     */
+    public synchronized long getFetchCount() {
+        return mFetches;
+    }
+
+    /**
+     * @return number of times a value was left cached because its frame had not come around again
+     */
+    public synchronized long getSkipCount() {
+        return mSkips;
+    }
+}
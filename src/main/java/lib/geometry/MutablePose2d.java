@@ -0,0 +1,217 @@
+package lib.geometry;
+
+/**
+ * Mutable counterpart of {@link Pose2d} for code that runs every loop. All operations modify this object in place and
+ * return it so calls can be chained. The math is the same as Pose2d (see
+ * https://github.com/strasdat/Sophus/blob/master/sophus/se2.hpp), just written against primitives so no intermediate
+ * objects are created.
+ */
+public class MutablePose2d {
+    private final static double kEps = 1E-9;
+
+    protected final MutableTranslation2d translation_ = new MutableTranslation2d();
+    protected final MutableRotation2d rotation_ = new MutableRotation2d();
+
+    public MutablePose2d() {}
+
+    public MutablePose2d(double x, double y, double cos, double sin) {
+        set(x, y, cos, sin);
+    }
+
+    public MutablePose2d(final Pose2d other) {
+        set(other);
+    }
+
+    public MutablePose2d setIdentity() {
+        translation_.setIdentity();
+        rotation_.setIdentity();
+        return this;
+    }
+
+    /**
+     * Sets the pose from a translation and a rotation given as a point on the unit circle
+     */
+    public MutablePose2d set(double x, double y, double cos, double sin) {
+        translation_.set(x, y);
+        rotation_.cos_angle_ = cos;
+        rotation_.sin_angle_ = sin;
+        return this;
+    }
+
+    public MutablePose2d set(final Pose2d other) {
+        translation_.set(other.getTranslation());
+        rotation_.set(other.getRotation());
+        return this;
+    }
+
+    public MutablePose2d set(final MutablePose2d other) {
+        translation_.set(other.translation_);
+        rotation_.set(other.rotation_);
+        return this;
+    }
+
+    public MutableTranslation2d getTranslation() {
+        return translation_;
+    }
+
+    public MutableRotation2d getRotation() {
+        return rotation_;
+    }
+
+    /**
+     * Sets this pose to the one obtained from a (constant curvature) velocity. Equivalent to {@link Pose2d#exp}.
+     */
+    public MutablePose2d setExp(double dx, double dy, double dtheta) {
+        double sin_theta = Math.sin(dtheta);
+        double cos_theta = Math.cos(dtheta);
+        double s, c;
+        if (Math.abs(dtheta) < kEps) {
+            s = 1.0 - 1.0 / 6.0 * dtheta * dtheta;
+            c = .5 * dtheta;
+        } else {
+            s = sin_theta / dtheta;
+            c = (1.0 - cos_theta) / dtheta;
+        }
+        return set(dx * s - dy * c, dx * c + dy * s, cos_theta, sin_theta);
+    }
+
+    public MutablePose2d setExp(final MutableTwist2d delta) {
+        return setExp(delta.dx, delta.dy, delta.dtheta);
+    }
+
+    public MutablePose2d setExp(final Twist2d delta) {
+        return setExp(delta.dx, delta.dy, delta.dtheta);
+    }
+
+    /**
+     * Logical inverse of {@link #setExp}. Equivalent to {@link Pose2d#log}.
+     *
+     * @return dest
+     */
+    public MutableTwist2d log(MutableTwist2d dest) {
+        final double cos = rotation_.cos_angle_;
+        final double sin = rotation_.sin_angle_;
+        final double dtheta = Math.atan2(sin, cos);
+        final double half_dtheta = 0.5 * dtheta;
+        final double cos_minus_one = cos - 1.0;
+        double halftheta_by_tan_of_halfdtheta;
+        if (Math.abs(cos_minus_one) < kEps) {
+            halftheta_by_tan_of_halfdtheta = 1.0 - 1.0 / 12.0 * dtheta * dtheta;
+        } else {
+            halftheta_by_tan_of_halfdtheta = -(half_dtheta * sin) / cos_minus_one;
+        }
+        // Rotate the translation by (halftheta_by_tan_of_halfdtheta, -half_dtheta), which is not normalized
+        final double x = translation_.x_;
+        final double y = translation_.y_;
+        return dest.set(x * halftheta_by_tan_of_halfdtheta + y * half_dtheta,
+                -x * half_dtheta + y * halftheta_by_tan_of_halfdtheta, dtheta);
+    }
+
+    /**
+     * Transforms this pose by another given as primitives: first translating by (x, y) rotated into this frame, then
+     * rotating by (cos, sin)
+     */
+    public MutablePose2d transformBy(double x, double y, double cos, double sin) {
+        final double this_cos = rotation_.cos_angle_;
+        final double this_sin = rotation_.sin_angle_;
+        translation_.translateBy(x * this_cos - y * this_sin, x * this_sin + y * this_cos);
+        rotation_.rotateBy(cos, sin);
+        return this;
+    }
+
+    public MutablePose2d transformBy(final MutablePose2d other) {
+        return transformBy(other.translation_.x_, other.translation_.y_,
+                other.rotation_.cos_angle_, other.rotation_.sin_angle_);
+    }
+
+    public MutablePose2d transformBy(final Pose2d other) {
+        return transformBy(other.getTranslation().x(), other.getTranslation().y(),
+                other.getRotation().cos(), other.getRotation().sin());
+    }
+
+    /**
+     * Transforms this pose by exp(twist) without creating the intermediate pose
+     */
+    public MutablePose2d transformByExp(double dx, double dy, double dtheta) {
+        final double x = translation_.x_;
+        final double y = translation_.y_;
+        final double cos = rotation_.cos_angle_;
+        final double sin = rotation_.sin_angle_;
+        setExp(dx, dy, dtheta);
+        final double delta_x = translation_.x_;
+        final double delta_y = translation_.y_;
+        final double delta_cos = rotation_.cos_angle_;
+        final double delta_sin = rotation_.sin_angle_;
+        return set(x, y, cos, sin).transformBy(delta_x, delta_y, delta_cos, delta_sin);
+    }
+
+    /**
+     * Sets this pose to the one that "undoes" it
+     */
+    public MutablePose2d inverse() {
+        final double x = translation_.x_;
+        final double y = translation_.y_;
+        final double cos = rotation_.cos_angle_;
+        final double sin = rotation_.sin_angle_;
+        return set(-x * cos - y * sin, x * sin - y * cos, cos, -sin);
+    }
+
+    /**
+     * Twist interpolation of this pose toward another assuming constant curvature. Equivalent to
+     * {@link Pose2d#interpolate}.
+     */
+    public MutablePose2d interpolate(final MutablePose2d other, double t) {
+        return interpolate(other.translation_.x_, other.translation_.y_,
+                other.rotation_.cos_angle_, other.rotation_.sin_angle_, t);
+    }
+
+    public MutablePose2d interpolate(final Pose2d other, double t) {
+        return interpolate(other.getTranslation().x(), other.getTranslation().y(),
+                other.getRotation().cos(), other.getRotation().sin(), t);
+    }
+
+    /**
+     * Interpolates toward a pose given as primitives
+     */
+    public MutablePose2d interpolate(double other_x, double other_y, double other_cos, double other_sin, double t) {
+        if (t <= 0) {
+            return this;
+        } else if (t >= 1) {
+            return set(other_x, other_y, other_cos, other_sin);
+        }
+
+        final double x = translation_.x_;
+        final double y = translation_.y_;
+        final double cos = rotation_.cos_angle_;
+        final double sin = rotation_.sin_angle_;
+
+        // delta = inverse().transformBy(other), then twist = log(delta)
+        inverse().transformBy(other_x, other_y, other_cos, other_sin);
+        final double delta_x = translation_.x_;
+        final double delta_y = translation_.y_;
+        final double delta_cos = rotation_.cos_angle_;
+        final double delta_sin = rotation_.sin_angle_;
+        final double dtheta = Math.atan2(delta_sin, delta_cos);
+        final double half_dtheta = 0.5 * dtheta;
+        final double cos_minus_one = delta_cos - 1.0;
+        double halftheta_by_tan_of_halfdtheta;
+        if (Math.abs(cos_minus_one) < kEps) {
+            halftheta_by_tan_of_halfdtheta = 1.0 - 1.0 / 12.0 * dtheta * dtheta;
+        } else {
+            halftheta_by_tan_of_halfdtheta = -(half_dtheta * delta_sin) / cos_minus_one;
+        }
+        final double twist_dx = delta_x * halftheta_by_tan_of_halfdtheta + delta_y * half_dtheta;
+        final double twist_dy = -delta_x * half_dtheta + delta_y * halftheta_by_tan_of_halfdtheta;
+
+        return set(x, y, cos, sin).transformByExp(twist_dx * t, twist_dy * t, dtheta * t);
+    }
+
+    public Pose2d toPose2d() {
+        return new Pose2d(translation_.toTranslation2d(), rotation_.toRotation2d());
+    }
+
+    @Override
+    public String toString() {
+        return toPose2d().toString();
+    }
+}
@@ -0,0 +1,126 @@
+package lib.geometry;
+
+import static lib.util.Util.kEpsilon;
+
+/**
+ * Mutable counterpart of {@link Rotation2d} for code that runs every loop. All operations modify this object in place
+ * and return it so calls can be chained, which means a control cycle can reuse the same instance instead of allocating
+ * a new rotation for every intermediate result.
+ * <p>
+ * Always stored as a point on the unit circle (cosine and sine).
+ */
+public class MutableRotation2d {
+    protected double cos_angle_;
+    protected double sin_angle_;
+
+    public MutableRotation2d() {
+        setIdentity();
+    }
+
+    public MutableRotation2d(final Rotation2d other) {
+        set(other);
+    }
+
+    public MutableRotation2d setIdentity() {
+        cos_angle_ = 1.0;
+        sin_angle_ = 0.0;
+        return this;
+    }
+
+    public MutableRotation2d set(final Rotation2d other) {
+        cos_angle_ = other.cos();
+        sin_angle_ = other.sin();
+        return this;
+    }
+
+    public MutableRotation2d set(final MutableRotation2d other) {
+        cos_angle_ = other.cos_angle_;
+        sin_angle_ = other.sin_angle_;
+        return this;
+    }
+
+    /**
+     * Sets this rotation from an (x, y) direction, which does not need to be normalized
+     */
+    public MutableRotation2d set(double x, double y) {
+        double magnitude = Math.hypot(x, y);
+        if (magnitude > kEpsilon) {
+            cos_angle_ = x / magnitude;
+            sin_angle_ = y / magnitude;
+        } else {
+            setIdentity();
+        }
+        return this;
+    }
+
+    public MutableRotation2d setRadians(double radians) {
+        cos_angle_ = Math.cos(radians);
+        sin_angle_ = Math.sin(radians);
+        return this;
+    }
+
+    public MutableRotation2d setDegrees(double degrees) {
+        return setRadians(Math.toRadians(degrees));
+    }
+
+    public double cos() {
+        return cos_angle_;
+    }
+
+    public double sin() {
+        return sin_angle_;
+    }
+
+    public double getRadians() {
+        return Math.atan2(sin_angle_, cos_angle_);
+    }
+
+    public double getDegrees() {
+        return Math.toDegrees(getRadians());
+    }
+
+    /**
+     * Rotates this rotation by another rotation given as a point on the unit circle
+     */
+    public MutableRotation2d rotateBy(double cos, double sin) {
+        return set(cos_angle_ * cos - sin_angle_ * sin, cos_angle_ * sin + sin_angle_ * cos);
+    }
+
+    public MutableRotation2d rotateBy(final MutableRotation2d other) {
+        return rotateBy(other.cos_angle_, other.sin_angle_);
+    }
+
+    public MutableRotation2d rotateBy(final Rotation2d other) {
+        return rotateBy(other.cos(), other.sin());
+    }
+
+    /**
+     * Sets this rotation to the one that "undoes" it
+     */
+    public MutableRotation2d inverse() {
+        sin_angle_ = -sin_angle_;
+        return this;
+    }
+
+    public MutableRotation2d interpolate(final MutableRotation2d other, double x) {
+        if (x <= 0.0) {
+            return this;
+        } else if (x >= 1.0) {
+            return set(other);
+        }
+        // angle of inverse().rotateBy(other)
+        double angle_diff = Math.atan2(cos_angle_ * other.sin_angle_ - sin_angle_ * other.cos_angle_,
+                cos_angle_ * other.cos_angle_ + sin_angle_ * other.sin_angle_);
+        double step = angle_diff * x;
+        return rotateBy(Math.cos(step), Math.sin(step));
+    }
+
+    public Rotation2d toRotation2d() {
+        return new Rotation2d(cos_angle_, sin_angle_, false);
+    }
+
+    @Override
+    public String toString() {
+        return toRotation2d().toString();
+    }
+}
@@ -0,0 +1,118 @@
+package lib.geometry;
+
+/**
+ * Mutable counterpart of {@link Translation2d} for code that runs every loop. All operations modify this object in
+ * place and return it so calls can be chained.
+ */
+public class MutableTranslation2d {
+    protected double x_;
+    protected double y_;
+
+    public MutableTranslation2d() {
+        setIdentity();
+    }
+
+    public MutableTranslation2d(double x, double y) {
+        set(x, y);
+    }
+
+    public MutableTranslation2d(final Translation2d other) {
+        set(other);
+    }
+
+    public MutableTranslation2d setIdentity() {
+        return set(0.0, 0.0);
+    }
+
+    public MutableTranslation2d set(double x, double y) {
+        x_ = x;
+        y_ = y;
+        return this;
+    }
+
+    public MutableTranslation2d set(final Translation2d other) {
+        return set(other.x(), other.y());
+    }
+
+    public MutableTranslation2d set(final MutableTranslation2d other) {
+        return set(other.x_, other.y_);
+    }
+
+    public double x() {
+        return x_;
+    }
+
+    public double y() {
+        return y_;
+    }
+
+    public double norm() {
+        return Math.hypot(x_, y_);
+    }
+
+    public double norm2() {
+        return x_ * x_ + y_ * y_;
+    }
+
+    public MutableTranslation2d translateBy(double x, double y) {
+        return set(x_ + x, y_ + y);
+    }
+
+    public MutableTranslation2d translateBy(final MutableTranslation2d other) {
+        return translateBy(other.x_, other.y_);
+    }
+
+    public MutableTranslation2d translateBy(final Translation2d other) {
+        return translateBy(other.x(), other.y());
+    }
+
+    /**
+     * Rotates this translation by a rotation given as a point on the unit circle
+     */
+    public MutableTranslation2d rotateBy(double cos, double sin) {
+        return set(x_ * cos - y_ * sin, x_ * sin + y_ * cos);
+    }
+
+    public MutableTranslation2d rotateBy(final MutableRotation2d rotation) {
+        return rotateBy(rotation.cos(), rotation.sin());
+    }
+
+    public MutableTranslation2d rotateBy(final Rotation2d rotation) {
+        return rotateBy(rotation.cos(), rotation.sin());
+    }
+
+    /**
+     * Writes the direction of this translation into dest
+     *
+     * @return dest
+     */
+    public MutableRotation2d direction(MutableRotation2d dest) {
+        return dest.set(x_, y_);
+    }
+
+    public MutableTranslation2d inverse() {
+        return set(-x_, -y_);
+    }
+
+    public MutableTranslation2d scale(double s) {
+        return set(x_ * s, y_ * s);
+    }
+
+    public MutableTranslation2d interpolate(final MutableTranslation2d other, double x) {
+        if (x <= 0) {
+            return this;
+        } else if (x >= 1) {
+            return set(other);
+        }
+        return set(x * (other.x_ - x_) + x_, x * (other.y_ - y_) + y_);
+    }
+
+    public Translation2d toTranslation2d() {
+        return new Translation2d(x_, y_);
+    }
+
+    @Override
+    public String toString() {
+        return toTranslation2d().toString();
+    }
+}
@@ -0,0 +1,51 @@
+package lib.geometry;
+
+/**
+ * Mutable counterpart of {@link Twist2d} for code that runs every loop.
+ */
+public class MutableTwist2d {
+    public double dx;
+    public double dy;
+    public double dtheta; // Radians!
+
+    public MutableTwist2d() {}
+
+    public MutableTwist2d(double dx, double dy, double dtheta) {
+        set(dx, dy, dtheta);
+    }
+
+    public MutableTwist2d set(double dx, double dy, double dtheta) {
+        this.dx = dx;
+        this.dy = dy;
+        this.dtheta = dtheta;
+        return this;
+    }
+
+    public MutableTwist2d set(final Twist2d other) {
+        return set(other.dx, other.dy, other.dtheta);
+    }
+
+    public MutableTwist2d set(final MutableTwist2d other) {
+        return set(other.dx, other.dy, other.dtheta);
+    }
+
+    public MutableTwist2d scale(double scale) {
+        return set(dx * scale, dy * scale, dtheta * scale);
+    }
+
+    public double norm() {
+        // Common case of dy == 0
+        if (dy == 0.0)
+            return Math.abs(dx);
+        return Math.hypot(dx, dy);
+    }
+
+    public Twist2d toTwist2d() {
+        return new Twist2d(dx, dy, dtheta);
+    }
+
+    @Override
+    public String toString() {
+        return toTwist2d().toString();
+    }
+}
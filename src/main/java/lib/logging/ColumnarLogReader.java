@@ -0,0 +1,123 @@
+package lib.logging;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+
+/**
+ * Reads the column block logs written before the subsystems logged to {@link MappedLogSink}, one row at a time, so old
+ * .bzlg files can still be replayed and converted. Rows come back in the same long[] form they were captured in (see
+ * {@link LogSchema#capture}).
+ * <p>
+ * Format (big endian):
+ * <pre>
+ * header: int magic, short version, int columnCount, then per column: byte type, UTF name
+ * blocks: int rowCount, then per column: rowCount values
+ * </pre>
+ * A block that was cut short is ignored.
+ */
+public class ColumnarLogReader implements LogReader {
+    static final int kMagic = 0x425A4C47; // "BZLG"
+    static final short kVersion = 1;
+
+    private final DataInputStream mInput;
+    private final String[] mNames;
+    private final LogSchema.Type[] mTypes;
+
+    // Current block, one array per column
+    private long[][] mBlock;
+    private int mBlockRows = 0;
+    private int mRow = 0;
+
+    public ColumnarLogReader(String fileName) throws IOException {
+        mInput = new DataInputStream(new BufferedInputStream(new FileInputStream(fileName), 1 << 16));
+
+        if (mInput.readInt() != kMagic) {
+            mInput.close();
+            throw new IOException(fileName + " is not a telemetry log");
+        }
+        short version = mInput.readShort();
+        if (version != kVersion) {
+            mInput.close();
+            throw new IOException("Unsupported telemetry log version " + version);
+        }
+
+        int columns = mInput.readInt();
+        mNames = new String[columns];
+        mTypes = new LogSchema.Type[columns];
+        LogSchema.Type[] types = LogSchema.Type.values();
+        for (int i = 0; i < columns; i++) {
+            mTypes[i] = types[mInput.readByte()];
+            mNames[i] = mInput.readUTF();
+        }
+        mBlock = new long[columns][0];
+    }
+
+    @Override
+    public int getColumnCount() {
+        return mNames.length;
+    }
+
+    @Override
+    public String getName(int column) {
+        return mNames[column];
+    }
+
+    @Override
+    public LogSchema.Type getType(int column) {
+        return mTypes[column];
+    }
+
+    @Override
+    public boolean next(long[] record) throws IOException {
+        if (mRow >= mBlockRows && !readBlock()) {
+            return false;
+        }
+        for (int i = 0; i < mBlock.length; i++) {
+            record[i] = mBlock[i][mRow];
+        }
+        mRow++;
+        return true;
+    }
+
+    private boolean readBlock() throws IOException {
+        try {
+            int rows = mInput.readInt();
+            for (int i = 0; i < mBlock.length; i++) {
+                if (mBlock[i].length < rows) {
+                    mBlock[i] = new long[rows];
+                }
+                long[] column = mBlock[i];
+                for (int row = 0; row < rows; row++) {
+                    switch (mTypes[i]) {
+                        case DOUBLE:
+                        case LONG:
+                            column[row] = mInput.readLong();
+                            break;
+                        case INT:
+                            column[row] = mInput.readInt();
+                            break;
+                        case BOOLEAN:
+                            column[row] = mInput.readByte();
+                            break;
+                    }
+                }
+            }
+            mBlockRows = rows;
+            mRow = 0;
+            return true;
+        } catch (EOFException e) {
+            // End of file, or a block cut short
+            mBlockRows = 0;
+            mRow = 0;
+            return false;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        mInput.close();
+    }
+}
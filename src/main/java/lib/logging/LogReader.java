@@ -0,0 +1,56 @@
+package lib.logging;
+
+import java.io.DataInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+
+/**
+ * Reads a telemetry log back one row at a time, in the same long[] form the rows were captured in (see
+ * {@link LogSchema#capture}).
+ */
+public interface LogReader extends AutoCloseable {
+    int getColumnCount();
+
+    String getName(int column);
+
+    LogSchema.Type getType(int column);
+
+    /**
+     * Reads the next row into record
+     *
+     * @return false once there are no more complete rows
+     */
+    boolean next(long[] record) throws IOException;
+
+    @Override
+    void close() throws IOException;
+
+    /**
+     * @return index of the column with the given name, or -1 if there is none
+     */
+    default int getColumnIndex(String name) {
+        for (int i = 0; i < getColumnCount(); i++) {
+            if (getName(i).equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Opens a log written by {@link MappedLogSink}, or an older column block log (see {@link ColumnarLogReader})
+     */
+    static LogReader open(String fileName) throws IOException {
+        int magic;
+        try (DataInputStream input = new DataInputStream(new FileInputStream(fileName))) {
+            magic = input.readInt();
+        }
+
+        if (magic == ColumnarLogReader.kMagic) {
+            return new ColumnarLogReader(fileName);
+        } else if (magic == MappedLogSink.kMagic) {
+            return new MappedLogReader(fileName);
+        }
+        throw new IOException(fileName + " is not a telemetry log");
+    }
+}
@@ -0,0 +1,323 @@
+package lib.logging;
+
+import lib.Constants;
+import lib.loops.ILooper;
+import lib.loops.Loop;
+import lib.subsystems.Subsystem;
+import lib.util.Clock;
+import lib.util.VirtualClock;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Runs the enabled loop offline against a recorded log session (a directory written by
+ * {@link lib.SubsystemManager#startLogging}), as fast as the CPU allows. Each cycle, every logged subsystem gets its
+ * recorded inputs back (see {@link Subsystem#replayPeriodicInputs}) instead of reading its hardware, the {@link Clock}
+ * is set to the recorded time, and the loops and writePeriodicOutputs run as they did on the robot. Then every
+ * {@link LogSchema.Output} column is compared with what was recorded.
+ * <p>
+ * Rows of different subsystems are lined up by their timestamp column. Subsystems without a log are read as usual.
+ * Loops that keep state (state machines, counters) start from scratch, so replay a session from its start; a log that
+ * wrapped around begins mid-match and may disagree until that state catches up.
+ */
+public class LogReplay implements ILooper {
+    private static final int kMaxReportedColumns = 20;
+
+    private final List<Subsystem> mSubsystems;
+    private final List<Loop> mLoops = new ArrayList<>();
+    private final String mDirectory;
+    private final double mTolerance;
+    private final VirtualClock mClock = new VirtualClock();
+
+    private static class Track {
+        final Subsystem subsystem;
+        final LogSchema<Object> schema;
+        final LogReader reader;
+        // File column of each schema column, -1 if the log doesn't have it
+        final int[] fileColumns;
+        final int timestampColumn;
+        final long[] fileRecord;
+        final long[] recorded;
+        final long[] computed;
+        boolean hasNext;
+
+        final long[] mismatches;
+        final double[] maxErrors;
+        final double[] firstMismatchTimes;
+
+        Track(Subsystem subsystem, LogSchema<Object> schema, LogReader reader) throws IOException {
+            this.subsystem = subsystem;
+            this.schema = schema;
+            this.reader = reader;
+
+            int columns = schema.getColumnCount();
+            fileColumns = new int[columns];
+            for (int i = 0; i < columns; i++) {
+                fileColumns[i] = reader.getColumnIndex(schema.getName(i));
+            }
+            timestampColumn = reader.getColumnIndex("timestamp");
+            if (timestampColumn < 0) {
+                throw new IOException(subsystem.getName() + " log has no timestamp column");
+            }
+
+            fileRecord = new long[reader.getColumnCount()];
+            recorded = new long[columns];
+            computed = new long[columns];
+            mismatches = new long[columns];
+            maxErrors = new double[columns];
+            firstMismatchTimes = new double[columns];
+            Arrays.fill(firstMismatchTimes, Double.NaN);
+            advance();
+        }
+
+        void advance() throws IOException {
+            hasNext = reader.next(fileRecord);
+        }
+
+        double nextTimestamp() {
+            return LogSchema.toDouble(fileRecord[timestampColumn]);
+        }
+
+        /**
+         * Moves the next row into recorded, in schema order. Columns the log doesn't have keep their last value.
+         */
+        void take() throws IOException {
+            for (int i = 0; i < fileColumns.length; i++) {
+                if (fileColumns[i] >= 0) {
+                    recorded[i] = fileRecord[fileColumns[i]];
+                }
+            }
+            advance();
+        }
+    }
+
+    public static class Result {
+        public final int cycles;
+        public final long comparedValues;
+        public final long mismatchedValues;
+        /** Seconds per cycle spent in the loops and writePeriodicOutputs */
+        public final double meanCycleTime;
+        public final double maxCycleTime;
+        /** One line for each output column that differed, worst first */
+        public final List<String> mismatchedColumns;
+
+        Result(int cycles, long comparedValues, long mismatchedValues, double meanCycleTime, double maxCycleTime,
+                List<String> mismatchedColumns) {
+            this.cycles = cycles;
+            this.comparedValues = comparedValues;
+            this.mismatchedValues = mismatchedValues;
+            this.meanCycleTime = meanCycleTime;
+            this.maxCycleTime = maxCycleTime;
+            this.mismatchedColumns = mismatchedColumns;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder builder = new StringBuilder(String.format(
+                    "%d cycles, %d of %d output values differ, loop time mean %.1f us max %.1f us",
+                    cycles, mismatchedValues, comparedValues, meanCycleTime * 1e6, maxCycleTime * 1e6));
+            for (String column : mismatchedColumns) {
+                builder.append(System.lineSeparator()).append("  ").append(column);
+            }
+            return builder.toString();
+        }
+    }
+
+    /**
+     * @param directory  log session to replay
+     * @param tolerance  largest difference allowed between a recorded and a replayed double output
+     * @param subsystems every subsystem the robot ran, in the order given to the SubsystemManager
+     */
+    public LogReplay(String directory, double tolerance, Subsystem... subsystems) {
+        mDirectory = directory;
+        mTolerance = tolerance;
+        mSubsystems = Arrays.asList(subsystems);
+        for (Subsystem subsystem : subsystems) {
+            subsystem.registerEnabledLoops(this);
+        }
+    }
+
+    @Override
+    public void register(Loop loop) {
+        mLoops.add(loop);
+    }
+
+    public Result run() throws IOException {
+        Track[] tracks = new Track[mSubsystems.size()];
+        Clock previousClock = Clock.getInstance();
+        try {
+            for (int i = 0; i < tracks.length; i++) {
+                tracks[i] = openTrack(mSubsystems.get(i));
+            }
+            Clock.setInstance(mClock);
+            return replay(tracks);
+        } finally {
+            Clock.setInstance(previousClock);
+            for (Track track : tracks) {
+                if (track != null) {
+                    track.reader.close();
+                }
+            }
+        }
+    }
+
+    private Track openTrack(Subsystem subsystem) throws IOException {
+        LogSchema<Object> schema = subsystem.createLogSchema();
+        File file = new File(mDirectory, subsystem.getName() + MappedLogSink.kExtension);
+        if (schema == null || !file.isFile()) {
+            return null;
+        }
+        LogReader reader = LogReader.open(file.getPath());
+        try {
+            return new Track(subsystem, schema, reader);
+        } catch (IOException e) {
+            reader.close();
+            throw e;
+        }
+    }
+
+    private Result replay(Track[] tracks) throws IOException {
+        boolean[] present = new boolean[tracks.length];
+        int cycles = 0;
+        long compared = 0;
+        long mismatched = 0;
+        long totalNanos = 0;
+        long maxNanos = 0;
+
+        while (true) {
+            // The cycle starts at the earliest row not yet replayed; rows from the other logs within half a period
+            // of it were recorded in the same cycle
+            double cycleTime = Double.POSITIVE_INFINITY;
+            for (Track track : tracks) {
+                if (track != null && track.hasNext) {
+                    cycleTime = Math.min(cycleTime, track.nextTimestamp());
+                }
+            }
+            if (cycleTime == Double.POSITIVE_INFINITY) {
+                break;
+            }
+            mClock.setTimestamp(cycleTime);
+            if (cycles == 0) {
+                for (int i = 0; i < mLoops.size(); i++) {
+                    mLoops.get(i).onStart(cycleTime);
+                }
+            }
+
+            double cycleEnd = cycleTime + Constants.kLooperDt / 2;
+            for (int i = 0; i < tracks.length; i++) {
+                Track track = tracks[i];
+                present[i] = track != null && track.hasNext && track.nextTimestamp() < cycleEnd;
+                if (present[i]) {
+                    track.take();
+                    track.subsystem.replayPeriodicInputs(track.schema, track.recorded);
+                } else if (track == null) {
+                    mSubsystems.get(i).readPeriodicInputs();
+                }
+            }
+
+            long start = System.nanoTime();
+            for (int i = 0; i < mLoops.size(); i++) {
+                mLoops.get(i).onLoop(cycleTime);
+            }
+            for (int i = 0; i < mSubsystems.size(); i++) {
+                mSubsystems.get(i).writePeriodicOutputs();
+            }
+            long nanos = System.nanoTime() - start;
+            totalNanos += nanos;
+            maxNanos = Math.max(maxNanos, nanos);
+
+            for (int i = 0; i < tracks.length; i++) {
+                if (!present[i]) {
+                    continue;
+                }
+                Track track = tracks[i];
+                track.subsystem.captureLogSource(track.schema, track.computed);
+                for (int column = 0; column < track.computed.length; column++) {
+                    if (!track.schema.isOutput(column) || track.fileColumns[column] < 0) {
+                        continue;
+                    }
+                    compared++;
+                    double error = difference(track.schema.getType(column), track.recorded[column],
+                            track.computed[column]);
+                    if (error > mTolerance) {
+                        mismatched++;
+                        if (track.mismatches[column]++ == 0) {
+                            track.firstMismatchTimes[column] = cycleTime;
+                        }
+                        track.maxErrors[column] = Math.max(track.maxErrors[column], error);
+                    }
+                }
+            }
+            cycles++;
+        }
+
+        if (cycles > 0) {
+            double endTime = mClock.getTimestamp();
+            mLoops.forEach(l -> l.onStop(endTime));
+        }
+
+        return new Result(cycles, compared, mismatched, cycles > 0 ? totalNanos * 1e-9 / cycles : 0, maxNanos * 1e-9,
+                reportColumns(tracks));
+    }
+
+    /**
+     * @return how far apart two raw values are; infinite for differing non-double values or a NaN on one side only
+     */
+    private static double difference(LogSchema.Type type, long recorded, long computed) {
+        if (recorded == computed) {
+            return 0;
+        }
+        if (type != LogSchema.Type.DOUBLE) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double a = LogSchema.toDouble(recorded);
+        double b = LogSchema.toDouble(computed);
+        if (Double.isNaN(a) || Double.isNaN(b)) {
+            return Double.isNaN(a) && Double.isNaN(b) ? 0 : Double.POSITIVE_INFINITY;
+        }
+        return Math.abs(a - b);
+    }
+
+    private static List<String> reportColumns(Track[] tracks) {
+        List<Track> columnTracks = new ArrayList<>();
+        List<Integer> columns = new ArrayList<>();
+        for (Track track : tracks) {
+            if (track == null) {
+                continue;
+            }
+            for (int column = 0; column < track.mismatches.length; column++) {
+                if (track.mismatches[column] > 0) {
+                    columnTracks.add(track);
+                    columns.add(column);
+                }
+            }
+        }
+
+        Integer[] order = new Integer[columns.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(columnTracks.get(b).mismatches[columns.get(b)],
+                columnTracks.get(a).mismatches[columns.get(a)]));
+
+        List<String> report = new ArrayList<>();
+        for (int i = 0; i < Math.min(order.length, kMaxReportedColumns); i++) {
+            Track track = columnTracks.get(order[i]);
+            int column = columns.get(order[i]);
+            report.add(String.format("%s.%s: %d differ, max error %s, first at %.3f s", track.subsystem.getName(),
+                    track.schema.getName(column), track.mismatches[column],
+                    track.schema.getType(column) == LogSchema.Type.DOUBLE
+                            && !Double.isInfinite(track.maxErrors[column])
+                            ? String.format("%.4g", track.maxErrors[column]) : "n/a",
+                    track.firstMismatchTimes[column]));
+        }
+        if (order.length > kMaxReportedColumns) {
+            report.add((order.length - kMaxReportedColumns) + " more columns differ");
+        }
+        return report;
+    }
+}
@@ -0,0 +1,336 @@
+package lib.logging;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Describes the columns of a telemetry log and how to read each one from a value of type T. Each record is captured
+ * into a long[] with one slot per column (doubles stored as their raw bits), so capturing a value allocates nothing.
+ * <p>
+ * Build one with {@link Builder} for explicit accessors, or {@link #forPublicFields} to log every public primitive or
+ * enum field of a class (like a subsystem's PeriodicIO). Reflection is only used while building the schema.
+ * <p>
+ * Schemas built from fields can also write a record back into an object ({@link #restoreInputs}), which is how
+ * {@link LogReplay} feeds recorded inputs to subsystems. Fields marked {@link Output} are left alone so they can be
+ * recomputed and compared.
+ */
+public class LogSchema<T> {
+    public enum Type {
+        DOUBLE(8), LONG(8), INT(4), BOOLEAN(1);
+
+        public final int bytes;
+
+        Type(int bytes) {
+            this.bytes = bytes;
+        }
+    }
+
+    /**
+     * Marks a public field as an output: something the loops compute and write to hardware, rather than something read
+     * from it. Outputs are logged like any other field, but {@link #restoreInputs} skips them.
+     */
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target(ElementType.FIELD)
+    public @interface Output {}
+
+    private interface Capture<T> {
+        long capture(T value) throws Throwable;
+    }
+
+    private interface Restore<T> {
+        void restore(T value, long raw) throws Throwable;
+    }
+
+    private final String[] mNames;
+    private final Type[] mTypes;
+    private final Capture<T>[] mCaptures;
+    // Null for columns that can't be written back
+    private final Restore<T>[] mRestores;
+    private final boolean[] mOutputs;
+    private final int mRecordBytes;
+
+    @SuppressWarnings("unchecked")
+    private LogSchema(List<String> names, List<Type> types, List<Capture<T>> captures, List<Restore<T>> restores,
+            List<Boolean> outputs) {
+        mNames = names.toArray(new String[0]);
+        mTypes = types.toArray(new Type[0]);
+        mCaptures = captures.toArray(new Capture[0]);
+        mRestores = restores.toArray(new Restore[0]);
+        mOutputs = new boolean[outputs.size()];
+        for (int i = 0; i < mOutputs.length; i++) {
+            mOutputs[i] = outputs.get(i);
+        }
+
+        int bytes = 0;
+        for (Type type : mTypes) {
+            bytes += type.bytes;
+        }
+        mRecordBytes = bytes;
+    }
+
+    public int getColumnCount() {
+        return mNames.length;
+    }
+
+    public String getName(int column) {
+        return mNames[column];
+    }
+
+    public Type getType(int column) {
+        return mTypes[column];
+    }
+
+    /**
+     * @return true if the column is a field marked {@link Output}
+     */
+    public boolean isOutput(int column) {
+        return mOutputs[column];
+    }
+
+    /**
+     * Writes every input column of record back into value. Output columns, and columns added with a {@link Builder},
+     * are not written.
+     */
+    public void restoreInputs(long[] record, T value) {
+        try {
+            for (int i = 0; i < mRestores.length; i++) {
+                if (mRestores[i] != null && !mOutputs[i]) {
+                    mRestores[i].restore(value, record[i]);
+                }
+            }
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new RuntimeException(t);
+        }
+    }
+
+    /**
+     * @return size of one record when packed with each column at its natural width
+     */
+    public int getRecordBytes() {
+        return mRecordBytes;
+    }
+
+    /**
+     * Reads every column of value into record, which must have at least {@link #getColumnCount()} slots
+     */
+    public void capture(T value, long[] record) {
+        try {
+            for (int i = 0; i < mCaptures.length; i++) {
+                record[i] = mCaptures[i].capture(value);
+            }
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new RuntimeException(t);
+        }
+    }
+
+    public static double toDouble(long raw) {
+        return Double.longBitsToDouble(raw);
+    }
+
+    public static boolean toBoolean(long raw) {
+        return raw != 0;
+    }
+
+    public static class Builder<T> {
+        private final List<String> mNames = new ArrayList<>();
+        private final List<Type> mTypes = new ArrayList<>();
+        private final List<Capture<T>> mCaptures = new ArrayList<>();
+        private final List<Restore<T>> mRestores = new ArrayList<>();
+        private final List<Boolean> mOutputs = new ArrayList<>();
+
+        private Builder<T> add(String name, Type type, Capture<T> capture) {
+            return add(name, type, capture, null, false);
+        }
+
+        private Builder<T> add(String name, Type type, Capture<T> capture, Restore<T> restore, boolean output) {
+            if (mNames.contains(name)) {
+                throw new IllegalArgumentException("Duplicate column " + name);
+            }
+            mNames.add(name);
+            mTypes.add(type);
+            mCaptures.add(capture);
+            mRestores.add(restore);
+            mOutputs.add(output);
+            return this;
+        }
+
+        public Builder<T> addDouble(String name, ToDoubleFunction<T> accessor) {
+            return add(name, Type.DOUBLE, v -> Double.doubleToRawLongBits(accessor.applyAsDouble(v)));
+        }
+
+        public Builder<T> addLong(String name, ToLongFunction<T> accessor) {
+            return add(name, Type.LONG, accessor::applyAsLong);
+        }
+
+        public Builder<T> addInt(String name, ToIntFunction<T> accessor) {
+            return add(name, Type.INT, accessor::applyAsInt);
+        }
+
+        public Builder<T> addBoolean(String name, Predicate<T> accessor) {
+            return add(name, Type.BOOLEAN, v -> accessor.test(v) ? 1 : 0);
+        }
+
+        public LogSchema<T> build() {
+            return new LogSchema<>(mNames, mTypes, mCaptures, mRestores, mOutputs);
+        }
+    }
+
+    /**
+     * Builds a schema with a column for every public, non-static field of the class that is a primitive or an enum.
+     * Enums are logged as their ordinal (-1 for null). Other fields are skipped.
+     */
+    public static <T> LogSchema<T> forPublicFields(Class<? extends T> type) {
+        return forPublicFields(type, null);
+    }
+
+    /**
+     * Same as {@link #forPublicFields(Class)}, but also logs boolean[], int[] and double[] fields, one column per
+     * element (named like "values[0]"). The number of elements is taken from instance, and the arrays must not be
+     * replaced or resized afterwards.
+     */
+    public static <T> LogSchema<T> forPublicFieldsOf(T instance) {
+        return forPublicFields(instance.getClass(), instance);
+    }
+
+    private static <T> LogSchema<T> forPublicFields(Class<?> type, Object instance) {
+        Builder<T> builder = new Builder<>();
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+
+        for (Field field : type.getFields()) {
+            if (Modifier.isStatic(field.getModifiers())) {
+                continue;
+            }
+
+            Class<?> fieldType = field.getType();
+            MethodHandle getter;
+            MethodHandle setter;
+            try {
+                getter = lookup.unreflectGetter(field);
+                setter = Modifier.isFinal(field.getModifiers()) ? null : lookup.unreflectSetter(field);
+            } catch (IllegalAccessException e) {
+                e.printStackTrace();
+                continue;
+            }
+
+            String name = field.getName();
+            boolean output = field.isAnnotationPresent(Output.class);
+            if (fieldType == double.class || fieldType == float.class) {
+                MethodHandle handle = getter.asType(MethodType.methodType(double.class, Object.class));
+                Restore<T> restore = null;
+                if (setter != null) {
+                    MethodHandle set = MethodHandles.explicitCastArguments(setter,
+                            MethodType.methodType(void.class, Object.class, double.class));
+                    restore = (v, raw) -> {
+                        set.invokeExact((Object) v, Double.longBitsToDouble(raw));
+                    };
+                }
+                builder.add(name, Type.DOUBLE, v -> Double.doubleToRawLongBits((double) handle.invokeExact((Object) v)),
+                        restore, output);
+            } else if (fieldType == long.class) {
+                MethodHandle handle = getter.asType(MethodType.methodType(long.class, Object.class));
+                Restore<T> restore = null;
+                if (setter != null) {
+                    MethodHandle set = setter.asType(MethodType.methodType(void.class, Object.class, long.class));
+                    restore = (v, raw) -> {
+                        set.invokeExact((Object) v, raw);
+                    };
+                }
+                builder.add(name, Type.LONG, v -> (long) handle.invokeExact((Object) v), restore, output);
+            } else if (fieldType == int.class || fieldType == short.class || fieldType == byte.class
+                    || fieldType == char.class) {
+                MethodHandle handle = getter.asType(MethodType.methodType(int.class, Object.class));
+                Restore<T> restore = null;
+                if (setter != null) {
+                    MethodHandle set = MethodHandles.explicitCastArguments(setter,
+                            MethodType.methodType(void.class, Object.class, int.class));
+                    restore = (v, raw) -> {
+                        set.invokeExact((Object) v, (int) raw);
+                    };
+                }
+                builder.add(name, Type.INT, v -> (int) handle.invokeExact((Object) v), restore, output);
+            } else if (fieldType == boolean.class) {
+                MethodHandle handle = getter.asType(MethodType.methodType(boolean.class, Object.class));
+                Restore<T> restore = null;
+                if (setter != null) {
+                    MethodHandle set = setter.asType(MethodType.methodType(void.class, Object.class, boolean.class));
+                    restore = (v, raw) -> {
+                        set.invokeExact((Object) v, raw != 0);
+                    };
+                }
+                builder.add(name, Type.BOOLEAN, v -> (boolean) handle.invokeExact((Object) v) ? 1 : 0, restore,
+                        output);
+            } else if (fieldType.isEnum()) {
+                MethodHandle handle = getter.asType(MethodType.methodType(Enum.class, Object.class));
+                Restore<T> restore = null;
+                if (setter != null) {
+                    MethodHandle set = setter.asType(MethodType.methodType(void.class, Object.class, Object.class));
+                    Object[] constants = fieldType.getEnumConstants();
+                    restore = (v, raw) -> {
+                        set.invokeExact((Object) v, raw < 0 ? null : constants[(int) raw]);
+                    };
+                }
+                builder.add(name, Type.INT, v -> {
+                    Enum<?> e = (Enum<?>) handle.invokeExact((Object) v);
+                    return e == null ? -1 : e.ordinal();
+                }, restore, output);
+            } else if (fieldType.isArray() && instance != null) {
+                addArrayColumns(builder, name, fieldType.getComponentType(), getter, instance, output);
+            }
+        }
+
+        return builder.build();
+    }
+
+    private static <T> void addArrayColumns(Builder<T> builder, String name, Class<?> componentType,
+            MethodHandle getter, Object instance, boolean output) {
+        Object array;
+        try {
+            array = getter.invoke(instance);
+        } catch (Throwable t) {
+            throw new RuntimeException(t);
+        }
+        if (array == null) {
+            return;
+        }
+
+        MethodHandle handle = getter.asType(MethodType.methodType(array.getClass(), Object.class));
+        for (int i = 0; i < Array.getLength(array); i++) {
+            final int index = i;
+            String elementName = name + "[" + i + "]";
+            if (componentType == double.class) {
+                builder.add(elementName, Type.DOUBLE,
+                        v -> Double.doubleToRawLongBits(((double[]) handle.invokeExact((Object) v))[index]),
+                        (v, raw) -> ((double[]) handle.invokeExact((Object) v))[index] = Double.longBitsToDouble(raw),
+                        output);
+            } else if (componentType == int.class) {
+                builder.add(elementName, Type.INT,
+                        v -> ((int[]) handle.invokeExact((Object) v))[index],
+                        (v, raw) -> ((int[]) handle.invokeExact((Object) v))[index] = (int) raw,
+                        output);
+            } else if (componentType == boolean.class) {
+                builder.add(elementName, Type.BOOLEAN,
+                        v -> ((boolean[]) handle.invokeExact((Object) v))[index] ? 1 : 0,
+                        (v, raw) -> ((boolean[]) handle.invokeExact((Object) v))[index] = raw != 0,
+                        output);
+            }
+        }
+    }
+}
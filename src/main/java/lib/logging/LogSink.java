@@ -0,0 +1,19 @@
+package lib.logging;
+
+import java.io.IOException;
+
+/**
+ * Destination for telemetry records. Only ever called from a {@link TelemetryLogger}'s writer thread.
+ */
+public interface LogSink {
+    void open(LogSchema<?> schema) throws IOException;
+
+    /**
+     * @param record one slot per column, see {@link LogSchema#capture}. Must not be kept after returning.
+     */
+    void write(long[] record) throws IOException;
+
+    void flush() throws IOException;
+
+    void close() throws IOException;
+}
@@ -0,0 +1,56 @@
+package lib.logging;
+
+import java.io.IOException;
+import java.io.PrintStream;
+
+/**
+ * Offline tool that prints a telemetry log (either format) as CSV so it can be opened in a spreadsheet:
+ * {@code java lib.logging.LogToCSV Drive.bzmm > drive.csv}
+ */
+public class LogToCSV {
+    /**
+     * Prints a log (of either format) as CSV
+     */
+    public static void writeCSV(LogReader reader, PrintStream out) throws IOException {
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < reader.getColumnCount(); i++) {
+            if (i != 0) {
+                line.append(", ");
+            }
+            line.append(reader.getName(i));
+        }
+        out.println(line);
+
+        long[] record = new long[reader.getColumnCount()];
+        while (reader.next(record)) {
+            line.setLength(0);
+            for (int i = 0; i < record.length; i++) {
+                if (i != 0) {
+                    line.append(", ");
+                }
+                switch (reader.getType(i)) {
+                    case DOUBLE:
+                        line.append(LogSchema.toDouble(record[i]));
+                        break;
+                    case BOOLEAN:
+                        line.append(LogSchema.toBoolean(record[i]));
+                        break;
+                    default:
+                        line.append(record[i]);
+                        break;
+                }
+            }
+            out.println(line);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: LogToCSV <log file>");
+            System.exit(1);
+        }
+        try (LogReader reader = LogReader.open(args[0])) {
+            writeCSV(reader, System.out);
+        }
+    }
+}
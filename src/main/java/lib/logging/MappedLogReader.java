@@ -0,0 +1,137 @@
+package lib.logging;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+
+/**
+ * Reads a file written by {@link MappedLogSink}, oldest record first. Slots that were not completely written (the
+ * robot lost power while writing them or before they reached flash) fail their index or checksum check and are
+ * skipped.
+ */
+public class MappedLogReader implements LogReader {
+    private final RandomAccessFile mFile;
+    private final MappedByteBuffer mBuffer;
+    private final ByteBuffer mSlotView;
+    private final CRC32 mChecksum = new CRC32();
+    private final String[] mNames;
+    private final LogSchema.Type[] mTypes;
+    private final int mHeaderBytes;
+    private final int mSlotBytes;
+    // Bytes of a slot before its checksum
+    private final int mChecksummedBytes;
+    private final int mCapacity;
+    private final long mCount;
+
+    private long mNext;
+
+    public MappedLogReader(String fileName) throws IOException {
+        mFile = new RandomAccessFile(fileName, "r");
+        mBuffer = mFile.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, mFile.length());
+        mSlotView = mBuffer.duplicate();
+
+        if (mBuffer.getInt(0) != MappedLogSink.kMagic) {
+            mFile.close();
+            throw new IOException(fileName + " is not a mapped telemetry log");
+        }
+        short version = mBuffer.getShort(4);
+        if (version != MappedLogSink.kVersion) {
+            mFile.close();
+            throw new IOException("Unsupported mapped telemetry log version " + version);
+        }
+
+        mHeaderBytes = mBuffer.getInt(MappedLogSink.kHeaderBytesOffset);
+        mSlotBytes = mBuffer.getInt(12);
+        mCapacity = mBuffer.getInt(16);
+        int columns = mBuffer.getInt(20);
+        mCount = mBuffer.getLong(MappedLogSink.kCountOffset);
+
+        mNames = new String[columns];
+        mTypes = new LogSchema.Type[columns];
+        LogSchema.Type[] types = LogSchema.Type.values();
+        mBuffer.position(MappedLogSink.kColumnsOffset);
+        for (int i = 0; i < columns; i++) {
+            mTypes[i] = types[mBuffer.get()];
+            byte[] name = new byte[mBuffer.getShort()];
+            mBuffer.get(name);
+            mNames[i] = new String(name, StandardCharsets.UTF_8);
+        }
+
+        int checksummedBytes = 8;
+        for (LogSchema.Type type : mTypes) {
+            checksummedBytes += type.bytes;
+        }
+        mChecksummedBytes = checksummedBytes;
+
+        mNext = Math.max(0, mCount - mCapacity);
+    }
+
+    /**
+     * @return total records written, including any that have since been overwritten
+     */
+    public long getCommittedCount() {
+        return mCount;
+    }
+
+    public int getCapacity() {
+        return mCapacity;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return mNames.length;
+    }
+
+    @Override
+    public String getName(int column) {
+        return mNames[column];
+    }
+
+    @Override
+    public LogSchema.Type getType(int column) {
+        return mTypes[column];
+    }
+
+    @Override
+    public boolean next(long[] record) {
+        while (mNext < mCount) {
+            long index = mNext++;
+            int start = mHeaderBytes + (int) (index % mCapacity) * mSlotBytes;
+            if (mBuffer.getLong(start) != index) {
+                continue;
+            }
+            int end = start + mChecksummedBytes;
+            if (mBuffer.getInt(end) != MappedLogSink.checksum(mSlotView, mChecksum, start, end)) {
+                continue;
+            }
+
+            int position = start + 8;
+            for (int i = 0; i < mTypes.length; i++) {
+                switch (mTypes[i]) {
+                    case DOUBLE:
+                    case LONG:
+                        record[i] = mBuffer.getLong(position);
+                        break;
+                    case INT:
+                        record[i] = mBuffer.getInt(position);
+                        break;
+                    case BOOLEAN:
+                        record[i] = mBuffer.get(position);
+                        break;
+                }
+                position += mTypes[i].bytes;
+            }
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void close() throws IOException {
+        mFile.close();
+    }
+}
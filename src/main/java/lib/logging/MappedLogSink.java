@@ -0,0 +1,156 @@
+package lib.logging;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+
+/**
+ * Writes records straight into a preallocated, memory-mapped file. Every record has the same size, so record i lives
+ * at a fixed offset and the only index needed is the count of committed records kept in the header. Nothing is
+ * buffered in the JVM: once {@link #write} returns, the record is in the page cache and survives the program crashing
+ * or being killed, and {@link #flush} forces it to flash so it survives losing power.
+ * <p>
+ * The file is a ring: once it is full, the oldest records are overwritten, so the newest data is always kept.
+ * <p>
+ * Format (big endian):
+ * <pre>
+ * header: int magic, short version, short reserved, int headerBytes, int slotBytes, int capacity, int columnCount,
+ *         long committedCount, then per column: byte type, UTF name
+ * slots:  capacity slots of slotBytes, each a long record index, the columns at their natural width, then an int
+ *         CRC32 of the index and columns
+ * </pre>
+ * Losing power while pages are being forced can leave any mix of old and new bytes in a slot, since the pages reach
+ * flash in no particular order. A reader only accepts a slot whose index is the one it expects and whose checksum
+ * matches, so a torn slot is skipped instead of read as a record. The committed count may also be older or newer than
+ * the slots; records past it are not read, and slots it covers that never reached flash fail their check.
+ */
+public class MappedLogSink implements LogSink {
+    public static final int kMagic = 0x425A4D4D; // "BZMM"
+    public static final short kVersion = 2;
+    public static final String kExtension = ".bzmm";
+
+    static final int kHeaderBytesOffset = 8;
+    static final int kCountOffset = 24;
+    static final int kColumnsOffset = 32;
+
+    private final String mFileName;
+    private final int mCapacity;
+
+    private RandomAccessFile mFile;
+    private MappedByteBuffer mBuffer;
+    // A second view of the mapped file, so the checksum can read a slot without moving mBuffer
+    private ByteBuffer mSlotView;
+    private final CRC32 mChecksum = new CRC32();
+    private LogSchema.Type[] mTypes;
+    private int mHeaderBytes;
+    private int mSlotBytes;
+    private long mCount = 0;
+
+    /**
+     * @param capacity number of records the file holds before it starts overwriting the oldest
+     */
+    public MappedLogSink(String fileName, int capacity) {
+        mFileName = fileName;
+        mCapacity = capacity;
+    }
+
+    @Override
+    public void open(LogSchema<?> schema) throws IOException {
+        int columns = schema.getColumnCount();
+        mTypes = new LogSchema.Type[columns];
+        byte[][] names = new byte[columns][];
+
+        int headerBytes = kColumnsOffset;
+        for (int i = 0; i < columns; i++) {
+            mTypes[i] = schema.getType(i);
+            names[i] = schema.getName(i).getBytes(StandardCharsets.UTF_8);
+            headerBytes += 1 + 2 + names[i].length;
+        }
+        // Keep slots 8 byte aligned
+        mHeaderBytes = (headerBytes + 7) & ~7;
+        mSlotBytes = (8 + schema.getRecordBytes() + 4 + 7) & ~7;
+
+        mFile = new RandomAccessFile(mFileName, "rw");
+        long length = mHeaderBytes + (long) mSlotBytes * mCapacity;
+        mFile.setLength(length);
+        mBuffer = mFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, length);
+        mSlotView = mBuffer.duplicate();
+
+        mBuffer.putInt(0, kMagic);
+        mBuffer.putShort(4, kVersion);
+        mBuffer.putShort(6, (short) 0);
+        mBuffer.putInt(kHeaderBytesOffset, mHeaderBytes);
+        mBuffer.putInt(12, mSlotBytes);
+        mBuffer.putInt(16, mCapacity);
+        mBuffer.putInt(20, columns);
+        mBuffer.putLong(kCountOffset, 0);
+        mBuffer.position(kColumnsOffset);
+        for (int i = 0; i < columns; i++) {
+            mBuffer.put((byte) mTypes[i].ordinal());
+            mBuffer.putShort((short) names[i].length);
+            mBuffer.put(names[i]);
+        }
+        mBuffer.force();
+        mCount = 0;
+    }
+
+    @Override
+    public void write(long[] record) throws IOException {
+        int start = mHeaderBytes + (int) (mCount % mCapacity) * mSlotBytes;
+        int position = start;
+
+        mBuffer.putLong(position, mCount);
+        position += 8;
+        for (int i = 0; i < mTypes.length; i++) {
+            switch (mTypes[i]) {
+                case DOUBLE:
+                case LONG:
+                    mBuffer.putLong(position, record[i]);
+                    break;
+                case INT:
+                    mBuffer.putInt(position, (int) record[i]);
+                    break;
+                case BOOLEAN:
+                    mBuffer.put(position, (byte) (record[i] != 0 ? 1 : 0));
+                    break;
+            }
+            position += mTypes[i].bytes;
+        }
+        mBuffer.putInt(position, checksum(mSlotView, mChecksum, start, position));
+
+        mCount++;
+        mBuffer.putLong(kCountOffset, mCount);
+    }
+
+    /**
+     * @return CRC32 of the bytes of view from start up to end
+     */
+    static int checksum(ByteBuffer view, CRC32 crc, int start, int end) {
+        view.limit(end).position(start);
+        crc.reset();
+        crc.update(view);
+        return (int) crc.getValue();
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (mBuffer != null) {
+            mBuffer.force();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (mFile != null) {
+            flush();
+            mFile.close();
+            mFile = null;
+            mBuffer = null;
+            mSlotView = null;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package lib.logging;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded single producer, single consumer queue of preallocated records. The producer fills a slot in place and
+ * publishes it, the consumer reads it and releases it, so records are reused instead of allocated. Neither side ever
+ * blocks: a full queue makes {@link #claim()} return null.
+ */
+class RecordQueue {
+    private final long[][] mSlots;
+    private final int mMask;
+
+    // Next sequence to read / write. Only the consumer writes mHead and only the producer writes mTail.
+    private final AtomicLong mHead = new AtomicLong();
+    private final AtomicLong mTail = new AtomicLong();
+
+    /**
+     * @param capacity   number of records, rounded up to a power of two
+     * @param recordSize slots in each record
+     */
+    RecordQueue(int capacity, int recordSize) {
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        mSlots = new long[size][recordSize];
+        mMask = size - 1;
+    }
+
+    int capacity() {
+        return mSlots.length;
+    }
+
+    /**
+     * Producer: returns the next free record to fill, or null if the queue is full
+     */
+    long[] claim() {
+        long tail = mTail.get();
+        if (tail - mHead.get() >= mSlots.length) {
+            return null;
+        }
+        return mSlots[(int) (tail & mMask)];
+    }
+
+    /**
+     * Producer: makes the record returned by the last {@link #claim()} visible to the consumer
+     */
+    void publish() {
+        mTail.lazySet(mTail.get() + 1);
+    }
+
+    /**
+     * Consumer: returns the oldest published record, or null if there is none
+     */
+    long[] peek() {
+        long head = mHead.get();
+        if (head >= mTail.get()) {
+            return null;
+        }
+        return mSlots[(int) (head & mMask)];
+    }
+
+    /**
+     * Consumer: hands the record returned by the last {@link #peek()} back to the producer
+     */
+    void release() {
+        mHead.lazySet(mHead.get() + 1);
+    }
+}
@@ -0,0 +1,135 @@
+package lib.logging;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Logs values of type T (usually a subsystem's PeriodicIO) without slowing down the thread that calls {@link #log}.
+ * The caller only copies the columns into a preallocated record; a background thread hands the records to a
+ * {@link LogSink}. If the writer falls behind and the queue fills up, records are dropped and counted rather than
+ * blocking the caller.
+ * <p>
+ * {@link #log} must only be called by one thread at a time.
+ */
+public class TelemetryLogger<T> {
+    private static final long kIdleNanos = 5_000_000;
+    private static final long kFlushNanos = 1_000_000_000;
+
+    private final String mName;
+    private final LogSchema<T> mSchema;
+    private final LogSink mSink;
+    private final RecordQueue mQueue;
+    private final AtomicLong mDropped = new AtomicLong();
+
+    private Thread mWriter = null;
+    private volatile boolean mRunning = false;
+
+    public TelemetryLogger(String name, LogSchema<T> schema, LogSink sink, int queueCapacity) {
+        mName = name;
+        mSchema = schema;
+        mSink = sink;
+        mQueue = new RecordQueue(queueCapacity, schema.getColumnCount());
+    }
+
+    public String getName() {
+        return mName;
+    }
+
+    public LogSchema<T> getSchema() {
+        return mSchema;
+    }
+
+    public synchronized void start() throws IOException {
+        if (mRunning) {
+            return;
+        }
+        mSink.open(mSchema);
+        mRunning = true;
+        mWriter = new Thread(this::writerLoop, "TelemetryLogger-" + mName);
+        mWriter.setDaemon(true);
+        mWriter.start();
+    }
+
+    /**
+     * Captures value and queues it to be written
+     *
+     * @return false if the record was dropped (not started, or the queue is full)
+     */
+    public boolean log(T value) {
+        if (!mRunning) {
+            return false;
+        }
+        long[] record = mQueue.claim();
+        if (record == null) {
+            mDropped.incrementAndGet();
+            return false;
+        }
+        mSchema.capture(value, record);
+        mQueue.publish();
+        return true;
+    }
+
+    public long getDroppedRecords() {
+        return mDropped.get();
+    }
+
+    /**
+     * Writes everything still queued, then closes the sink
+     */
+    public synchronized void stop() {
+        if (!mRunning) {
+            return;
+        }
+        mRunning = false;
+        LockSupport.unpark(mWriter);
+        try {
+            mWriter.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        mWriter = null;
+    }
+
+    private void writerLoop() {
+        try {
+            long lastFlush = System.nanoTime();
+            while (mRunning) {
+                if (!drain()) {
+                    LockSupport.parkNanos(kIdleNanos);
+                }
+                // Flushing writes a partial block, so don't do it every time the queue runs dry
+                long now = System.nanoTime();
+                if (now - lastFlush > kFlushNanos) {
+                    mSink.flush();
+                    lastFlush = now;
+                }
+            }
+            drain();
+        } catch (IOException e) {
+            System.err.println("Telemetry log " + mName + " failed, logging stopped");
+            e.printStackTrace();
+            mRunning = false;
+        } finally {
+            try {
+                mSink.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * @return true if any records were written
+     */
+    private boolean drain() throws IOException {
+        boolean wrote = false;
+        long[] record;
+        while ((record = mQueue.peek()) != null) {
+            mSink.write(record);
+            mQueue.release();
+            wrote = true;
+        }
+        return wrote;
+    }
+}
@@ -2,4 +2,12 @@ package lib.loops;
 
 public interface ILooper {
     void register(Loop loop);
+
+    /**
+     * Registers a loop that must run right after the inputs are read, ahead of everything else in the cycle. Loopers
+     * without that step run it as a normal loop.
+     */
+    default void registerPostRead(Loop loop) {
+        register(loop);
+    }
 }
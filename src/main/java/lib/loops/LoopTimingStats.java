@@ -0,0 +1,112 @@
+package lib.loops;
+
+import java.util.Arrays;
+
+/**
+ * Keeps a rolling window of execution times (in seconds) for a single loop. Samples are stored in a preallocated ring
+ * buffer so recording a sample never allocates; statistics are only computed when a snapshot is requested.
+ */
+public class LoopTimingStats {
+    private final String mName;
+    private final double[] mSamples;
+    private final double[] mSortBuffer;
+
+    private int mNextIndex = 0;
+    private int mNumSamples = 0;
+    private long mTotalSamples = 0;
+    private int mOverruns = 0;
+    private double mLastSample = 0;
+
+    public LoopTimingStats(String name, int windowSize) {
+        mName = name;
+        mSamples = new double[windowSize];
+        mSortBuffer = new double[windowSize];
+    }
+
+    public String getName() {
+        return mName;
+    }
+
+    /**
+     * Records how long the loop took to run this cycle
+     *
+     * @param seconds execution time
+     * @param budget  time the loop was allowed to take; an overrun is counted when exceeded
+     */
+    public synchronized void addSample(double seconds, double budget) {
+        mSamples[mNextIndex] = seconds;
+        mNextIndex = (mNextIndex + 1) % mSamples.length;
+        if (mNumSamples < mSamples.length) {
+            mNumSamples++;
+        }
+        mTotalSamples++;
+        mLastSample = seconds;
+
+        if (seconds > budget) {
+            mOverruns++;
+        }
+    }
+
+    public synchronized int getOverruns() {
+        return mOverruns;
+    }
+
+    public synchronized void reset() {
+        mNextIndex = 0;
+        mNumSamples = 0;
+        mTotalSamples = 0;
+        mOverruns = 0;
+        mLastSample = 0;
+    }
+
+    public synchronized Snapshot getSnapshot() {
+        if (mNumSamples == 0) {
+            return new Snapshot(mName, 0, 0, 0, 0, 0, 0, 0, mOverruns);
+        }
+
+        double sum = 0;
+        for (int i = 0; i < mNumSamples; i++) {
+            mSortBuffer[i] = mSamples[i];
+            sum += mSamples[i];
+        }
+        Arrays.sort(mSortBuffer, 0, mNumSamples);
+
+        int p99Index = Math.min(mNumSamples - 1, (int) Math.ceil(0.99 * mNumSamples) - 1);
+        return new Snapshot(mName, mSortBuffer[0], sum / mNumSamples, mSortBuffer[p99Index],
+                mSortBuffer[mNumSamples - 1], mLastSample, mNumSamples, mTotalSamples, mOverruns);
+    }
+
+    /**
+     * Immutable view of the statistics over the current window. All times are in seconds.
+     */
+    public static class Snapshot {
+        public final String name;
+        public final double min;
+        public final double mean;
+        public final double p99;
+        public final double max;
+        public final double last;
+        public final int windowSamples;
+        public final long totalSamples;
+        public final int overruns;
+
+        public Snapshot(String name, double min, double mean, double p99, double max, double last,
+                        int windowSamples, long totalSamples, int overruns) {
+            this.name = name;
+            this.min = min;
+            this.mean = mean;
+            this.p99 = p99;
+            this.max = max;
+            this.last = last;
+            this.windowSamples = windowSamples;
+            this.totalSamples = totalSamples;
+            this.overruns = overruns;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: min %.3f ms, mean %.3f ms, p99 %.3f ms, max %.3f ms, overruns %d",
+                    name, min * 1000, mean * 1000, p99 * 1000, max * 1000, overruns);
+        }
+    }
+}
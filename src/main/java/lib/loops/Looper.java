@@ -1,10 +1,11 @@
 package lib.loops;
 
 import lib.Constants;
+import lib.util.Clock;
 import lib.util.CrashTrackingRunnable;
+import lib.util.DashboardPublisher;
+import lib.util.DashboardPublisher.NumberEntry;
 import edu.wpi.first.wpilibj.Notifier;
-import edu.wpi.first.wpilibj.Timer;
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -20,54 +21,95 @@ public class Looper implements ILooper {
 
     private final Notifier mNotifier;
     private final List<Loop> mLoops;
+    private final List<LoopTimingStats> mLoopTimingStats;
+    private final LoopTimingStats mCycleTimingStats;
     private final Object mTaskRunningLock = new Object();
     private double mTimestamp = 0;
     private double mDT = 0;
 
+    private final DashboardPublisher mDashboard = new DashboardPublisher(Constants.kDashboardRate);
+    private final NumberEntry mDTEntry = mDashboard.number("looper_dt", 1E-4);
+    private final NumberEntry mCycleMeanEntry = mDashboard.number("looper_cycle_mean", 1E-5);
+    private final NumberEntry mCycleP99Entry = mDashboard.number("looper_cycle_p99", 1E-5);
+    private final NumberEntry mCycleMaxEntry = mDashboard.number("looper_cycle_max", 1E-5);
+    private final NumberEntry mOverrunsEntry = mDashboard.number("looper_overruns");
+
     private final CrashTrackingRunnable runnable_ = new CrashTrackingRunnable() {
         @Override
         public void runCrashTracked() {
-            synchronized (mTaskRunningLock) {
-                if (mRunning) {
-                    double now = Timer.getFPGATimestamp();
-
-                    for (Loop loop : mLoops) {
-                        loop.onLoop(now);
-                    }
+            runCycle();
+        }
+    };
 
-                    mDT = now - mTimestamp;
-                    mTimestamp = now;
+    private void runCycle() {
+        synchronized (mTaskRunningLock) {
+            if (mRunning) {
+                double now = Clock.now();
+                long cycleStart = System.nanoTime();
+
+                for (int i = 0; i < mLoops.size(); i++) {
+                    long loopStart = System.nanoTime();
+                    mLoops.get(i).onLoop(now);
+                    mLoopTimingStats.get(i).addSample((System.nanoTime() - loopStart) * 1e-9, kPeriod);
                 }
+
+                mCycleTimingStats.addSample((System.nanoTime() - cycleStart) * 1e-9, kPeriod);
+
+                mDT = now - mTimestamp;
+                mTimestamp = now;
             }
         }
-    };
+    }
 
     public Looper() {
         mNotifier = new Notifier(runnable_);
         mRunning = false;
         mLoops = new ArrayList<>();
+        mLoopTimingStats = new ArrayList<>();
+        mCycleTimingStats = new LoopTimingStats("cycle", Constants.kLooperTimingWindow);
     }
 
     @Override
     public synchronized void register(Loop loop) {
         synchronized (mTaskRunningLock) {
             mLoops.add(loop);
+            mLoopTimingStats.add(new LoopTimingStats(loop.getClass().getName(), Constants.kLooperTimingWindow));
         }
     }
 
     public synchronized void start() {
         if (!mRunning) {
-            System.out.println("Starting loops");
+            startLoops();
+            mNotifier.startPeriodic(kPeriod);
+        }
+    }
 
-            synchronized (mTaskRunningLock) {
-                mTimestamp = Timer.getFPGATimestamp();
-                for (Loop loop : mLoops) {
-                    loop.onStart(mTimestamp);
-                }
-                mRunning = true;
-            }
+    /**
+     * Starts the loops without the Notifier, so nothing runs until {@link #step} is called. Used by simulation to run
+     * the loops as fast as possible.
+     */
+    public synchronized void startStepped() {
+        if (!mRunning) {
+            startLoops();
+        }
+    }
 
-            mNotifier.startPeriodic(kPeriod);
+    /**
+     * Runs one cycle of every loop on the calling thread
+     */
+    public void step() {
+        runCycle();
+    }
+
+    private void startLoops() {
+        System.out.println("Starting loops");
+
+        synchronized (mTaskRunningLock) {
+            mTimestamp = Clock.now();
+            for (Loop loop : mLoops) {
+                loop.onStart(mTimestamp);
+            }
+            mRunning = true;
         }
     }
 
@@ -78,7 +120,7 @@ public class Looper implements ILooper {
 
             synchronized (mTaskRunningLock) {
                 mRunning = false;
-                mTimestamp = Timer.getFPGATimestamp();
+                mTimestamp = Clock.now();
                 for (Loop loop : mLoops) {
                     System.out.println("Stopping " + loop);
                     loop.onStop(mTimestamp);
@@ -87,7 +129,58 @@ public class Looper implements ILooper {
         }
     }
 
+    /**
+     * @return timing statistics for each registered loop, in registration order
+     */
+    public List<LoopTimingStats.Snapshot> getLoopTimingSnapshots() {
+        List<LoopTimingStats> loopTimingStats;
+        synchronized (mTaskRunningLock) {
+            loopTimingStats = new ArrayList<>(mLoopTimingStats);
+        }
+
+        List<LoopTimingStats.Snapshot> snapshots = new ArrayList<>(loopTimingStats.size());
+        for (LoopTimingStats stats : loopTimingStats) {
+            snapshots.add(stats.getSnapshot());
+        }
+        return snapshots;
+    }
+
+    /**
+     * @return timing statistics for a full cycle (all loops). Overruns count cycles that took longer than kPeriod.
+     */
+    public LoopTimingStats.Snapshot getCycleTimingSnapshot() {
+        return mCycleTimingStats.getSnapshot();
+    }
+
+    public int getOverrunCount() {
+        return mCycleTimingStats.getOverruns();
+    }
+
+    public void resetTimingStats() {
+        synchronized (mTaskRunningLock) {
+            mLoopTimingStats.forEach(LoopTimingStats::reset);
+            mCycleTimingStats.reset();
+        }
+    }
+
+    public void printTimingStats() {
+        System.out.println(getCycleTimingSnapshot());
+        for (LoopTimingStats.Snapshot snapshot : getLoopTimingSnapshots()) {
+            System.out.println("  " + snapshot);
+        }
+    }
+
     public void outputToSmartDashboard() {
-        SmartDashboard.putNumber("looper_dt", mDT);
+        if (!mDashboard.beginUpdate(Clock.now())) {
+            return;
+        }
+
+        mDTEntry.set(mDT);
+
+        LoopTimingStats.Snapshot cycle = getCycleTimingSnapshot();
+        mCycleMeanEntry.set(cycle.mean);
+        mCycleP99Entry.set(cycle.p99);
+        mCycleMaxEntry.set(cycle.max);
+        mOverrunsEntry.set(cycle.overruns);
     }
 }
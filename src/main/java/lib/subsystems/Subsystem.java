@@ -1,6 +1,14 @@
 package lib.subsystems;
 
+import lib.Constants;
+import lib.logging.MappedLogSink;
+import lib.logging.LogSchema;
+import lib.logging.TelemetryLogger;
 import lib.loops.ILooper;
+import lib.util.DashboardPublisher;
+
+import java.io.File;
+import java.io.IOException;
 
 /**
  * The Subsystem abstract class, which serves as a basic framework for all robot subsystems. Each subsystem outputs
@@ -13,7 +21,104 @@ import lib.loops.ILooper;
  * instantializing all member components at the start of the match.
  */
 public abstract class Subsystem {
-    public void writeToLog() {}
+    /**
+     * Name used when reporting on this subsystem (profiling, logs). Subsystems with more than one instance should
+     * override this so instances can be told apart.
+     */
+    public String getName() {
+        return getClass().getSimpleName();
+    }
+
+    private volatile TelemetryLogger<Object> mLogger = null;
+
+    /**
+     * Publisher for this subsystem's dashboard values. Create entries from it once and set them in
+     * {@link #outputTelemetry()}, which is only called as often as its rate allows.
+     */
+    protected final DashboardPublisher mDashboard = new DashboardPublisher(Constants.kDashboardRate);
+
+    public DashboardPublisher getDashboard() {
+        return mDashboard;
+    }
+
+    /**
+     * Object logged every enabled cycle once logging is started, usually the PeriodicIO. Its public primitive and enum
+     * fields (and primitive arrays) become the log columns. Return null (the default) to not log this subsystem.
+     * <p>
+     * Mark fields set by the loops with {@link LogSchema.Output} so a {@link lib.logging.LogReplay} can tell them from
+     * the inputs read in {@link #readPeriodicInputs()}.
+     */
+    protected Object getLogSource() {
+        return null;
+    }
+
+    /**
+     * @return the columns this subsystem logs, or null if it doesn't log
+     */
+    public LogSchema<Object> createLogSchema() {
+        Object source = getLogSource();
+        return source == null ? null : LogSchema.forPublicFieldsOf(source);
+    }
+
+    /**
+     * Used instead of {@link #readPeriodicInputs()} when replaying a log: writes the input columns of a recorded row
+     * (in the order of {@link #createLogSchema()}) into the log source, then calls {@link #onInputsReplayed()}.
+     */
+    public synchronized void replayPeriodicInputs(LogSchema<Object> schema, long[] record) {
+        schema.restoreInputs(record, getLogSource());
+        onInputsReplayed();
+    }
+
+    /**
+     * Called after recorded inputs are restored. Override to rebuild anything readPeriodicInputs derives from the
+     * inputs that isn't logged itself.
+     */
+    protected void onInputsReplayed() {}
+
+    /**
+     * Captures the log source as it is now, for comparing against a recorded row
+     */
+    public synchronized void captureLogSource(LogSchema<Object> schema, long[] record) {
+        schema.capture(getLogSource(), record);
+    }
+
+    /**
+     * Starts logging {@link #getLogSource()} to a file named after this subsystem in the given directory
+     */
+    public synchronized void startLogging(String directory) {
+        LogSchema<Object> schema = createLogSchema();
+        if (schema == null || mLogger != null) {
+            return;
+        }
+
+        String fileName = new File(directory, getName() + MappedLogSink.kExtension).getPath();
+        TelemetryLogger<Object> logger = new TelemetryLogger<>(getName(), schema,
+                new MappedLogSink(fileName, Constants.kTelemetryLogCapacity),
+                Constants.kTelemetryQueueCapacity);
+        try {
+            logger.start();
+            mLogger = logger;
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    public synchronized void stopLogging() {
+        if (mLogger != null) {
+            mLogger.stop();
+            if (mLogger.getDroppedRecords() > 0) {
+                System.out.println(getName() + " dropped " + mLogger.getDroppedRecords() + " telemetry records");
+            }
+            mLogger = null;
+        }
+    }
+
+    public void writeToLog() {
+        TelemetryLogger<Object> logger = mLogger;
+        if (logger != null) {
+            logger.log(getLogSource());
+        }
+    }
 
     // Optional design pattern for caching periodic reads to avoid hammering the HAL/CAN.
     public void readPeriodicInputs() {}
@@ -0,0 +1,171 @@
+package lib.subsystems;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Records how long each subsystem spends in each phase of a loop cycle (reading inputs, running its loops, writing
+ * outputs). Timings are kept in nanoseconds in preallocated ring buffers, one slot per cycle, so recording never
+ * allocates. A ranked report of the most expensive subsystem phases can be requested at any time.
+ */
+public class SubsystemProfiler {
+    public enum Phase {
+        READ, LOOP, WRITE
+    }
+
+    private static final int kNumPhases = Phase.values().length;
+
+    private final String[] mNames;
+    /** [owner][phase][cycle] */
+    private final long[][][] mSamples;
+    private final int mWindowSize;
+
+    private int mIndex = 0;
+    private long mCycles = 0;
+    private boolean mEnabled = true;
+
+    /**
+     * @param names      name of each owner that will be profiled, indexed the same as calls to {@link #record}
+     * @param windowSize number of cycles kept
+     */
+    public SubsystemProfiler(String[] names, int windowSize) {
+        mNames = names.clone();
+        mWindowSize = windowSize;
+        // One extra slot holds the cycle in progress
+        mSamples = new long[names.length][kNumPhases][windowSize + 1];
+    }
+
+    public synchronized void setEnabled(boolean enabled) {
+        mEnabled = enabled;
+    }
+
+    public synchronized boolean isEnabled() {
+        return mEnabled;
+    }
+
+    public int getNumOwners() {
+        return mNames.length;
+    }
+
+    /**
+     * Adds time spent by an owner in a phase to the current cycle. Multiple calls for the same owner and phase in one
+     * cycle accumulate.
+     */
+    public synchronized void record(int owner, Phase phase, long nanos) {
+        if (mEnabled) {
+            mSamples[owner][phase.ordinal()][mIndex] += nanos;
+        }
+    }
+
+    /**
+     * Closes out the current cycle and clears the slot for the next one
+     */
+    public synchronized void endCycle() {
+        if (!mEnabled) {
+            return;
+        }
+
+        mCycles++;
+        mIndex = (mIndex + 1) % (mWindowSize + 1);
+        for (long[][] owner : mSamples) {
+            for (long[] phase : owner) {
+                phase[mIndex] = 0;
+            }
+        }
+    }
+
+    public synchronized void reset() {
+        for (long[][] owner : mSamples) {
+            for (long[] phase : owner) {
+                Arrays.fill(phase, 0);
+            }
+        }
+        mIndex = 0;
+        mCycles = 0;
+    }
+
+    public synchronized long getCycles() {
+        return mCycles;
+    }
+
+    /**
+     * @return every owner/phase pair that has taken time, sorted from most to least expensive mean time
+     */
+    public synchronized List<Entry> getReport() {
+        int numSamples = (int) Math.min(mCycles, mWindowSize);
+        List<Entry> entries = new ArrayList<>();
+        if (numSamples == 0) {
+            return entries;
+        }
+
+        long[] sorted = new long[numSamples];
+        for (int owner = 0; owner < mNames.length; owner++) {
+            for (Phase phase : Phase.values()) {
+                long[] samples = mSamples[owner][phase.ordinal()];
+
+                // The slot at mIndex belongs to the cycle in progress, so skip it
+                long sum = 0;
+                for (int i = 0; i < numSamples; i++) {
+                    int slot = (mIndex - 1 - i + mWindowSize + 1) % (mWindowSize + 1);
+                    sorted[i] = samples[slot];
+                    sum += samples[slot];
+                }
+                if (sum == 0) {
+                    continue;
+                }
+                Arrays.sort(sorted);
+
+                int p99Index = Math.min(numSamples - 1, (int) Math.ceil(0.99 * numSamples) - 1);
+                entries.add(new Entry(mNames[owner], phase, (double) sum / numSamples, sorted[p99Index],
+                        sorted[numSamples - 1]));
+            }
+        }
+
+        entries.sort(Comparator.comparingDouble((Entry e) -> e.meanNanos).reversed());
+        return entries;
+    }
+
+    /**
+     * @return the n most expensive owner/phase pairs by mean time
+     */
+    public List<Entry> getTopOffenders(int n) {
+        List<Entry> report = getReport();
+        return report.subList(0, Math.min(n, report.size()));
+    }
+
+    public void printReport(int n) {
+        List<Entry> offenders = getTopOffenders(n);
+        if (offenders.isEmpty()) {
+            return;
+        }
+
+        System.out.println("Subsystem profile over " + Math.min(getCycles(), mWindowSize) + " cycles:");
+        for (int i = 0; i < offenders.size(); i++) {
+            System.out.println("  " + (i + 1) + ". " + offenders.get(i));
+        }
+    }
+
+    public static class Entry {
+        public final String name;
+        public final Phase phase;
+        public final double meanNanos;
+        public final long p99Nanos;
+        public final long maxNanos;
+
+        public Entry(String name, Phase phase, double meanNanos, long p99Nanos, long maxNanos) {
+            this.name = name;
+            this.phase = phase;
+            this.meanNanos = meanNanos;
+            this.p99Nanos = p99Nanos;
+            this.maxNanos = maxNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s %s: mean %.1f us, p99 %.1f us, max %.1f us",
+                    name, phase, meanNanos / 1e3, p99Nanos / 1e3, maxNanos / 1e3);
+        }
+    }
+}
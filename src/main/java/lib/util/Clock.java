@@ -0,0 +1,39 @@
+package lib.util;
+
+import edu.wpi.first.wpilibj.Timer;
+
+/**
+ * Source of robot time, in seconds. Robot code reads the time through {@link #now} instead of calling
+ * Timer.getFPGATimestamp directly, so simulation and log replay can swap in a {@link VirtualClock} and run the
+ * whole control stack at any speed. The FPGA clock is used unless another is set.
+ */
+public abstract class Clock {
+    private static final Clock kFPGAClock = new Clock() {
+        @Override
+        public double getTimestamp() {
+            return Timer.getFPGATimestamp();
+        }
+    };
+
+    private static volatile Clock mInstance = kFPGAClock;
+
+    public static Clock getInstance() {
+        return mInstance;
+    }
+
+    /**
+     * @param clock the clock to read from now on, or null to go back to the FPGA clock
+     */
+    public static void setInstance(Clock clock) {
+        mInstance = clock == null ? kFPGAClock : clock;
+    }
+
+    /**
+     * @return the current time from the installed clock, seconds
+     */
+    public static double now() {
+        return mInstance.getTimestamp();
+    }
+
+    public abstract double getTimestamp();
+}
@@ -1,18 +1,47 @@
 package lib.util;
 
+import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.util.Date;
 import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
- * Tracks start-up and caught crash events, logging them to a file which dosn't roll over
+ * Tracks start-up and caught crash events, logging them to a file. Callers only put the event on a bounded queue; a
+ * low priority background thread does the file writing, so logging never blocks a mode transition. If the queue is
+ * full the event is dropped and counted. The file is rotated once it gets too big.
  */
 public class CrashTracker {
+    private static final String kFileName = "/home/lvuser/crash_tracking.txt";
+    private static final long kMaxFileBytes = 1 << 20;
+    private static final int kMaxOldFiles = 3;
+    private static final int kQueueCapacity = 128;
+    private static final long kShutdownFlushMillis = 500;
 
     private static final UUID RUN_INSTANCE_UUID = UUID.randomUUID();
 
+    private static class Event {
+        final long time;
+        final String mark;
+        final Throwable throwable;
+
+        Event(String mark, Throwable throwable) {
+            this.time = System.currentTimeMillis();
+            this.mark = mark;
+            this.throwable = throwable;
+        }
+    }
+
+    private static final BlockingQueue<Event> mEvents = new ArrayBlockingQueue<>(kQueueCapacity);
+    private static final AtomicInteger mDropped = new AtomicInteger();
+    // Events queued but not yet written
+    private static final AtomicInteger mPending = new AtomicInteger();
+    private static Thread mWriter = null;
+
     public static void logRobotConstruction() {
         logMarker("robot startup");
     }
@@ -46,24 +75,96 @@ public class CrashTracker {
     }
 
     private static void logMarker(String mark, Throwable nullableException) {
-        //TODO
-        /*
-        try (PrintWriter writer = new PrintWriter(new FileWriter("/home/lvuser/crash_tracking.txt", true))) {
-            writer.print(RUN_INSTANCE_UUID.toString());
-            writer.print(", ");
-            writer.print(mark);
-            writer.print(", ");
-            writer.print(new Date().toString());
+        startWriter();
+        mPending.incrementAndGet();
+        if (!mEvents.offer(new Event(mark, nullableException))) {
+            mPending.decrementAndGet();
+            mDropped.incrementAndGet();
+        }
+    }
+
+    private static synchronized void startWriter() {
+        if (mWriter != null) {
+            return;
+        }
+        mWriter = new Thread(CrashTracker::writerLoop, "CrashTracker");
+        mWriter.setDaemon(true);
+        mWriter.setPriority(Thread.MIN_PRIORITY);
+        mWriter.start();
+
+        // Give queued events (like the exception that is ending the program) a chance to reach the file
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            long deadline = System.currentTimeMillis() + kShutdownFlushMillis;
+            while (mPending.get() > 0 && System.currentTimeMillis() < deadline) {
+                try {
+                    Thread.sleep(10);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }));
+    }
 
-            if (nullableException != null) {
-                writer.print(", ");
-                nullableException.printStackTrace(writer);
+    private static void writerLoop() {
+        while (true) {
+            Event event;
+            try {
+                event = mEvents.take();
+            } catch (InterruptedException e) {
+                return;
             }
 
-            writer.println();
-        } catch (IOException e) {
-            e.printStackTrace();
+            rotateIfNeeded();
+            try (PrintWriter writer = new PrintWriter(new FileWriter(kFileName, true))) {
+                // Write everything that is queued with the file open once
+                int written = 0;
+                while (event != null) {
+                    write(writer, event);
+                    written++;
+                    event = mEvents.poll();
+                }
+
+                int dropped = mDropped.getAndSet(0);
+                if (dropped > 0) {
+                    write(writer, new Event("dropped " + dropped + " events", null));
+                }
+                writer.flush();
+                mPending.addAndGet(-written);
+            } catch (IOException e) {
+                e.printStackTrace();
+                mPending.set(0);
+            }
+        }
+    }
+
+    private static void write(PrintWriter writer, Event event) {
+        writer.print(RUN_INSTANCE_UUID.toString());
+        writer.print(", ");
+        writer.print(event.mark);
+        writer.print(", ");
+        writer.print(new Date(event.time).toString());
+
+        if (event.throwable != null) {
+            writer.print(", ");
+            event.throwable.printStackTrace(writer);
+        }
+
+        writer.println();
+    }
+
+    /**
+     * Renames crash_tracking.txt to crash_tracking.txt.1 (and so on) once it is too big, keeping a few old files
+     */
+    private static void rotateIfNeeded() {
+        File file = new File(kFileName);
+        if (file.length() < kMaxFileBytes) {
+            return;
+        }
+
+        new File(kFileName + "." + kMaxOldFiles).delete();
+        for (int i = kMaxOldFiles - 1; i >= 1; i--) {
+            new File(kFileName + "." + i).renameTo(new File(kFileName + "." + (i + 1)));
         }
-        */
+        file.renameTo(new File(kFileName + ".1"));
     }
-}
\ No newline at end of file
+}
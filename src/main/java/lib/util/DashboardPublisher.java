@@ -0,0 +1,154 @@
+package lib.util;
+
+import edu.wpi.first.networktables.NetworkTableEntry;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+
+import java.util.Arrays;
+
+/**
+ * Publishes a group of values (usually one subsystem's telemetry) to SmartDashboard. Each value gets an entry that
+ * holds on to its NetworkTableEntry, so there is no string keyed lookup per update, and a value is only sent when it
+ * changed by more than the entry's epsilon. {@link #beginUpdate} limits how often the whole group is published.
+ * <p>
+ * Create entries once (in a constructor or field initializer) and call set every update.
+ */
+public class DashboardPublisher {
+    private double mPeriod;
+    private double mLastUpdate = Double.NEGATIVE_INFINITY;
+    private long mWrites = 0;
+
+    /**
+     * @param maxRate most updates per second allowed by {@link #beginUpdate}, or 0 for no limit
+     */
+    public DashboardPublisher(double maxRate) {
+        setMaxRate(maxRate);
+    }
+
+    public void setMaxRate(double maxRate) {
+        mPeriod = maxRate > 0 ? 1.0 / maxRate : 0.0;
+    }
+
+    /**
+     * @return true if enough time has passed since the last update for this group to publish again
+     */
+    public boolean beginUpdate(double timestamp) {
+        if (timestamp - mLastUpdate < mPeriod) {
+            return false;
+        }
+        mLastUpdate = timestamp;
+        return true;
+    }
+
+    /**
+     * @return number of values actually sent to NetworkTables
+     */
+    public long getWrites() {
+        return mWrites;
+    }
+
+    public NumberEntry number(String key) {
+        return number(key, 0.0);
+    }
+
+    /**
+     * @param epsilon changes this small or smaller are not published
+     */
+    public NumberEntry number(String key, double epsilon) {
+        return new NumberEntry(SmartDashboard.getEntry(key), epsilon);
+    }
+
+    public BooleanEntry bool(String key) {
+        return new BooleanEntry(SmartDashboard.getEntry(key));
+    }
+
+    public StringEntry string(String key) {
+        return new StringEntry(SmartDashboard.getEntry(key));
+    }
+
+    public BooleanArrayEntry booleanArray(String key) {
+        return new BooleanArrayEntry(SmartDashboard.getEntry(key));
+    }
+
+    public class NumberEntry {
+        private final NetworkTableEntry mEntry;
+        private final double mEpsilon;
+        private boolean mPublished = false;
+        private double mLastValue;
+
+        private NumberEntry(NetworkTableEntry entry, double epsilon) {
+            mEntry = entry;
+            mEpsilon = epsilon;
+        }
+
+        public void set(double value) {
+            if (mPublished && (Math.abs(value - mLastValue) <= mEpsilon
+                    || Double.compare(value, mLastValue) == 0)) {
+                return;
+            }
+            mEntry.setDouble(value);
+            mLastValue = value;
+            mPublished = true;
+            mWrites++;
+        }
+    }
+
+    public class BooleanEntry {
+        private final NetworkTableEntry mEntry;
+        private boolean mPublished = false;
+        private boolean mLastValue;
+
+        private BooleanEntry(NetworkTableEntry entry) {
+            mEntry = entry;
+        }
+
+        public void set(boolean value) {
+            if (mPublished && value == mLastValue) {
+                return;
+            }
+            mEntry.setBoolean(value);
+            mLastValue = value;
+            mPublished = true;
+            mWrites++;
+        }
+    }
+
+    public class StringEntry {
+        private final NetworkTableEntry mEntry;
+        private String mLastValue = null;
+
+        private StringEntry(NetworkTableEntry entry) {
+            mEntry = entry;
+        }
+
+        public void set(String value) {
+            if (value.equals(mLastValue)) {
+                return;
+            }
+            mEntry.setString(value);
+            mLastValue = value;
+            mWrites++;
+        }
+    }
+
+    public class BooleanArrayEntry {
+        private final NetworkTableEntry mEntry;
+        private boolean[] mLastValue = null;
+
+        private BooleanArrayEntry(NetworkTableEntry entry) {
+            mEntry = entry;
+        }
+
+        public void set(boolean[] value) {
+            if (mLastValue != null && Arrays.equals(value, mLastValue)) {
+                return;
+            }
+            mEntry.setBooleanArray(value);
+            if (mLastValue == null || mLastValue.length != value.length) {
+                mLastValue = value.clone();
+            } else {
+                System.arraycopy(value, 0, mLastValue, 0, value.length);
+            }
+            mWrites++;
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package lib.util;
+
+import lib.geometry.MutablePose2d;
+import lib.geometry.Pose2d;
+
+/**
+ * A fixed capacity history of timestamped poses, kept in timestamp order in a ring buffer of primitive arrays. Fills the
+ * same role as an {@code InterpolatingTreeMap<InterpolatingDouble, Pose2d>}, but adding a sample or looking one up
+ * creates no garbage. Lookups use binary search, and poses between samples are interpolated the same way as
+ * {@link Pose2d#interpolate}.
+ * <p>
+ * Samples are expected to arrive in increasing timestamp order. An out of order sample is still inserted in the right
+ * place, it just costs a shift of the newer samples.
+ * <p>
+ * Not thread safe.
+ */
+public class InterpolatingPoseBuffer {
+    private final int capacity_;
+    private final double[] timestamps_;
+    private final double[] x_;
+    private final double[] y_;
+    private final double[] cos_;
+    private final double[] sin_;
+
+    private int head_ = 0; // slot of the oldest sample
+    private int size_ = 0;
+
+    public InterpolatingPoseBuffer(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        capacity_ = capacity;
+        timestamps_ = new double[capacity];
+        x_ = new double[capacity];
+        y_ = new double[capacity];
+        cos_ = new double[capacity];
+        sin_ = new double[capacity];
+    }
+
+    public void clear() {
+        head_ = 0;
+        size_ = 0;
+    }
+
+    public int size() {
+        return size_;
+    }
+
+    public int capacity() {
+        return capacity_;
+    }
+
+    public boolean isEmpty() {
+        return size_ == 0;
+    }
+
+    /**
+     * Adds a sample, replacing any sample with the same timestamp. If the buffer is full the oldest sample is dropped,
+     * which is the new sample itself if it is older than all of them.
+     */
+    public void add(double timestamp, double x, double y, double cos, double sin) {
+        if (size_ == 0 || timestamp > timestamps_[slot(size_ - 1)]) {
+            // Common case, newest sample
+            if (size_ == capacity_) {
+                dropOldest();
+            }
+            write(slot(size_), timestamp, x, y, cos, sin);
+            size_++;
+            return;
+        }
+
+        int floor = floorIndex(timestamp);
+        if (floor >= 0 && timestamps_[slot(floor)] == timestamp) {
+            write(slot(floor), timestamp, x, y, cos, sin);
+            return;
+        }
+
+        if (size_ == capacity_) {
+            if (floor < 0) {
+                // Older than the whole history, so it would be the one dropped
+                return;
+            }
+            dropOldest();
+            floor--;
+        }
+        // Shift everything newer than the new sample up one slot
+        for (int i = size_; i > floor + 1; i--) {
+            int to = slot(i);
+            int from = slot(i - 1);
+            write(to, timestamps_[from], x_[from], y_[from], cos_[from], sin_[from]);
+        }
+        write(slot(floor + 1), timestamp, x, y, cos, sin);
+        size_++;
+    }
+
+    public void add(double timestamp, Pose2d pose) {
+        add(timestamp, pose.getTranslation().x(), pose.getTranslation().y(),
+                pose.getRotation().cos(), pose.getRotation().sin());
+    }
+
+    public void add(double timestamp, MutablePose2d pose) {
+        add(timestamp, pose.getTranslation().x(), pose.getTranslation().y(),
+                pose.getRotation().cos(), pose.getRotation().sin());
+    }
+
+    /**
+     * @return timestamp of the newest sample, or NaN if empty
+     */
+    public double getLatestTimestamp() {
+        return size_ == 0 ? Double.NaN : timestamps_[slot(size_ - 1)];
+    }
+
+    /**
+     * @return timestamp of the oldest sample, or NaN if empty
+     */
+    public double getOldestTimestamp() {
+        return size_ == 0 ? Double.NaN : timestamps_[head_];
+    }
+
+    /**
+     * Writes the newest pose into dest
+     *
+     * @return dest, or null if the buffer is empty
+     */
+    public MutablePose2d getLatest(MutablePose2d dest) {
+        if (size_ == 0) {
+            return null;
+        }
+        return read(slot(size_ - 1), dest);
+    }
+
+    /**
+     * Writes the pose at a certain time into dest, interpolating between the samples on either side. Times outside the
+     * stored range return the nearest sample.
+     *
+     * @return dest, or null if the buffer is empty
+     */
+    public MutablePose2d getInterpolated(double timestamp, MutablePose2d dest) {
+        if (size_ == 0) {
+            return null;
+        }
+
+        int floor = floorIndex(timestamp);
+        if (floor < 0) {
+            return read(head_, dest);
+        } else if (floor == size_ - 1) {
+            return read(slot(floor), dest);
+        }
+
+        int bottom = slot(floor);
+        int top = slot(floor + 1);
+        double bottom_time = timestamps_[bottom];
+        if (bottom_time == timestamp) {
+            return read(bottom, dest);
+        }
+        double t = (timestamp - bottom_time) / (timestamps_[top] - bottom_time);
+        return read(bottom, dest).interpolate(x_[top], y_[top], cos_[top], sin_[top], t);
+    }
+
+    /**
+     * @return the pose at a certain time, or null if the buffer is empty
+     */
+    public Pose2d getInterpolated(double timestamp) {
+        if (size_ == 0) {
+            return null;
+        }
+        return getInterpolated(timestamp, new MutablePose2d()).toPose2d();
+    }
+
+    /**
+     * @return logical index (0 is oldest) of the newest sample at or before the timestamp, or -1 if there is none
+     */
+    private int floorIndex(double timestamp) {
+        int low = 0;
+        int high = size_ - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (timestamps_[slot(mid)] <= timestamp) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return high;
+    }
+
+    private int slot(int index) {
+        int slot = head_ + index;
+        return slot >= capacity_ ? slot - capacity_ : slot;
+    }
+
+    private void dropOldest() {
+        head_ = slot(1);
+        size_--;
+    }
+
+    private void write(int slot, double timestamp, double x, double y, double cos, double sin) {
+        timestamps_[slot] = timestamp;
+        x_[slot] = x;
+        y_[slot] = y;
+        cos_[slot] = cos;
+        sin_[slot] = sin;
+    }
+
+    private MutablePose2d read(int slot, MutablePose2d dest) {
+        return dest.set(x_[slot], y_[slot], cos_[slot], sin_[slot]);
+    }
+}
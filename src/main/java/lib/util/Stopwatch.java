@@ -0,0 +1,45 @@
+package lib.util;
+
+/**
+ * Measures elapsed time like WPILib's Timer, but reads the time from {@link Clock}
+ */
+public class Stopwatch {
+    private double mStartTime;
+    private double mAccumulatedTime = 0;
+    private boolean mRunning = false;
+
+    public Stopwatch() {
+        reset();
+    }
+
+    /**
+     * @return seconds elapsed while running since the last reset
+     */
+    public synchronized double get() {
+        if (mRunning) {
+            return mAccumulatedTime + (Clock.now() - mStartTime);
+        }
+        return mAccumulatedTime;
+    }
+
+    public synchronized void reset() {
+        mAccumulatedTime = 0;
+        mStartTime = Clock.now();
+    }
+
+    public synchronized void start() {
+        if (!mRunning) {
+            mStartTime = Clock.now();
+            mRunning = true;
+        }
+    }
+
+    public synchronized void stop() {
+        mAccumulatedTime = get();
+        mRunning = false;
+    }
+
+    public synchronized boolean hasElapsed(double seconds) {
+        return get() >= seconds;
+    }
+}
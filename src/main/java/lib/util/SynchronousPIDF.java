@@ -1,7 +1,6 @@
 package lib.util;
 
 import edu.wpi.first.hal.util.BoundaryException;
-import edu.wpi.first.wpilibj.Timer;
 
 /**
  * This class implements a PID Control Loop.
@@ -26,7 +25,7 @@ public class SynchronousPIDF {
     private double m_result = 0.0;
     private double m_last_input = Double.NaN;
     private double m_deadband = 0.0; // If the absolute error is less than deadband then treat error for the proportional term as 0
-    private double m_last_timestamp = Timer.getFPGATimestamp();
+    private double m_last_timestamp = Clock.now();
 
     public SynchronousPIDF() {}
 
@@ -54,7 +53,7 @@ public class SynchronousPIDF {
     }
 
     public double calculate(double input) {
-        double timestamp = Timer.getFPGATimestamp();
+        double timestamp = Clock.now();
         double dt = timestamp - m_last_timestamp;
         m_last_timestamp = timestamp;
 
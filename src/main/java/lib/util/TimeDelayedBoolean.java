@@ -1,13 +1,12 @@
 package lib.util;
 
-import edu.wpi.first.wpilibj.Timer;
 
 /**
  * This class contains a boolean value and a timer. It can set its boolean value and return whether the timer is within
  * a set timeout. This returns true if the stored value is true and the timeout has expired.
  */
 public class TimeDelayedBoolean {
-    private Timer t = new Timer();
+    private Stopwatch t = new Stopwatch();
     private boolean m_old = false;
 
     public boolean update(boolean value, double timeout) {
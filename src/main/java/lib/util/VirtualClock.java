@@ -0,0 +1,29 @@
+package lib.util;
+
+/**
+ * A clock that only moves when told to, for simulation and replay
+ */
+public class VirtualClock extends Clock {
+    private volatile double mTimestamp;
+
+    public VirtualClock() {
+        this(0.0);
+    }
+
+    public VirtualClock(double timestamp) {
+        mTimestamp = timestamp;
+    }
+
+    @Override
+    public double getTimestamp() {
+        return mTimestamp;
+    }
+
+    public void setTimestamp(double timestamp) {
+        mTimestamp = timestamp;
+    }
+
+    public void advance(double seconds) {
+        mTimestamp += seconds;
+    }
+}
@@ -0,0 +1,142 @@
+package lib.util;
+
+/**
+ * A small, persistent pool of threads that runs a fixed set of tasks in parallel and waits for all of them to finish
+ * (a fork/join with a barrier at the end). The calling thread helps run tasks while it waits.
+ * <p>
+ * Nothing is allocated per call, so this is safe to use from a periodic loop.
+ */
+public class WorkerPool {
+    private static final Runnable[] kNoTasks = new Runnable[0];
+
+    private final Thread[] mWorkers;
+    private final Object mLock = new Object();
+
+    private Runnable[] mTasks = kNoTasks;
+    private int mNumTasks = 0;
+    private int mNextTask = 0;
+    private int mCompletedTasks = 0;
+    private long mGeneration = 0;
+    private Throwable mFailure = null;
+    private boolean mShutdown = false;
+
+    public WorkerPool(String name, int numThreads) {
+        mWorkers = new Thread[numThreads];
+        for (int i = 0; i < numThreads; i++) {
+            mWorkers[i] = new Thread(this::workerLoop, name + "-" + i);
+            mWorkers[i].setDaemon(true);
+            mWorkers[i].start();
+        }
+    }
+
+    public int getNumThreads() {
+        return mWorkers.length;
+    }
+
+    /**
+     * Runs every task and returns once all of them have finished. If any task throws, the first throwable is rethrown
+     * on the calling thread after the others are done.
+     *
+     * @param tasks    array of tasks; the array is not copied, so it must not be changed until this returns
+     * @param numTasks number of tasks from the start of the array to run
+     */
+    public void runAll(Runnable[] tasks, int numTasks) {
+        long generation;
+        synchronized (mLock) {
+            if (mShutdown) {
+                throw new IllegalStateException("WorkerPool has been shut down");
+            }
+            mTasks = tasks;
+            mNumTasks = numTasks;
+            mCompletedTasks = 0;
+            mFailure = null;
+            mNextTask = 0;
+            generation = ++mGeneration;
+            mLock.notifyAll();
+        }
+
+        runTasks(generation);
+
+        Throwable failure;
+        synchronized (mLock) {
+            while (mCompletedTasks < mNumTasks) {
+                try {
+                    mLock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            failure = mFailure;
+            mTasks = kNoTasks;
+            mNumTasks = 0;
+        }
+
+        if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        } else if (failure instanceof Error) {
+            throw (Error) failure;
+        }
+    }
+
+    public void shutdown() {
+        synchronized (mLock) {
+            mShutdown = true;
+            mLock.notifyAll();
+        }
+    }
+
+    /**
+     * Claims and runs tasks from the given generation until none are left. Claims are made under the lock so a thread
+     * that wakes up late can never take a task from a newer generation.
+     */
+    private void runTasks(long generation) {
+        while (true) {
+            Runnable task;
+            synchronized (mLock) {
+                if (mGeneration != generation || mNextTask >= mNumTasks) {
+                    return;
+                }
+                task = mTasks[mNextTask++];
+            }
+
+            Throwable failure = null;
+            try {
+                task.run();
+            } catch (Throwable t) {
+                failure = t;
+            }
+
+            synchronized (mLock) {
+                if (failure != null && mFailure == null) {
+                    mFailure = failure;
+                }
+                mCompletedTasks++;
+                if (mCompletedTasks == mNumTasks) {
+                    mLock.notifyAll();
+                }
+            }
+        }
+    }
+
+    private void workerLoop() {
+        long seenGeneration = 0;
+        while (true) {
+            synchronized (mLock) {
+                while (!mShutdown && mGeneration == seenGeneration) {
+                    try {
+                        mLock.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (mShutdown) {
+                    return;
+                }
+                seenGeneration = mGeneration;
+            }
+
+            runTasks(seenGeneration);
+        }
+    }
+}
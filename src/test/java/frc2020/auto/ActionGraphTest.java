@@ -0,0 +1,112 @@
+package frc2020.auto;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import frc2020.auto.actions.Action;
+import frc2020.auto.actions.ParallelAction;
+import frc2020.auto.actions.RaceAction;
+import frc2020.auto.actions.SeriesAction;
+
+public class ActionGraphTest {
+    private static final double kDt = 0.01;
+
+    /**
+     * Finishes after a number of updates
+     */
+    private static class CountAction implements Action {
+        private final int mUpdates;
+        private int mUpdated;
+        boolean mDone = false;
+
+        CountAction(int updates) {
+            mUpdates = updates;
+        }
+
+        @Override
+        public void start() {
+            mUpdated = 0;
+        }
+
+        @Override
+        public void update() {
+            mUpdated++;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return mUpdated >= mUpdates;
+        }
+
+        @Override
+        public void done() {
+            mDone = true;
+        }
+    }
+
+    private static int run(ActionGraph graph, int maxSteps) {
+        graph.start(0);
+        for (int i = 1; i <= maxSteps; i++) {
+            if (graph.step(i * kDt)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Test
+    public void testSeriesStartsNextActionInSameStep() {
+        ActionGraph graph = new ActionGraph(new SeriesAction(new CountAction(2), new CountAction(3)));
+        // Each action is updated its number of times and finishes on the following step
+        assertEquals(6, run(graph, 100));
+        assertEquals(0.06, graph.getRoot().getEndTime(), 1e-9);
+        assertEquals(0.03, graph.getRoot().getChildren().get(0).getEndTime(), 1e-9);
+    }
+
+    @Test
+    public void testRaceEndsLosers() {
+        CountAction slow = new CountAction(50);
+        ActionGraph graph = new ActionGraph(new RaceAction(new CountAction(5), slow));
+        assertEquals(6, run(graph, 100));
+        assertTrue(slow.mDone);
+        assertTrue(graph.getRoot().getChildren().get(1).wasPreempted());
+        assertFalse(graph.getRoot().getChildren().get(0).wasPreempted());
+    }
+
+    @Test
+    public void testStopEndsRunningActions() {
+        CountAction first = new CountAction(50);
+        CountAction second = new CountAction(50);
+        ActionGraph graph = new ActionGraph(new ParallelAction(first, new SeriesAction(new CountAction(1), second)));
+        assertEquals(-1, run(graph, 10));
+        graph.stop(0.1);
+        assertTrue(first.mDone);
+        assertTrue(second.mDone);
+        assertFalse(graph.getRoot().isRunning());
+    }
+
+    @Test
+    public void testCriticalPath() {
+        CountAction drive = new CountAction(30);
+        CountAction wait = new CountAction(10);
+        CountAction intake = new CountAction(15);
+        CountAction shoot = new CountAction(5);
+        ActionGraph graph = new ActionGraph(new SeriesAction(
+            new ParallelAction(drive, new SeriesAction(wait, intake)),
+            new RaceAction(shoot, new CountAction(100))
+        ));
+        run(graph, 1000);
+
+        // The drive outlasts the wait and intake, and the shot wins the race
+        List<ActionGraph.Node> path = graph.getCriticalPath();
+        assertEquals(2, path.size());
+        assertEquals(0.31, path.get(0).getDuration(), 1e-9);
+        assertEquals(0.05, path.get(1).getDuration(), 1e-9);
+        assertFalse(path.get(1).wasPreempted());
+    }
+}
@@ -0,0 +1,71 @@
+package frc2020.sim;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.function.Supplier;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import edu.wpi.first.wpilibj.geometry.Pose2d;
+import edu.wpi.first.wpilibj.geometry.Rotation2d;
+import frc2020.auto.modes.AutoModeBase;
+import frc2020.auto.modes.BarrelRacingMode;
+import frc2020.auto.modes.BounceMode;
+import frc2020.auto.modes.SlalomMode;
+import frc2020.paths.TrajectoryRegistry;
+
+public class AutoSimulationTest {
+    private static final int kRuns = 50;
+    private static final double kTimeout = 30.0;
+    /** Farthest the robot may get from the path setpoint, meters */
+    private static final double kMaxPathError = 0.3;
+    /** How far the mode's run time may be from the path's, seconds */
+    private static final double kDurationMargin = 0.25;
+
+    private static AutoSimulation mSimulation;
+
+    @BeforeClass
+    public static void setup() {
+        mSimulation = new AutoSimulation(254);
+        TrajectoryRegistry.getInstance().load("Slalom", "Barrel", "Bounce1");
+    }
+
+    private static Pose2d startOf(String path) {
+        // The path actions reset odometry to the start of the path, facing forward
+        var start = TrajectoryRegistry.getInstance().get(path).getInitialPose().getTranslation();
+        return new Pose2d(start, new Rotation2d());
+    }
+
+    private static void runRepeated(Supplier<AutoModeBase> mode, String path) {
+        AutoSimulation.Result first = mSimulation.run(mode.get(), startOf(path), kTimeout);
+        assertTrue(path + " did not complete: " + first, first.completed);
+        assertTrue(path + " strayed from the path: " + first, first.maxError < kMaxPathError);
+        assertEquals(path + " took too long or too short: " + first,
+                TrajectoryRegistry.getInstance().get(path).getTotalTimeSeconds(), first.duration, kDurationMargin);
+
+        for (int i = 1; i < kRuns; i++) {
+            AutoSimulation.Result result = mSimulation.run(mode.get(), startOf(path), kTimeout);
+            assertTrue(result.completed);
+            // Every run is the same run
+            assertEquals(first.duration, result.duration, 1e-9);
+            assertEquals(first.maxError, result.maxError, 1e-9);
+        }
+    }
+
+    @Test
+    public void testSlalom() {
+        runRepeated(SlalomMode::new, "Slalom");
+    }
+
+    @Test
+    public void testBarrelRacing() {
+        runRepeated(BarrelRacingMode::new, "Barrel");
+    }
+
+    @Test
+    public void testBounce() {
+        runRepeated(BounceMode::new, "Bounce1");
+    }
+}
@@ -0,0 +1,73 @@
+package lib;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import org.junit.Test;
+
+public class SwerveKinematicsTest {
+    private static final double kTestEpsilon = 1E-9;
+
+    // Front right, front left, back left, back right
+    private final SwerveKinematics mKinematics = new SwerveKinematics(
+        new double[] { 1, 1, -1, -1 },
+        new double[] { -1, 1, 1, -1 }
+    );
+
+    private final double[] mSpeeds = new double[4];
+    private final double[] mAngles = new double[4];
+
+    @Test
+    public void testInverseKinematics() {
+        mKinematics.toModuleStates(0, 2, 0, mSpeeds, mAngles);
+        assertArrayEquals(new double[] { 2, 2, 2, 2 }, mSpeeds, kTestEpsilon);
+        assertArrayEquals(new double[] { 90, 90, 90, 90 }, mAngles, kTestEpsilon);
+
+        // Spinning in place points every wheel along the circle
+        mKinematics.toModuleStates(0, 0, 1, mSpeeds, mAngles);
+        double radius = Math.sqrt(2);
+        assertArrayEquals(new double[] { radius, radius, radius, radius }, mSpeeds, kTestEpsilon);
+        assertArrayEquals(new double[] { 45, 135, -135, -45 }, mAngles, kTestEpsilon);
+    }
+
+    @Test
+    public void testStoppedModulesKeepTheirAngles() {
+        mKinematics.toModuleStates(1, 1, 0, mSpeeds, mAngles);
+        mKinematics.toModuleStates(0, 0, 0, mSpeeds, mAngles);
+        assertArrayEquals(new double[] { 0, 0, 0, 0 }, mSpeeds, kTestEpsilon);
+        assertArrayEquals(new double[] { 45, 45, 45, 45 }, mAngles, kTestEpsilon);
+    }
+
+    @Test
+    public void testForwardKinematicsInvertsInverse() {
+        double[] speeds = new double[3];
+        mKinematics.toModuleStates(1.5, -0.5, 0.8, mSpeeds, mAngles);
+        assertArrayEquals(new double[] { 1.5, -0.5, 0.8 }, mKinematics.toChassisSpeeds(mSpeeds, mAngles, speeds),
+                kTestEpsilon);
+
+        // Module positions off center still solve exactly
+        SwerveKinematics offset = new SwerveKinematics(new double[] { 2, 2, 0, 0 }, new double[] { -1, 1, 1, -1 });
+        offset.toModuleStates(-0.3, 0.7, -1.2, mSpeeds, mAngles);
+        assertArrayEquals(new double[] { -0.3, 0.7, -1.2 }, offset.toChassisSpeeds(mSpeeds, mAngles, speeds),
+                kTestEpsilon);
+    }
+
+    @Test
+    public void testDesaturate() {
+        double[] speeds = { 1, -4, 2, 0.5 };
+        SwerveKinematics.desaturate(speeds, 2);
+        assertArrayEquals(new double[] { 0.5, -2, 1, 0.25 }, speeds, kTestEpsilon);
+
+        SwerveKinematics.desaturate(speeds, 3);
+        assertArrayEquals(new double[] { 0.5, -2, 1, 0.25 }, speeds, kTestEpsilon);
+    }
+
+    @Test
+    public void testOptimize() {
+        double[] speeds = { 1, 1, 1, 1 };
+        double[] angles = { 170, 80, -100, 0 };
+        double[] current = { 0, 0, 360, 720 };
+        SwerveKinematics.optimize(speeds, angles, current);
+        assertArrayEquals(new double[] { -1, 1, -1, 1 }, speeds, kTestEpsilon);
+        assertArrayEquals(new double[] { -10, 80, 440, 720 }, angles, kTestEpsilon);
+    }
+}
@@ -0,0 +1,56 @@
+package lib.drivers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.ctre.phoenix.motorcontrol.ControlMode;
+
+public class OutputWriteFilterTest {
+    private static boolean write(OutputWriteFilter filter, ControlMode mode, double value) {
+        if (filter.shouldWrite(mode, value)) {
+            filter.written(mode, value, true);
+            return true;
+        }
+        return false;
+    }
+
+    @Test
+    public void testSkipsUnchanged() {
+        OutputWriteFilter filter = new OutputWriteFilter();
+        assertTrue(write(filter, ControlMode.PercentOutput, 0.5));
+        assertFalse(write(filter, ControlMode.PercentOutput, 0.5));
+        assertFalse(write(filter, ControlMode.PercentOutput, 0.5 + OutputWriteFilter.kDefaultEpsilon / 2));
+        assertTrue(write(filter, ControlMode.PercentOutput, 0.6));
+        // Same value in another mode is a different output
+        assertTrue(write(filter, ControlMode.Velocity, 0.6));
+        assertEquals(2, filter.getSkippedWrites());
+    }
+
+    @Test
+    public void testRefresh() {
+        OutputWriteFilter filter = new OutputWriteFilter();
+        filter.setRefreshWrites(3);
+        int writes = 0;
+        for (int i = 0; i < 12; i++) {
+            if (write(filter, ControlMode.PercentOutput, 0.25)) {
+                writes++;
+            }
+        }
+        // The first write, then one in every four
+        assertEquals(3, writes);
+
+        filter.invalidate();
+        assertTrue(write(filter, ControlMode.PercentOutput, 0.25));
+    }
+
+    @Test
+    public void testRetriesFailedWrite() {
+        OutputWriteFilter filter = new OutputWriteFilter();
+        assertTrue(filter.shouldWrite(ControlMode.PercentOutput, 0.5));
+        filter.written(ControlMode.PercentOutput, 0.5, false);
+        assertTrue(filter.shouldWrite(ControlMode.PercentOutput, 0.5));
+    }
+}
@@ -0,0 +1,56 @@
+package lib.geometry;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class MutablePose2dTest {
+    private static final double kTestEpsilon = 1E-9;
+
+    private final Pose2d a = new Pose2d(1.5, -2.0, Rotation2d.fromDegrees(30));
+    private final Pose2d b = new Pose2d(-0.5, 3.0, Rotation2d.fromDegrees(-110));
+
+    private static void assertPose(Pose2d expected, MutablePose2d actual) {
+        assertEquals(expected.getTranslation().x(), actual.getTranslation().x(), kTestEpsilon);
+        assertEquals(expected.getTranslation().y(), actual.getTranslation().y(), kTestEpsilon);
+        assertEquals(expected.getRotation().cos(), actual.getRotation().cos(), kTestEpsilon);
+        assertEquals(expected.getRotation().sin(), actual.getRotation().sin(), kTestEpsilon);
+    }
+
+    @Test
+    public void testTransformAndInverse() {
+        assertPose(a.transformBy(b), new MutablePose2d(a).transformBy(b));
+        assertPose(a.inverse(), new MutablePose2d(a).inverse());
+    }
+
+    @Test
+    public void testExpLog() {
+        var twist = new Twist2d(1.2, 0.3, 0.7);
+        assertPose(Pose2d.exp(twist), new MutablePose2d().setExp(twist));
+        assertPose(a.transformBy(Pose2d.exp(twist)), new MutablePose2d(a).transformByExp(1.2, 0.3, 0.7));
+
+        var expected = Pose2d.log(b);
+        var actual = new MutablePose2d(b).log(new MutableTwist2d());
+        assertEquals(expected.dx, actual.dx, kTestEpsilon);
+        assertEquals(expected.dy, actual.dy, kTestEpsilon);
+        assertEquals(expected.dtheta, actual.dtheta, kTestEpsilon);
+    }
+
+    @Test
+    public void testInterpolate() {
+        for (double t = 0; t <= 1; t += 0.125) {
+            assertPose(a.interpolate(b, t), new MutablePose2d(a).interpolate(b, t));
+        }
+    }
+
+    @Test
+    public void testTranslationAndRotation() {
+        var translation = new MutableTranslation2d(a.getTranslation()).rotateBy(b.getRotation()).scale(2);
+        var expected = a.getTranslation().rotateBy(b.getRotation()).scale(2);
+        assertEquals(expected.x(), translation.x(), kTestEpsilon);
+        assertEquals(expected.y(), translation.y(), kTestEpsilon);
+
+        var rotation = new MutableRotation2d(a.getRotation()).interpolate(new MutableRotation2d(b.getRotation()), 0.3);
+        assertEquals(a.getRotation().interpolate(b.getRotation(), 0.3).getDegrees(), rotation.getDegrees(), kTestEpsilon);
+    }
+}
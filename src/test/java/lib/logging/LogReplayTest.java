@@ -0,0 +1,115 @@
+package lib.logging;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import org.junit.Test;
+
+import lib.loops.ILooper;
+import lib.loops.Loop;
+import lib.subsystems.Subsystem;
+import lib.util.Clock;
+
+public class LogReplayTest {
+    private static final int kCycles = 200;
+
+    private static class Scaler extends Subsystem {
+        public static class PeriodicIO {
+            // INPUTS
+            public double timestamp;
+            public double input;
+            public boolean[] flags = new boolean[2];
+
+            // OUTPUTS
+            @LogSchema.Output
+            public double output;
+            @LogSchema.Output
+            public boolean flagged;
+        }
+
+        final PeriodicIO mPeriodicIO = new PeriodicIO();
+        double mGain = 2;
+        double mReplayedTime = Double.NaN;
+
+        @Override
+        protected Object getLogSource() {
+            return mPeriodicIO;
+        }
+
+        @Override
+        public void registerEnabledLoops(ILooper in) {
+            in.register(new Loop() {
+                @Override
+                public void onStart(double timestamp) {}
+
+                @Override
+                public void onLoop(double timestamp) {
+                    mPeriodicIO.output = mPeriodicIO.input * mGain;
+                    mPeriodicIO.flagged = mPeriodicIO.flags[0] && mPeriodicIO.flags[1];
+                    mReplayedTime = Clock.now();
+                }
+
+                @Override
+                public void onStop(double timestamp) {}
+            });
+        }
+
+        @Override
+        public void stop() {}
+
+        @Override
+        public boolean checkSystem() {
+            return true;
+        }
+
+        @Override
+        public void outputTelemetry() {}
+    }
+
+    private static File record() throws Exception {
+        File directory = Files.createTempDirectory("replay").toFile();
+        directory.deleteOnExit();
+
+        Scaler scaler = new Scaler();
+        scaler.startLogging(directory.getPath());
+        for (int i = 0; i < kCycles; i++) {
+            scaler.mPeriodicIO.timestamp = i * 0.01;
+            scaler.mPeriodicIO.input = Math.sin(i * 0.1);
+            scaler.mPeriodicIO.flags[0] = i % 2 == 0;
+            scaler.mPeriodicIO.flags[1] = i % 3 == 0;
+            scaler.mPeriodicIO.output = scaler.mPeriodicIO.input * 2;
+            scaler.mPeriodicIO.flagged = scaler.mPeriodicIO.flags[0] && scaler.mPeriodicIO.flags[1];
+            scaler.writeToLog();
+        }
+        scaler.stopLogging();
+        new File(directory, scaler.getName() + MappedLogSink.kExtension).deleteOnExit();
+        return directory;
+    }
+
+    @Test
+    public void testReplayMatches() throws Exception {
+        Scaler scaler = new Scaler();
+        LogReplay.Result result = new LogReplay(record().getPath(), 1e-9, scaler).run();
+
+        assertEquals(kCycles, result.cycles);
+        assertEquals(2 * kCycles, result.comparedValues);
+        assertEquals(0, result.mismatchedValues);
+        // Robot time followed the log
+        assertEquals((kCycles - 1) * 0.01, scaler.mReplayedTime, 1e-9);
+    }
+
+    @Test
+    public void testReplayFindsChangedOutput() throws Exception {
+        Scaler scaler = new Scaler();
+        scaler.mGain = 3;
+        LogReplay.Result result = new LogReplay(record().getPath(), 1e-9, scaler).run();
+
+        assertEquals(kCycles, result.cycles);
+        assertTrue(result.mismatchedValues > 0);
+        assertEquals(1, result.mismatchedColumns.size());
+        assertTrue(result.mismatchedColumns.get(0).startsWith("Scaler.output"));
+    }
+}
@@ -0,0 +1,137 @@
+package lib.logging;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+
+import org.junit.Test;
+
+public class MappedLogSinkTest {
+    private static final LogSchema<double[]> kSchema = new LogSchema.Builder<double[]>()
+            .addDouble("timestamp", v -> v[0])
+            .addInt("count", v -> (int) v[1])
+            .addBoolean("even", v -> ((int) v[1]) % 2 == 0)
+            .build();
+
+    private static void writeRecords(MappedLogSink sink, int start, int end) throws Exception {
+        long[] record = new long[kSchema.getColumnCount()];
+        double[] value = new double[2];
+        for (int i = start; i < end; i++) {
+            value[0] = i * 0.01;
+            value[1] = i;
+            kSchema.capture(value, record);
+            sink.write(record);
+        }
+    }
+
+    @Test
+    public void testWrapAroundKeepsNewest() throws Exception {
+        File file = File.createTempFile("telemetry", MappedLogSink.kExtension);
+        file.deleteOnExit();
+
+        MappedLogSink sink = new MappedLogSink(file.getPath(), 50);
+        sink.open(kSchema);
+        writeRecords(sink, 0, 120);
+        sink.close();
+
+        try (LogReader reader = LogReader.open(file.getPath())) {
+            assertTrue(reader instanceof MappedLogReader);
+            assertEquals(120, ((MappedLogReader) reader).getCommittedCount());
+            assertEquals(2, reader.getColumnIndex("even"));
+
+            long[] record = new long[reader.getColumnCount()];
+            for (int i = 70; i < 120; i++) {
+                assertTrue(reader.next(record));
+                assertEquals(i * 0.01, LogSchema.toDouble(record[0]), 0.0);
+                assertEquals(i, record[1]);
+                assertEquals(i % 2 == 0, LogSchema.toBoolean(record[2]));
+            }
+            assertFalse(reader.next(record));
+        }
+    }
+
+    @Test
+    public void testReadableWithoutClose() throws Exception {
+        File file = File.createTempFile("telemetry", MappedLogSink.kExtension);
+        file.deleteOnExit();
+
+        // Never closed or flushed, like the robot losing power
+        MappedLogSink sink = new MappedLogSink(file.getPath(), 50);
+        sink.open(kSchema);
+        writeRecords(sink, 0, 10);
+
+        try (MappedLogReader reader = new MappedLogReader(file.getPath())) {
+            long[] record = new long[reader.getColumnCount()];
+            int rows = 0;
+            while (reader.next(record)) {
+                assertEquals(rows, record[1]);
+                rows++;
+            }
+            assertEquals(10, rows);
+        }
+        sink.close();
+    }
+
+    @Test
+    public void testSkipsTornSlot() throws Exception {
+        File file = File.createTempFile("telemetry", MappedLogSink.kExtension);
+        file.deleteOnExit();
+
+        MappedLogSink sink = new MappedLogSink(file.getPath(), 50);
+        sink.open(kSchema);
+        writeRecords(sink, 0, 10);
+        sink.close();
+
+        // Break the index of record 3, as if it was being rewritten when power was lost
+        try (RandomAccessFile raw = new RandomAccessFile(file, "rw")) {
+            raw.seek(MappedLogSink.kHeaderBytesOffset);
+            int headerBytes = raw.readInt();
+            int slotBytes = raw.readInt();
+            raw.seek(headerBytes + 3L * slotBytes);
+            raw.writeLong(-1);
+        }
+
+        try (MappedLogReader reader = new MappedLogReader(file.getPath())) {
+            long[] record = new long[reader.getColumnCount()];
+            int rows = 0;
+            while (reader.next(record)) {
+                assertTrue(record[1] != 3);
+                rows++;
+            }
+            assertEquals(9, rows);
+        }
+    }
+
+    @Test
+    public void testSkipsSlotWithStaleData() throws Exception {
+        File file = File.createTempFile("telemetry", MappedLogSink.kExtension);
+        file.deleteOnExit();
+
+        MappedLogSink sink = new MappedLogSink(file.getPath(), 50);
+        sink.open(kSchema);
+        writeRecords(sink, 0, 10);
+        sink.close();
+
+        // Record 5 keeps its new index but part of its data is old, as if only some of its bytes reached flash
+        try (RandomAccessFile raw = new RandomAccessFile(file, "rw")) {
+            raw.seek(MappedLogSink.kHeaderBytesOffset);
+            int headerBytes = raw.readInt();
+            int slotBytes = raw.readInt();
+            raw.seek(headerBytes + 5L * slotBytes + 8 + 8);
+            raw.writeInt(123);
+        }
+
+        try (MappedLogReader reader = new MappedLogReader(file.getPath())) {
+            long[] record = new long[reader.getColumnCount()];
+            int rows = 0;
+            while (reader.next(record)) {
+                assertTrue(record[1] != 5);
+                rows++;
+            }
+            assertEquals(9, rows);
+        }
+    }
+}
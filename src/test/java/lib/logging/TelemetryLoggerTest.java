@@ -0,0 +1,113 @@
+package lib.logging;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+
+import org.junit.Test;
+
+public class TelemetryLoggerTest {
+    private enum Mode {
+        OFF, ON
+    }
+
+    public static class PeriodicIO {
+        public static int kIgnoredStatic = 5;
+
+        public double timestamp;
+        public int count;
+        public long ticks;
+        public boolean enabled;
+        public Mode mode = Mode.OFF;
+        public String ignoredObject = "not logged";
+    }
+
+    @Test
+    public void testForPublicFields() {
+        LogSchema<PeriodicIO> schema = LogSchema.forPublicFields(PeriodicIO.class);
+        assertEquals(5, schema.getColumnCount());
+        assertEquals(8 + 4 + 8 + 1 + 4, schema.getRecordBytes());
+
+        PeriodicIO io = new PeriodicIO();
+        io.timestamp = 1.25;
+        io.count = -3;
+        io.ticks = 1L << 40;
+        io.enabled = true;
+        io.mode = Mode.ON;
+
+        long[] record = new long[schema.getColumnCount()];
+        schema.capture(io, record);
+        for (int i = 0; i < schema.getColumnCount(); i++) {
+            switch (schema.getName(i)) {
+                case "timestamp":
+                    assertEquals(1.25, LogSchema.toDouble(record[i]), 0.0);
+                    break;
+                case "count":
+                    assertEquals(-3, record[i]);
+                    break;
+                case "ticks":
+                    assertEquals(1L << 40, record[i]);
+                    break;
+                case "enabled":
+                    assertTrue(LogSchema.toBoolean(record[i]));
+                    break;
+                case "mode":
+                    assertEquals(Mode.ON.ordinal(), record[i]);
+                    break;
+                default:
+                    throw new AssertionError("Unexpected column " + schema.getName(i));
+            }
+        }
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        File file = File.createTempFile("telemetry", MappedLogSink.kExtension);
+        file.deleteOnExit();
+
+        LogSchema<PeriodicIO> schema = new LogSchema.Builder<PeriodicIO>()
+                .addDouble("timestamp", io -> io.timestamp)
+                .addInt("count", io -> io.count)
+                .addBoolean("enabled", io -> io.enabled)
+                .build();
+        // Small queue so it wraps several times
+        TelemetryLogger<PeriodicIO> logger = new TelemetryLogger<>("test", schema,
+                new MappedLogSink(file.getPath(), 1000), 1024);
+        assertFalse(logger.log(new PeriodicIO()));
+
+        logger.start();
+        PeriodicIO io = new PeriodicIO();
+        int logged = 0;
+        for (int i = 0; i < 1000; i++) {
+            io.timestamp = i * 0.01;
+            io.count = i;
+            io.enabled = i % 2 == 0;
+            if (logger.log(io)) {
+                logged++;
+            } else {
+                Thread.sleep(1);
+                i--;
+            }
+        }
+        logger.stop();
+        assertEquals(1000, logged);
+
+        try (LogReader reader = LogReader.open(file.getPath())) {
+            assertEquals(3, reader.getColumnCount());
+            assertEquals(1, reader.getColumnIndex("count"));
+            assertEquals(LogSchema.Type.BOOLEAN, reader.getType(2));
+
+            long[] record = new long[reader.getColumnCount()];
+            int rows = 0;
+            while (reader.next(record)) {
+                assertEquals(rows * 0.01, LogSchema.toDouble(record[0]), 0.0);
+                assertEquals(rows, record[1]);
+                assertEquals(rows % 2 == 0, LogSchema.toBoolean(record[2]));
+                rows++;
+            }
+            assertEquals(1000, rows);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package lib.loops;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class LoopTimingStatsTest {
+    LoopTimingStats stats = new LoopTimingStats("test", 100);
+
+    @Test
+    public void testStats() {
+        for (int i = 1; i <= 100; i++) {
+            stats.addSample(i * 0.001, 0.05);
+        }
+
+        var snapshot = stats.getSnapshot();
+        assertEquals(0.001, snapshot.min, 1e-9);
+        assertEquals(0.0505, snapshot.mean, 1e-9);
+        assertEquals(0.099, snapshot.p99, 1e-9);
+        assertEquals(0.100, snapshot.max, 1e-9);
+        assertEquals(100, snapshot.windowSamples);
+        assertEquals(50, snapshot.overruns);
+    }
+
+    @Test
+    public void testWindowRollsOver() {
+        for (int i = 0; i < 100; i++) {
+            stats.addSample(1.0, 2.0);
+        }
+        for (int i = 0; i < 100; i++) {
+            stats.addSample(0.5, 2.0);
+        }
+
+        var snapshot = stats.getSnapshot();
+        assertEquals(0.5, snapshot.max, 1e-9);
+        assertEquals(200, snapshot.totalSamples);
+        assertEquals(0, snapshot.overruns);
+
+        stats.reset();
+        assertEquals(0, stats.getSnapshot().windowSamples);
+    }
+}
@@ -0,0 +1,41 @@
+package lib.subsystems;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import lib.subsystems.SubsystemProfiler.Phase;
+
+public class SubsystemProfilerTest {
+    SubsystemProfiler profiler = new SubsystemProfiler(new String[] {"A", "B"}, 10);
+
+    @Test
+    public void testRanking() {
+        for (int i = 0; i < 20; i++) {
+            profiler.record(0, Phase.READ, 100);
+            profiler.record(1, Phase.READ, 50);
+            // Two loops owned by the same subsystem accumulate
+            profiler.record(1, Phase.LOOP, 200);
+            profiler.record(1, Phase.LOOP, 200);
+            profiler.endCycle();
+        }
+
+        var report = profiler.getReport();
+        assertEquals(3, report.size());
+        assertEquals("B", report.get(0).name);
+        assertEquals(Phase.LOOP, report.get(0).phase);
+        assertEquals(400, report.get(0).meanNanos, 1e-9);
+        assertEquals("A", report.get(1).name);
+        assertEquals(100, report.get(1).maxNanos);
+
+        assertEquals(1, profiler.getTopOffenders(1).size());
+    }
+
+    @Test
+    public void testDisabled() {
+        profiler.setEnabled(false);
+        profiler.record(0, Phase.WRITE, 100);
+        profiler.endCycle();
+        assertEquals(0, profiler.getReport().size());
+    }
+}
@@ -0,0 +1,98 @@
+package lib.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import lib.geometry.MutablePose2d;
+import lib.geometry.Pose2d;
+import lib.geometry.Rotation2d;
+
+public class InterpolatingPoseBufferTest {
+    private static final double kTestEpsilon = 1E-9;
+
+    private static void assertPose(Pose2d expected, MutablePose2d actual) {
+        assertEquals(expected.getTranslation().x(), actual.getTranslation().x(), kTestEpsilon);
+        assertEquals(expected.getTranslation().y(), actual.getTranslation().y(), kTestEpsilon);
+        assertEquals(expected.getRotation().cos(), actual.getRotation().cos(), kTestEpsilon);
+        assertEquals(expected.getRotation().sin(), actual.getRotation().sin(), kTestEpsilon);
+    }
+
+    private static Pose2d randomPose(Random random) {
+        return new Pose2d(random.nextDouble() * 10, random.nextDouble() * 10,
+                Rotation2d.fromDegrees(random.nextDouble() * 360 - 180));
+    }
+
+    @Test
+    public void testMatchesTreeMap() {
+        Random random = new Random(1324);
+        var buffer = new InterpolatingPoseBuffer(20);
+        var map = new InterpolatingTreeMap<InterpolatingDouble, Pose2d>(20);
+        var dest = new MutablePose2d();
+
+        assertNull(buffer.getInterpolated(0.0, dest));
+
+        double time = 0.0;
+        for (int i = 0; i < 100; i++) {
+            time += 0.01 + random.nextDouble() * 0.01;
+            Pose2d pose = randomPose(random);
+            buffer.add(time, pose);
+            map.put(new InterpolatingDouble(time), pose);
+
+            for (int j = 0; j < 10; j++) {
+                double query = time - random.nextDouble() * 0.5 + 0.05;
+                assertPose(map.getInterpolated(new InterpolatingDouble(query)), buffer.getInterpolated(query, dest));
+            }
+        }
+        assertEquals(20, buffer.size());
+        assertEquals(map.firstKey().value, buffer.getOldestTimestamp(), 0.0);
+        assertPose(map.lastEntry().getValue(), buffer.getLatest(dest));
+    }
+
+    @Test
+    public void testOutOfOrder() {
+        var buffer = new InterpolatingPoseBuffer(3);
+        var dest = new MutablePose2d();
+        Pose2d a = new Pose2d(1, 0, Rotation2d.identity());
+        Pose2d b = new Pose2d(2, 0, Rotation2d.identity());
+        Pose2d c = new Pose2d(3, 0, Rotation2d.identity());
+        Pose2d d = new Pose2d(4, 0, Rotation2d.identity());
+
+        buffer.add(1.0, a);
+        buffer.add(3.0, c);
+        buffer.add(2.0, b);
+        assertPose(b, buffer.getInterpolated(2.0, dest));
+        assertPose(c, buffer.getLatest(dest));
+
+        // Replaces rather than inserting
+        buffer.add(2.0, d);
+        assertEquals(3, buffer.size());
+        assertPose(d, buffer.getInterpolated(2.0, dest));
+
+        // Full, so the oldest is dropped
+        buffer.add(1.5, b);
+        assertEquals(1.5, buffer.getOldestTimestamp(), 0.0);
+        assertPose(new Pose2d(3, 0, Rotation2d.identity()), buffer.getInterpolated(1.75, dest));
+        assertPose(c, buffer.getLatest(dest));
+    }
+
+    @Test
+    public void testOlderThanFullHistoryIsDropped() {
+        var buffer = new InterpolatingPoseBuffer(3);
+        var dest = new MutablePose2d();
+        for (int i = 1; i <= 3; i++) {
+            Pose2d pose = new Pose2d(i, 0, Rotation2d.identity());
+            buffer.add(i, pose);
+        }
+
+        // A late sample does not shorten the history
+        Pose2d late = new Pose2d(-1, 0, Rotation2d.identity());
+        buffer.add(0.5, late);
+        assertEquals(3, buffer.size());
+        assertEquals(1.0, buffer.getOldestTimestamp(), 0.0);
+        assertPose(new Pose2d(1, 0, Rotation2d.identity()), buffer.getInterpolated(1.0, dest));
+    }
+}
@@ -0,0 +1,52 @@
+package lib.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class WorkerPoolTest {
+    WorkerPool pool = new WorkerPool("WorkerPoolTest", 3);
+
+    @Test
+    public void testRunsEveryTaskOncePerCall() {
+        AtomicInteger[] counts = new AtomicInteger[8];
+        Runnable[] tasks = new Runnable[counts.length];
+        for (int i = 0; i < tasks.length; i++) {
+            final AtomicInteger count = counts[i] = new AtomicInteger();
+            tasks[i] = count::incrementAndGet;
+        }
+
+        for (int i = 0; i < 1000; i++) {
+            pool.runAll(tasks, tasks.length);
+        }
+
+        for (AtomicInteger count : counts) {
+            assertEquals(1000, count.get());
+        }
+        pool.shutdown();
+    }
+
+    @Test
+    public void testRethrowsFailure() {
+        AtomicInteger ran = new AtomicInteger();
+        Runnable[] tasks = {
+            ran::incrementAndGet,
+            () -> { throw new IllegalStateException("test"); },
+            ran::incrementAndGet
+        };
+
+        boolean thrown = false;
+        try {
+            pool.runAll(tasks, tasks.length);
+        } catch (IllegalStateException e) {
+            thrown = true;
+        }
+
+        assertTrue(thrown);
+        assertEquals(2, ran.get());
+        pool.shutdown();
+    }
+}